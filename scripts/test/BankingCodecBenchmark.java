@@ -0,0 +1,108 @@
+import com.careforall.banking.config.BankingMessageCodec;
+import com.careforall.banking.dto.PaymentAuthorizationRequest;
+import com.careforall.banking.dto.PaymentCaptureRequest;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+/**
+ * Serialization benchmark of the banking request messages
+ *
+ * Encodes and decodes PaymentAuthorizationRequest / PaymentCaptureRequest with
+ * the previous Jackson2JsonMessageConverter (type resolved from the __TypeId__
+ * class name per message) and with BankingMessageCodec (pre-registered types).
+ * Run through banking-codec-benchmark.sh.
+ */
+public class BankingCodecBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+    private static final int MESSAGES = Integer.getInteger("messages", 500_000);
+
+    public static void main(String[] args) {
+        PaymentAuthorizationRequest authorization = PaymentAuthorizationRequest.builder()
+                .paymentId("PAY-123e4567-e89b-12d3-a456-426614174000")
+                .donorEmail("donor@example.com")
+                .userId(42L)
+                .amount(new BigDecimal("100.00"))
+                .idempotencyKey("idem-123e4567-e89b-12d3-a456-426614174000")
+                .build();
+        PaymentCaptureRequest capture = PaymentCaptureRequest.builder()
+                .paymentId("PAY-123e4567-e89b-12d3-a456-426614174000")
+                .donorEmail("donor@example.com")
+                .userId(42L)
+                .amount(new BigDecimal("100.00"))
+                .build();
+
+        MessageConverter jackson = new Jackson2JsonMessageConverter();
+        MessageConverter codec = new BankingMessageCodec();
+
+        System.out.printf("%-28s %-22s %12s %12s %8s%n", "message", "converter", "encode/s", "decode/s", "bytes");
+        run("PaymentAuthorizationRequest", "Jackson2Json (class id)", jackson, authorization);
+        run("PaymentAuthorizationRequest", "BankingMessageCodec", codec, authorization);
+        run("PaymentCaptureRequest", "Jackson2Json (class id)", jackson, capture);
+        run("PaymentCaptureRequest", "BankingMessageCodec", codec, capture);
+
+        // What payment-service sends: its own class name in __TypeId__
+        Message fromPaymentService = codec.toMessage(authorization, new MessageProperties());
+        fromPaymentService.getMessageProperties().setHeader(BankingMessageCodec.TYPE_ID_HEADER,
+                "com.careforall.payment.dto.PaymentAuthorizationRequest");
+        Object decoded = codec.fromMessage(fromPaymentService);
+        if (!authorization.equals(decoded)) {
+            throw new IllegalStateException("payment-service type id did not decode: " + decoded);
+        }
+        System.out.println("payment-service __TypeId__ decodes to " + decoded.getClass().getSimpleName());
+    }
+
+    private static void run(String name, String converterName, MessageConverter converter, Object payload) {
+        Message message = converter.toMessage(payload, new MessageProperties());
+        if (!payload.equals(converter.fromMessage(message))) {
+            throw new IllegalStateException(converterName + " does not round-trip " + name);
+        }
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            measure(() -> encode(converter, payload));
+            measure(() -> decode(converter, message));
+        }
+        double encode = 0;
+        double decode = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            encode = Math.max(encode, measure(() -> encode(converter, payload)));
+            decode = Math.max(decode, measure(() -> decode(converter, message)));
+        }
+        System.out.printf("%-28s %-22s %12.0f %12.0f %8d%n", name, converterName, encode, decode, message.getBody().length);
+    }
+
+    private static Object encode(MessageConverter converter, Object payload) {
+        Object last = null;
+        for (int i = 0; i < MESSAGES; i++) {
+            last = converter.toMessage(payload, new MessageProperties());
+        }
+        return last;
+    }
+
+    private static Object decode(MessageConverter converter, Message message) {
+        Object last = null;
+        for (int i = 0; i < MESSAGES; i++) {
+            last = converter.fromMessage(message);
+        }
+        return last;
+    }
+
+    /**
+     * @return messages per second
+     */
+    private static double measure(Supplier<Object> work) {
+        long start = System.nanoTime();
+        Object result = work.get();
+        long elapsed = System.nanoTime() - start;
+        if (result == null) {
+            throw new IllegalStateException("nothing converted");
+        }
+        return MESSAGES / (elapsed / 1_000_000_000.0);
+    }
+}
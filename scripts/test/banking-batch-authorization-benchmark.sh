@@ -0,0 +1,148 @@
+#!/bin/bash
+
+###############################################################################
+# Banking Service: Batch vs Single-Message Authorization Benchmark
+###############################################################################
+# Authorizes AUTHORIZATIONS payments spread over ACCOUNTS accounts twice, on two
+# fresh sets of accounts:
+#   A. one RabbitMQ message per payment (banking.authorize, the default path)
+#   B. POST /api/banking/authorizations:batch in chunks of BATCH_SIZE
+# and reports the throughput of both. Path B must authorize every payment and
+# leave each account with exactly its share locked.
+#
+# Path A runs whatever the service is configured for; restart it with
+# BANKING_COMBINED_AUTHORIZE_CAPTURE=false for the closest comparison
+# (authorize, then capture, per message).
+###############################################################################
+
+set -e
+
+BANKING_SERVICE="${BANKING_SERVICE:-http://localhost:8091}"
+RABBITMQ_URL="${RABBITMQ_URL:-http://localhost:15672}"
+RABBITMQ_AUTH="${RABBITMQ_AUTH:-guest:guest}"
+DB_CONTAINER="${DB_CONTAINER:-hackfleet-postgres-banking}"
+DB_USER="${DB_USER:-careforall}"
+DB_NAME="${DB_NAME:-bankingdb}"
+AUTHORIZATIONS="${AUTHORIZATIONS:-10000}"
+ACCOUNTS="${ACCOUNTS:-1000}"
+BATCH_SIZE="${BATCH_SIZE:-10000}"
+AMOUNT="${AMOUNT:-10.00}"
+PARALLEL="${PARALLEL:-50}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-600}"
+RESULTS_DIR="./test-results"
+mkdir -p "$RESULTS_DIR"
+
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+NC='\033[0m'
+
+RUN_ID="$(date +%s)"
+PER_ACCOUNT=$(( (AUTHORIZATIONS + ACCOUNTS - 1) / ACCOUNTS ))
+BALANCE=$(awk "BEGIN { printf \"%.2f\", ${PER_ACCOUNT} * ${AMOUNT} }")
+FAILED=0
+
+psql_exec() {
+    docker exec -i "$DB_CONTAINER" psql -U "$DB_USER" -d "$DB_NAME" -v ON_ERROR_STOP=1 -qtA -c "$1"
+}
+
+# create_accounts <prefix>: ACCOUNTS accounts named <prefix>-<n>@benchmark.test
+create_accounts() {
+    psql_exec "INSERT INTO bank_accounts (email, account_holder_name, available_balance, locked_balance,
+                   version, created_at, updated_at)
+               SELECT '$1-' || n || '@benchmark.test', 'Batch Benchmark', ${BALANCE}, 0, 0, NOW(), NOW()
+               FROM generate_series(1, ${ACCOUNTS}) AS n;"
+}
+
+# count_authorized <payment id prefix>
+count_authorized() {
+    psql_exec "SELECT COUNT(*) FROM bank_transactions
+               WHERE transaction_type = 'AUTHORIZATION' AND external_reference LIKE '$1-%'"
+}
+
+publish() {
+    local payment_id="PAY-SINGLE-${RUN_ID}-$1"
+    local email="single-${RUN_ID}-$(( ($1 - 1) % ACCOUNTS + 1 ))@benchmark.test"
+    local payload="{\\\"paymentId\\\":\\\"${payment_id}\\\",\\\"donorEmail\\\":\\\"${email}\\\",\\\"amount\\\":${AMOUNT},\\\"idempotencyKey\\\":\\\"${payment_id}\\\"}"
+    curl -s -o /dev/null -u "${RABBITMQ_AUTH}" -H "Content-Type: application/json" -X POST \
+        "${RABBITMQ_URL}/api/exchanges/%2F/banking.exchange/publish" \
+        -d "{\"properties\":{\"content_type\":\"application/json\",\"headers\":{\"__TypeId__\":\"com.careforall.banking.dto.PaymentAuthorizationRequest\"}},\"routing_key\":\"banking.authorize\",\"payload\":\"${payload}\",\"payload_encoding\":\"string\"}"
+}
+export -f publish
+export RUN_ID ACCOUNTS AMOUNT RABBITMQ_URL RABBITMQ_AUTH
+
+echo -e "${BLUE}═══════════════════════════════════════════════════════════${NC}"
+echo -e "${BLUE}  Batch Authorization: ${AUTHORIZATIONS} payments, ${ACCOUNTS} accounts${NC}"
+echo -e "${BLUE}═══════════════════════════════════════════════════════════${NC}"
+echo ""
+
+echo "Step 1: Create 2 x ${ACCOUNTS} accounts with ${BALANCE} each"
+create_accounts "single-${RUN_ID}"
+create_accounts "batch-${RUN_ID}"
+
+echo -e "${YELLOW}Step 2: Single-message path (${PARALLEL} publishers)${NC}"
+start=$(date +%s.%N)
+seq 1 "$AUTHORIZATIONS" | xargs -P "${PARALLEL}" -I{} bash -c 'publish {}'
+single=0
+deadline=$(( $(date +%s) + TIMEOUT_SECONDS ))
+while [ "$(date +%s)" -lt "$deadline" ]; do
+    single=$(count_authorized "PAY-SINGLE-${RUN_ID}")
+    [ "$single" -ge "$AUTHORIZATIONS" ] && break
+    sleep 0.5
+done
+end=$(date +%s.%N)
+single_elapsed=$(awk "BEGIN { printf \"%.2f\", ${end} - ${start} }")
+single_rate=$(awk "BEGIN { printf \"%.1f\", ${single} / (${end} - ${start}) }")
+echo "Authorized ${single} / ${AUTHORIZATIONS} in ${single_elapsed}s"
+
+echo -e "${YELLOW}Step 3: Batch path (${BATCH_SIZE} per call)${NC}"
+batch_file="${RESULTS_DIR}/batch-${RUN_ID}.json"
+start=$(date +%s.%N)
+for offset in $(seq 0 "$BATCH_SIZE" $(( AUTHORIZATIONS - 1 ))); do
+    last=$(( offset + BATCH_SIZE < AUTHORIZATIONS ? offset + BATCH_SIZE : AUTHORIZATIONS ))
+    awk -v from="$(( offset + 1 ))" -v to="$last" -v run="$RUN_ID" -v accounts="$ACCOUNTS" -v amount="$AMOUNT" 'BEGIN {
+        printf "{\"batchId\":\"BATCH-%s-%d\",\"authorizations\":[", run, from
+        for (n = from; n <= to; n++) {
+            printf "%s{\"paymentId\":\"PAY-BATCH-%s-%d\",\"donorEmail\":\"batch-%s-%d@benchmark.test\",\"amount\":%s}",
+                (n > from ? "," : ""), run, n, run, (n - 1) % accounts + 1, amount
+        }
+        printf "]}"
+    }' > "$batch_file"
+    http_code=$(curl -s -o /dev/null -w "%{http_code}" -X POST -H "Content-Type: application/json" \
+        --data-binary @"$batch_file" "${BANKING_SERVICE}/api/banking/authorizations:batch")
+    if [ "$http_code" != "200" ]; then
+        echo -e "${RED}❌ Batch at offset ${offset} returned HTTP ${http_code}${NC}"
+        FAILED=1
+    fi
+done
+end=$(date +%s.%N)
+rm -f "$batch_file"
+batch=$(count_authorized "PAY-BATCH-${RUN_ID}")
+batch_elapsed=$(awk "BEGIN { printf \"%.2f\", ${end} - ${start} }")
+batch_rate=$(awk "BEGIN { printf \"%.1f\", ${batch} / (${end} - ${start}) }")
+echo "Authorized ${batch} / ${AUTHORIZATIONS} in ${batch_elapsed}s"
+
+echo "Step 4: Check the batch accounts' locked balances"
+expected_locked=$(awk "BEGIN { printf \"%.2f\", ${AUTHORIZATIONS} * ${AMOUNT} }")
+locked=$(psql_exec "SELECT COALESCE(SUM(locked_balance), 0) FROM bank_accounts WHERE email LIKE 'batch-${RUN_ID}-%'")
+negative=$(psql_exec "SELECT COUNT(*) FROM bank_accounts WHERE email LIKE 'batch-${RUN_ID}-%' AND available_balance < 0")
+echo "Locked in total: ${locked} (expected ${expected_locked}), negative balances: ${negative}"
+
+echo ""
+echo "Single-message path:  ${single_rate} authorizations/s"
+echo "Batch path:           ${batch_rate} authorizations/s"
+echo ""
+
+echo "Step 5: Clean up"
+psql_exec "DELETE FROM bank_transactions WHERE account_id IN
+               (SELECT id FROM bank_accounts WHERE email LIKE 'single-${RUN_ID}-%' OR email LIKE 'batch-${RUN_ID}-%');
+           DELETE FROM bank_accounts WHERE email LIKE 'single-${RUN_ID}-%' OR email LIKE 'batch-${RUN_ID}-%';"
+
+if [ "$FAILED" -eq 0 ] && [ "$batch" -eq "$AUTHORIZATIONS" ] && [ "$negative" -eq 0 ] \
+    && awk "BEGIN { exit !(${locked} == ${expected_locked}) }"; then
+    echo -e "${GREEN}✅ Batch path authorized all ${AUTHORIZATIONS} payments${NC}"
+else
+    echo -e "${RED}❌ Batch authorization mismatch (see numbers above)${NC}"
+    exit 1
+fi
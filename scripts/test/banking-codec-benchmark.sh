@@ -0,0 +1,36 @@
+#!/bin/bash
+
+###############################################################################
+# Banking Service: Message Serialization Benchmark
+###############################################################################
+# Compares encode/decode throughput of the banking request messages between
+# the previous Jackson2JsonMessageConverter and BankingMessageCodec
+# (BankingCodecBenchmark.java, run against the compiled banking-service).
+# No running services needed.
+#
+#   MESSAGES=500000 ./banking-codec-benchmark.sh
+###############################################################################
+
+set -e
+
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+SERVICE_DIR="${SCRIPT_DIR}/../../services/banking-service"
+MESSAGES="${MESSAGES:-500000}"
+CLASSPATH_FILE="$(mktemp)"
+trap 'rm -f "$CLASSPATH_FILE"' EXIT
+
+BLUE='\033[0;34m'
+NC='\033[0m'
+
+echo -e "${BLUE}═══════════════════════════════════════════════════════════${NC}"
+echo -e "${BLUE}  Banking Message Serialization: ${MESSAGES} messages per run${NC}"
+echo -e "${BLUE}═══════════════════════════════════════════════════════════${NC}"
+echo ""
+
+echo "Step 1: Compile banking-service and resolve its classpath"
+(cd "$SERVICE_DIR" && mvn -B -q compile dependency:build-classpath -Dmdep.outputFile="$CLASSPATH_FILE")
+
+echo "Step 2: Run the benchmark"
+echo ""
+java -Dmessages="$MESSAGES" -cp "${SERVICE_DIR}/target/classes:$(cat "$CLASSPATH_FILE")" \
+    "${SCRIPT_DIR}/BankingCodecBenchmark.java"
@@ -0,0 +1,155 @@
+#!/bin/bash
+
+###############################################################################
+# Banking Service: Fault Injection (failure model of authorize/capture)
+###############################################################################
+# Checks that business declines and infrastructure faults are told apart:
+#   1. Declines (insufficient balance) answer PAYMENT_FAILED and are NOT
+#      counted by the bankingService circuit breaker
+#   2. With the banking database stopped, requests are retried, the circuit
+#      opens, and nothing is answered PAYMENT_FAILED: no CANCELLATION and
+#      no lost funds
+#   3. Once the database is back, the requests delayed on the retry queue
+#      complete (CAPTURE ledger entries), none is parked, and the circuit
+#      closes again
+#
+# Needs docker access to the banking database container. Run against a stack
+# with the default banking.combined-authorize-capture=true.
+###############################################################################
+
+set -e
+
+BANKING_SERVICE="${BANKING_SERVICE:-http://localhost:8091}"
+RABBITMQ_URL="${RABBITMQ_URL:-http://localhost:15672}"
+RABBITMQ_AUTH="${RABBITMQ_AUTH:-guest:guest}"
+DB_CONTAINER="${DB_CONTAINER:-hackfleet-postgres-banking}"
+DB_USER="${DB_USER:-careforall}"
+DB_NAME="${DB_NAME:-bankingdb}"
+DECLINES="${DECLINES:-10}"
+FAULTED="${FAULTED:-10}"
+OUTAGE_SECONDS="${OUTAGE_SECONDS:-15}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-120}"
+
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+NC='\033[0m'
+
+RUN_ID="$(date +%s)"
+EMAIL="fault-injection-${RUN_ID}@benchmark.test"
+FAILED=0
+
+psql_exec() {
+    docker exec -i "$DB_CONTAINER" psql -U "$DB_USER" -d "$DB_NAME" -v ON_ERROR_STOP=1 -qtA -c "$1"
+}
+
+# breaker_field <field>: a field of the bankingService circuit breaker
+breaker_field() {
+    curl -s "${BANKING_SERVICE}/actuator/circuitbreakers" \
+        | grep -o "\"bankingService\":{[^}]*}" | grep -o "\"$1\":[^,}]*" | cut -d: -f2 | tr -d '"'
+}
+
+# publish <payment id> <amount>
+publish() {
+    local payload="{\\\"paymentId\\\":\\\"$1\\\",\\\"donorEmail\\\":\\\"${EMAIL}\\\",\\\"amount\\\":$2,\\\"idempotencyKey\\\":\\\"$1\\\"}"
+    curl -s -o /dev/null -u "${RABBITMQ_AUTH}" -H "Content-Type: application/json" -X POST \
+        "${RABBITMQ_URL}/api/exchanges/%2F/banking.exchange/publish" \
+        -d "{\"properties\":{\"content_type\":\"application/json\",\"headers\":{\"__TypeId__\":\"com.careforall.banking.dto.PaymentAuthorizationRequest\"}},\"routing_key\":\"banking.authorize\",\"payload\":\"${payload}\",\"payload_encoding\":\"string\"}"
+}
+
+# queue_messages <queue>: messages waiting on a queue
+queue_messages() {
+    curl -s -u "${RABBITMQ_AUTH}" "${RABBITMQ_URL}/api/queues/%2F/$1" \
+        | grep -o '"messages":[0-9]*' | head -1 | cut -d: -f2
+}
+
+# count_entries <type> <payment id prefix>
+count_entries() {
+    psql_exec "SELECT COUNT(*) FROM bank_transactions
+               WHERE transaction_type = '$1' AND external_reference LIKE '$2-%'"
+}
+
+check() {
+    if [ "$1" = "ok" ]; then
+        echo -e "  ${GREEN}✅ $2${NC}"
+    else
+        echo -e "  ${RED}❌ $2${NC}"
+        FAILED=1
+    fi
+}
+
+echo -e "${BLUE}═══════════════════════════════════════════════════════════${NC}"
+echo -e "${BLUE}  Banking Fault Injection${NC}"
+echo -e "${BLUE}═══════════════════════════════════════════════════════════${NC}"
+echo ""
+
+echo "Step 0: Create account ${EMAIL} with balance 100.00"
+curl -s -o /dev/null -X POST "${BANKING_SERVICE}/api/banking/accounts?email=${EMAIL}&name=FaultInjection&initialBalance=100.00"
+
+echo -e "${YELLOW}Step 1: ${DECLINES} business declines${NC}"
+failed_before=$(breaker_field failedCalls)
+for n in $(seq 1 "$DECLINES"); do
+    publish "PAY-DECLINE-${RUN_ID}-${n}" 1000.00
+done
+sleep 5
+failed_after=$(breaker_field failedCalls)
+state=$(breaker_field state)
+echo "  Breaker failed calls: ${failed_before} -> ${failed_after}, state ${state}"
+[ "$failed_after" = "$failed_before" ] && r=ok || r=fail
+check "$r" "declines are not recorded as circuit breaker failures"
+[ "$state" = "CLOSED" ] && r=ok || r=fail
+check "$r" "circuit stays CLOSED"
+declined=$(count_entries AUTHORIZATION "PAY-DECLINE-${RUN_ID}")
+[ "$declined" -eq 0 ] && r=ok || r=fail
+check "$r" "declined payments left no ledger entries"
+
+echo -e "${YELLOW}Step 2: Stop the banking database for ${OUTAGE_SECONDS}s under ${FAULTED} requests${NC}"
+parked_before=$(queue_messages banking.request.parking.queue)
+docker stop "$DB_CONTAINER" > /dev/null
+for n in $(seq 1 "$FAULTED"); do
+    publish "PAY-FAULT-${RUN_ID}-${n}" 1.00
+done
+sleep "$OUTAGE_SECONDS"
+state=$(breaker_field state)
+echo "  Breaker state during outage: ${state}"
+[ "$state" = "OPEN" ] || [ "$state" = "HALF_OPEN" ] && r=ok || r=fail
+check "$r" "infrastructure faults open the circuit"
+docker start "$DB_CONTAINER" > /dev/null
+until docker exec "$DB_CONTAINER" pg_isready -U "$DB_USER" > /dev/null 2>&1; do sleep 1; done
+
+echo -e "${YELLOW}Step 3: Requeued requests complete once the database is back${NC}"
+captured=0
+deadline=$(( $(date +%s) + TIMEOUT_SECONDS ))
+while [ "$(date +%s)" -lt "$deadline" ]; do
+    captured=$(count_entries CAPTURE "PAY-FAULT-${RUN_ID}")
+    [ "$captured" -ge "$FAULTED" ] && break
+    sleep 1
+done
+cancelled=$(count_entries CANCELLATION "PAY-FAULT-${RUN_ID}")
+available=$(psql_exec "SELECT available_balance FROM bank_accounts WHERE email = '${EMAIL}'")
+expected=$(awk "BEGIN { printf \"%.2f\", 100 - ${FAULTED} }")
+echo "  Captured ${captured} / ${FAULTED}, cancelled ${cancelled}, available ${available} (expected ${expected})"
+[ "$captured" -eq "$FAULTED" ] && r=ok || r=fail
+check "$r" "every request that hit the outage was captured, not failed"
+[ "$cancelled" -eq 0 ] && awk "BEGIN { exit !(${available} == ${expected}) }" && r=ok || r=fail
+check "$r" "no payment failed and no funds were lost"
+parked_after=$(queue_messages banking.request.parking.queue)
+[ "${parked_after:-0}" = "${parked_before:-0}" ] && r=ok || r=fail
+check "$r" "no request ran out of requeues (parked ${parked_before:-0} -> ${parked_after:-0})"
+
+sleep 12  # waitDurationInOpenState + a half-open probe
+state=$(breaker_field state)
+[ "$state" = "CLOSED" ] || [ "$state" = "HALF_OPEN" ] && r=ok || r=fail
+check "$r" "circuit recovers after the outage (state ${state})"
+
+echo "Step 4: Clean up"
+psql_exec "DELETE FROM bank_transactions WHERE account_id = (SELECT id FROM bank_accounts WHERE email = '${EMAIL}');
+           DELETE FROM bank_accounts WHERE email = '${EMAIL}';"
+
+echo ""
+if [ "$FAILED" -eq 0 ]; then
+    echo -e "${GREEN}✅ Fault injection checks passed${NC}"
+else
+    exit 1
+fi
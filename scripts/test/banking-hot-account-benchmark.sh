@@ -0,0 +1,99 @@
+#!/bin/bash
+
+###############################################################################
+# Banking Service: Hot Account Authorization Benchmark
+###############################################################################
+# Publishes N concurrent authorization requests against ONE bank account and
+# measures how long the banking service takes to lock and capture all of them.
+#
+# The account is funded with exactly N * AMOUNT, plus one extra request that
+# must be rejected, so the run also checks that no lock was lost:
+#   - every payment has a CAPTURE ledger entry
+#   - available and locked balances both end at 0 (never negative)
+#
+# Compare modes by restarting the banking service with
+#   BANKING_BALANCE_UPDATE_MODE=ATOMIC | PESSIMISTIC
+#   BANKING_COMBINED_AUTHORIZE_CAPTURE=true | false
+#     (one authorize+capture transaction vs. separate authorize and capture calls)
+###############################################################################
+
+set -e
+
+BANKING_SERVICE="${BANKING_SERVICE:-http://localhost:8091}"
+RABBITMQ_URL="${RABBITMQ_URL:-http://localhost:15672}"
+RABBITMQ_AUTH="${RABBITMQ_AUTH:-guest:guest}"
+REQUESTS="${REQUESTS:-1000}"
+AMOUNT="${AMOUNT:-10.00}"
+PARALLEL="${PARALLEL:-50}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-300}"
+
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+NC='\033[0m'
+
+RUN_ID="$(date +%s)"
+EMAIL="hot-account-${RUN_ID}@benchmark.test"
+INITIAL_BALANCE=$(awk "BEGIN { printf \"%.2f\", ${REQUESTS} * ${AMOUNT} }")
+
+echo -e "${BLUE}═══════════════════════════════════════════════════════════${NC}"
+echo -e "${BLUE}  Hot Account Benchmark: ${REQUESTS} authorizations, 1 account${NC}"
+echo -e "${BLUE}═══════════════════════════════════════════════════════════${NC}"
+echo ""
+
+echo "Step 1: Create account ${EMAIL} with balance ${INITIAL_BALANCE}"
+http_code=$(curl -s -o /dev/null -w "%{http_code}" -X POST \
+    "${BANKING_SERVICE}/api/banking/accounts?email=${EMAIL}&name=Benchmark&initialBalance=${INITIAL_BALANCE}")
+if [ "$http_code" != "200" ]; then
+    echo -e "${RED}❌ Could not create account (HTTP ${http_code})${NC}"
+    exit 1
+fi
+
+publish() {
+    local payment_id="PAY-HOT-${RUN_ID}-$1"
+    local payload="{\\\"paymentId\\\":\\\"${payment_id}\\\",\\\"donorEmail\\\":\\\"${EMAIL}\\\",\\\"amount\\\":${AMOUNT},\\\"idempotencyKey\\\":\\\"${payment_id}\\\"}"
+    curl -s -o /dev/null -u "${RABBITMQ_AUTH}" -H "Content-Type: application/json" -X POST \
+        "${RABBITMQ_URL}/api/exchanges/%2F/banking.exchange/publish" \
+        -d "{\"properties\":{\"content_type\":\"application/json\",\"headers\":{\"__TypeId__\":\"com.careforall.banking.dto.PaymentAuthorizationRequest\"}},\"routing_key\":\"banking.authorize\",\"payload\":\"${payload}\",\"payload_encoding\":\"string\"}"
+}
+export -f publish
+export RUN_ID EMAIL AMOUNT RABBITMQ_URL RABBITMQ_AUTH
+
+echo "Step 2: Publish $((REQUESTS + 1)) authorization requests (${PARALLEL} in parallel)"
+start=$(date +%s.%N)
+seq 1 $((REQUESTS + 1)) | xargs -P "${PARALLEL}" -I{} bash -c 'publish {}'
+
+echo "Step 3: Wait until every request has been processed"
+captured=0
+deadline=$(( $(date +%s) + TIMEOUT_SECONDS ))
+while [ "$(date +%s)" -lt "$deadline" ]; do
+    captured=$(curl -s "${BANKING_SERVICE}/api/banking/accounts/${EMAIL}/transactions/export" | grep -o '"transactionType":"CAPTURE"' | wc -l)
+    if [ "$captured" -ge "$REQUESTS" ]; then
+        break
+    fi
+    sleep 0.5
+done
+end=$(date +%s.%N)
+
+account=$(curl -s "${BANKING_SERVICE}/api/banking/accounts/${EMAIL}")
+available=$(echo "$account" | grep -o '"availableBalance":[-0-9.]*' | cut -d: -f2)
+locked=$(echo "$account" | grep -o '"lockedBalance":[-0-9.]*' | cut -d: -f2)
+elapsed=$(awk "BEGIN { printf \"%.2f\", ${end} - ${start} }")
+throughput=$(awk "BEGIN { printf \"%.1f\", ${captured} / (${end} - ${start}) }")
+
+echo ""
+echo "Captured payments:  ${captured} / ${REQUESTS}"
+echo "Available balance:  ${available}"
+echo "Locked balance:     ${locked}"
+echo "Elapsed:            ${elapsed} s"
+echo "Throughput:         ${throughput} authorizations/s (authorize + capture)"
+echo ""
+
+if [ "$captured" -eq "$REQUESTS" ] \
+    && awk "BEGIN { exit !(${available} == 0 && ${locked} == 0) }"; then
+    echo -e "${GREEN}✅ No lost locks: all ${REQUESTS} payments captured, extra request rejected${NC}"
+else
+    echo -e "${RED}❌ Balance mismatch or timeout (see numbers above)${NC}"
+    exit 1
+fi
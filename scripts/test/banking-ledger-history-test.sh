@@ -0,0 +1,103 @@
+#!/bin/bash
+
+###############################################################################
+# Banking Service: Ledger History on a Million-Row Account
+###############################################################################
+# Loads ROWS ledger entries for one account straight into the banking database,
+# then checks that:
+#   - keyset pages stay fast however deep the cursor goes
+#   - the NDJSON export streams every row (memory does not grow with the ledger)
+#   - GET /accounts never returns more than the 200-row page cap
+###############################################################################
+
+set -e
+
+BANKING_SERVICE="${BANKING_SERVICE:-http://localhost:8091}"
+DB_CONTAINER="${DB_CONTAINER:-hackfleet-postgres-banking}"
+DB_USER="${DB_USER:-careforall}"
+DB_NAME="${DB_NAME:-bankingdb}"
+ROWS="${ROWS:-1000000}"
+PAGES="${PAGES:-50}"
+RESULTS_DIR="./test-results"
+mkdir -p "$RESULTS_DIR"
+
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+NC='\033[0m'
+
+RUN_ID="$(date +%s)"
+EMAIL="ledger-history-${RUN_ID}@benchmark.test"
+FAILED=0
+
+psql_exec() {
+    docker exec -i "$DB_CONTAINER" psql -U "$DB_USER" -d "$DB_NAME" -v ON_ERROR_STOP=1 -qtA -c "$1"
+}
+
+echo -e "${BLUE}═══════════════════════════════════════════════════════════${NC}"
+echo -e "${BLUE}  Ledger History: ${ROWS} transactions on one account${NC}"
+echo -e "${BLUE}═══════════════════════════════════════════════════════════${NC}"
+echo ""
+
+echo "Step 1: Create account ${EMAIL}"
+curl -s -o /dev/null -X POST "${BANKING_SERVICE}/api/banking/accounts?email=${EMAIL}&name=LedgerHistory&initialBalance=0"
+ACCOUNT_ID=$(psql_exec "SELECT id FROM bank_accounts WHERE email = '${EMAIL}'")
+
+echo "Step 2: Insert ${ROWS} ledger rows"
+psql_exec "INSERT INTO bank_transactions (account_id, external_reference, transaction_type, amount,
+               balance_before, balance_after, description, created_at)
+           SELECT ${ACCOUNT_ID}, 'PAY-LEDGER-${RUN_ID}-' || n, 'CAPTURE', 1.00, 0, 0, 'ledger history test',
+                  TIMESTAMP '2025-01-01' + n * INTERVAL '1 second'
+           FROM generate_series(1, ${ROWS}) AS n;
+           ANALYZE bank_transactions;"
+
+echo -e "${YELLOW}Step 3: Walk ${PAGES} pages of 200 with the cursor${NC}"
+cursor=""
+for page in $(seq 1 "$PAGES"); do
+    url="${BANKING_SERVICE}/api/banking/accounts/${EMAIL}/transactions?limit=200"
+    [ -n "$cursor" ] && url="${url}&cursor=${cursor}"
+    result=$(curl -s -w "\n%{time_total}" "$url")
+    elapsed=$(echo "$result" | tail -n1)
+    cursor=$(echo "$result" | sed '$d' | grep -o '"nextCursor":"[^"]*"' | cut -d'"' -f4)
+    if [ "$page" -eq 1 ]; then
+        first_page=$elapsed
+    fi
+    last_page=$elapsed
+done
+echo "First page: ${first_page}s, page ${PAGES}: ${last_page}s"
+if [ -z "$cursor" ]; then
+    echo -e "${RED}❌ Cursor ran out before page ${PAGES}${NC}"
+    FAILED=1
+fi
+
+echo -e "${YELLOW}Step 4: Export the whole ledger as NDJSON${NC}"
+export_file="${RESULTS_DIR}/ledger-${RUN_ID}.ndjson"
+export_time=$(curl -s -o "$export_file" -w "%{time_total}" \
+    "${BANKING_SERVICE}/api/banking/accounts/${EMAIL}/transactions/export")
+exported=$(wc -l < "$export_file" | tr -d ' ')
+echo "Exported ${exported} rows in ${export_time}s"
+if [ "$exported" -ne "$ROWS" ]; then
+    echo -e "${RED}❌ Export returned ${exported} rows, expected ${ROWS}${NC}"
+    FAILED=1
+fi
+rm -f "$export_file"
+
+echo -e "${YELLOW}Step 5: /accounts page-size cap${NC}"
+accounts=$(curl -s "${BANKING_SERVICE}/api/banking/accounts?size=100000" | grep -o '"email"' | wc -l)
+echo "GET /accounts?size=100000 returned ${accounts} accounts"
+if [ "$accounts" -gt 200 ]; then
+    echo -e "${RED}❌ Page-size cap not applied${NC}"
+    FAILED=1
+fi
+
+echo "Step 6: Clean up"
+psql_exec "DELETE FROM bank_transactions WHERE account_id = ${ACCOUNT_ID};
+           DELETE FROM bank_accounts WHERE id = ${ACCOUNT_ID};"
+
+echo ""
+if [ "$FAILED" -eq 0 ]; then
+    echo -e "${GREEN}✅ Ledger history checks passed${NC}"
+else
+    exit 1
+fi
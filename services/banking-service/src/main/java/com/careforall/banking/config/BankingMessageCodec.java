@@ -0,0 +1,120 @@
+package com.careforall.banking.config;
+
+import com.careforall.banking.dto.BatchAuthorizationRequest;
+import com.careforall.banking.dto.PaymentAuthorizationRequest;
+import com.careforall.banking.dto.PaymentCaptureRequest;
+import com.careforall.banking.event.BankingEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.JacksonUtils;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Banking Message Codec
+ *
+ * JSON codec for the banking message types, registered up front: each type has a
+ * fixed type id and a prebuilt Jackson reader and writer, so decoding is one map
+ * lookup instead of resolving a class name from the __TypeId__ header per message.
+ *
+ * Inbound messages are typed by their __TypeId__ (a registered id, or the Java class
+ * name payment-service sends), else by the routing key. Anything else is handed to
+ * the listener unconverted, as the raw Message, so its default handler can
+ * acknowledge it. Unregistered outbound types fall back to plain Jackson.
+ *
+ * The JSON itself is unchanged, so both sides stay wire compatible.
+ */
+@Slf4j
+public class BankingMessageCodec implements MessageConverter {
+
+    public static final String TYPE_ID_HEADER = "__TypeId__";
+
+    public static final String AUTHORIZE = "banking.authorize";
+    public static final String CAPTURE = "banking.capture";
+    public static final String AUTHORIZE_BATCH = "banking.authorize.batch";
+
+    private final Map<String, ObjectReader> readers = new HashMap<>();
+    private final Map<Class<?>, Registration> writers = new HashMap<>();
+    private final Jackson2JsonMessageConverter fallback;
+
+    public BankingMessageCodec() {
+        this(JacksonUtils.enhancedObjectMapper());
+    }
+
+    public BankingMessageCodec(ObjectMapper objectMapper) {
+        this.fallback = new Jackson2JsonMessageConverter(objectMapper);
+
+        register(objectMapper, PaymentAuthorizationRequest.class, AUTHORIZE,
+                "com.careforall.payment.dto.PaymentAuthorizationRequest");
+        register(objectMapper, PaymentCaptureRequest.class, CAPTURE,
+                "com.careforall.payment.dto.PaymentCaptureRequest");
+        register(objectMapper, BatchAuthorizationRequest.class, AUTHORIZE_BATCH);
+        // Published under its class name, as payment-service has always received it
+        register(objectMapper, BankingEvent.class, BankingEvent.class.getName());
+    }
+
+    /**
+     * Register a message type under its id; the class name and aliases decode to it too
+     */
+    private void register(ObjectMapper objectMapper, Class<?> type, String typeId, String... aliases) {
+        ObjectReader reader = objectMapper.readerFor(type);
+        readers.put(typeId, reader);
+        readers.put(type.getName(), reader);
+        for (String alias : aliases) {
+            readers.put(alias, reader);
+        }
+        writers.put(type, new Registration(typeId, objectMapper.writerFor(type)));
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        Registration registration = writers.get(object.getClass());
+        if (registration == null) {
+            return fallback.toMessage(object, messageProperties);
+        }
+
+        byte[] body;
+        try {
+            body = registration.writer().writeValueAsBytes(object);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to encode " + registration.typeId(), e);
+        }
+        messageProperties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        messageProperties.setContentEncoding("UTF-8");
+        messageProperties.setContentLength(body.length);
+        messageProperties.setHeader(TYPE_ID_HEADER, registration.typeId());
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        Object typeId = properties.getHeader(TYPE_ID_HEADER);
+        ObjectReader reader = typeId != null ? readers.get(typeId.toString()) : null;
+        if (reader == null && properties.getReceivedRoutingKey() != null) {
+            reader = readers.get(properties.getReceivedRoutingKey());
+        }
+        if (reader == null) {
+            return message;
+        }
+
+        try {
+            return reader.readValue(message.getBody());
+        } catch (IOException e) {
+            log.warn("Unreadable {} message: {}", typeId, e.getMessage());
+            return message;
+        }
+    }
+
+    private record Registration(String typeId, ObjectWriter writer) {
+    }
+}
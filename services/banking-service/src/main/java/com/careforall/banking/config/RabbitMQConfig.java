@@ -4,7 +4,7 @@ import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,11 +14,17 @@ import org.springframework.context.annotation.Configuration;
  * Sets up:
  * - Queues for receiving payment requests from Payment Service
  * - Exchange and bindings for publishing banking events
- * - JSON message converter
+ * - Retry queue that delays requeued requests, and a parking queue for requests out of retries
+ * - Message codec (pre-registered JSON types)
  */
 @Configuration
 public class RabbitMQConfig {
 
+    public static final String BANKING_EXCHANGE = "banking.exchange";
+    public static final String RETRY_EXCHANGE = "banking.retry.exchange";
+    public static final String RETRY_QUEUE = "banking.request.retry.queue";
+    public static final String PARKING_QUEUE = "banking.request.parking.queue";
+
     // ==================== QUEUES ====================
 
     /**
@@ -39,6 +45,28 @@ public class RabbitMQConfig {
                 .build();
     }
 
+    /**
+     * Requests waiting out a requeue delay. Each one expires after its per-message
+     * TTL and is dead-lettered back to banking.exchange under its original routing
+     * key, so it returns to the request queue without holding a consumer meanwhile
+     */
+    @Bean
+    public Queue bankingRetryQueue() {
+        return QueueBuilder.durable(RETRY_QUEUE)
+                .deadLetterExchange(BANKING_EXCHANGE)
+                .build();
+    }
+
+    /**
+     * Requests that were requeued banking.resilience.max-requeues times, kept for
+     * inspection; their payments are voided and failed by the payment-service reconciler
+     */
+    @Bean
+    public Queue bankingParkingQueue() {
+        return QueueBuilder.durable(PARKING_QUEUE)
+                .build();
+    }
+
     // ==================== EXCHANGE ====================
 
     /**
@@ -46,7 +74,15 @@ public class RabbitMQConfig {
      */
     @Bean
     public TopicExchange bankingExchange() {
-        return new TopicExchange("banking.exchange");
+        return new TopicExchange(BANKING_EXCHANGE);
+    }
+
+    /**
+     * Exchange for delayed requeues; fanout, so the original routing key is kept
+     */
+    @Bean
+    public FanoutExchange bankingRetryExchange() {
+        return new FanoutExchange(RETRY_EXCHANGE);
     }
 
     // ==================== BINDINGS ====================
@@ -73,6 +109,17 @@ public class RabbitMQConfig {
                 .with("banking.capture");
     }
 
+    /**
+     * Bind request queue to banking.authorize.batch routing key (BatchAuthorizationRequest)
+     */
+    @Bean
+    public Binding authorizeBatchBinding() {
+        return BindingBuilder
+                .bind(bankingRequestQueue())
+                .to(bankingExchange())
+                .with("banking.authorize.batch");
+    }
+
     /**
      * Bind response queue to banking.response routing key
      */
@@ -84,11 +131,21 @@ public class RabbitMQConfig {
                 .with("banking.response");
     }
 
+    /**
+     * Bind retry queue to the retry exchange
+     */
+    @Bean
+    public Binding retryBinding() {
+        return BindingBuilder
+                .bind(bankingRetryQueue())
+                .to(bankingRetryExchange());
+    }
+
     // ==================== MESSAGE CONVERTER ====================
 
     @Bean
-    public Jackson2JsonMessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public BankingMessageCodec messageConverter() {
+        return new BankingMessageCodec();
     }
 
     @Bean
@@ -98,14 +155,22 @@ public class RabbitMQConfig {
         return template;
     }
 
+    /**
+     * Listener container factory
+     *
+     * Payment requests are acknowledged by the account lanes after processing, so
+     * the prefetch count is what bounds the requests queued on the lanes.
+     */
     @Bean
     public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
-            ConnectionFactory connectionFactory) {
+            ConnectionFactory connectionFactory,
+            @Value("${banking.lanes.prefetch:250}") int prefetch) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(messageConverter());
         factory.setConcurrentConsumers(3);
         factory.setMaxConcurrentConsumers(10);
+        factory.setPrefetchCount(prefetch);
         return factory;
     }
 }
@@ -1,18 +1,30 @@
 package com.careforall.banking.controller;
 
+import com.careforall.banking.dto.BatchAuthorizationRequest;
+import com.careforall.banking.dto.BatchAuthorizationResult;
+import com.careforall.banking.dto.LedgerStatus;
+import com.careforall.banking.dto.LedgerStatusRequest;
+import com.careforall.banking.dto.LedgerVoidRequest;
 import com.careforall.banking.entity.BankAccount;
-import com.careforall.banking.entity.BankTransaction;
+import com.careforall.banking.exception.BankingUnavailableException;
 import com.careforall.banking.repository.BankAccountRepository;
-import com.careforall.banking.repository.BankTransactionRepository;
+import com.careforall.banking.service.AccountStatementService;
 import com.careforall.banking.service.BankingService;
+import com.careforall.banking.service.BatchAuthorizationService;
+import com.careforall.banking.service.LedgerVerifier;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Banking Controller
@@ -26,8 +38,10 @@ import java.util.Map;
 public class BankingController {
 
     private final BankingService bankingService;
+    private final AccountStatementService statementService;
+    private final BatchAuthorizationService batchAuthorizationService;
+    private final LedgerVerifier ledgerVerifier;
     private final BankAccountRepository accountRepository;
-    private final BankTransactionRepository transactionRepository;
 
     /**
      * Get account by email
@@ -40,23 +54,104 @@ public class BankingController {
     }
 
     /**
-     * Get all accounts (admin only)
+     * Get one page of accounts (admin only)
+     * size defaults to 50 and is capped at 200
      */
     @GetMapping("/accounts")
-    public ResponseEntity<List<BankAccount>> getAllAccounts() {
-        return ResponseEntity.ok(accountRepository.findAll());
+    public ResponseEntity<List<BankAccount>> getAllAccounts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(statementService.getAccounts(page, size));
     }
 
     /**
-     * Get account transactions
+     * Get one page of account transactions, newest first (keyset pagination)
      */
     @GetMapping("/accounts/{email}/transactions")
-    public ResponseEntity<List<BankTransaction>> getAccountTransactions(@PathVariable String email) {
-        BankAccount account = accountRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Account not found"));
+    public ResponseEntity<?> getAccountTransactions(
+            @PathVariable String email,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        Optional<Long> accountId = accountRepository.findIdByEmail(email);
+        if (accountId.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            return ResponseEntity.ok(statementService.getTransactionsPage(accountId.get(), cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Export all account transactions as NDJSON (statement generation)
+     * Rows are streamed from the database, so memory use does not depend on ledger size
+     */
+    @GetMapping(value = "/accounts/{email}/transactions/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAccountTransactions(@PathVariable String email) {
+        Optional<Long> accountId = accountRepository.findIdByEmail(email);
+        if (accountId.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        StreamingResponseBody body = out -> {
+            long count = statementService.exportTransactions(accountId.get(), out);
+            log.info("Exported {} transactions for account {}", count, accountId.get());
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
 
-        List<BankTransaction> transactions = transactionRepository.findByAccountIdOrderByCreatedAtDesc(account.getId());
-        return ResponseEntity.ok(transactions);
+    /**
+     * Bulk ledger lookup by payment ID (used by the payment-service reconciler)
+     * At most 500 payment IDs per request
+     */
+    @PostMapping("/ledger/status")
+    public ResponseEntity<List<LedgerStatus>> getLedgerStatuses(@Valid @RequestBody LedgerStatusRequest request) {
+        return ResponseEntity.ok(bankingService.getLedgerStatuses(request.getPaymentIds()));
+    }
+
+    /**
+     * Void payments that never reached the ledger (used by the payment-service reconciler)
+     * Returns the ledger status of each payment afterwards: CANCELLED if it was voided
+     * At most 500 payments per request
+     */
+    @PostMapping("/ledger/void")
+    public ResponseEntity<List<LedgerStatus>> voidPayments(@Valid @RequestBody LedgerVoidRequest request) {
+        return ResponseEntity.ok(bankingService.voidPayments(request.getPayments()));
+    }
+
+    /**
+     * Authorize up to 10000 payments in one call (settlement runs, reconciliation)
+     * Each account is locked once for all of its holds; results are in request order
+     * Authorize-only by default (capture with capture requests, or holds expire);
+     * capture=true also captures every authorized payment in the same transaction
+     * 503 on an infrastructure fault (send the batch again; finished accounts answer from the ledger)
+     */
+    @PostMapping("/authorizations:batch")
+    public ResponseEntity<?> authorizeBatch(@Valid @RequestBody BatchAuthorizationRequest request,
+                                            @RequestParam(defaultValue = "false") boolean capture) {
+        try {
+            BatchAuthorizationResult result = capture
+                    ? batchAuthorizationService.authorizeAndCaptureBatch(request)
+                    : batchAuthorizationService.authorizeBatch(request);
+            return ResponseEntity.ok(result);
+        } catch (BankingUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Run an incremental ledger verification now (also runs on a schedule)
+     * 409 if a verification is already in progress
+     */
+    @PostMapping("/ledger/verify")
+    public ResponseEntity<?> verifyLedger() {
+        try {
+            return ResponseEntity.ok(ledgerVerifier.verifyAll());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
@@ -89,14 +184,7 @@ public class BankingController {
             @RequestParam String name,
             @RequestParam(required = false, defaultValue = "10000") BigDecimal initialBalance) {
 
-        BankAccount account = BankAccount.builder()
-                .email(email)
-                .accountHolderName(name)
-                .availableBalance(initialBalance)
-                .lockedBalance(BigDecimal.ZERO)
-                .build();
-
-        BankAccount saved = accountRepository.save(account);
+        BankAccount saved = bankingService.openAccount(email, name, initialBalance);
         log.info("Created account for {} with balance {}", email, initialBalance);
 
         return ResponseEntity.ok(saved);
@@ -0,0 +1,31 @@
+package com.careforall.banking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Batch Authorization Request DTO
+ *
+ * Many authorizations in one call or message (settlement runs, reconciliation).
+ * Received on POST /authorizations:batch or via RabbitMQ (banking.authorize.batch)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchAuthorizationRequest {
+
+    public static final int MAX_AUTHORIZATIONS = 10000;
+
+    private String batchId; // optional, echoed in the result
+
+    @NotEmpty
+    @Size(max = MAX_AUTHORIZATIONS)
+    private List<PaymentAuthorizationRequest> authorizations;
+}
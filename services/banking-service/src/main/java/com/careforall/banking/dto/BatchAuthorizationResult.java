@@ -0,0 +1,28 @@
+package com.careforall.banking.dto;
+
+import com.careforall.banking.event.BankingEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Batch Authorization Result DTO
+ *
+ * One PAYMENT_AUTHORIZED (PAYMENT_CAPTURED when captured) or PAYMENT_FAILED event per
+ * requested authorization, in request order; authorized counts the successful ones
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchAuthorizationResult {
+    private String batchId;
+    private int accounts;
+    private int authorized;
+    private int failed;
+    private long durationMs;
+    private List<BankingEvent> results;
+}
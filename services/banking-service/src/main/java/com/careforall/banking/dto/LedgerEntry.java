@@ -0,0 +1,20 @@
+package com.careforall.banking.dto;
+
+import com.careforall.banking.enums.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Ledger Entry
+ *
+ * The columns of a BankTransaction that the ledger verifier replays, selected with
+ * a JPQL constructor expression so verification does not load entities.
+ */
+public record LedgerEntry(
+        Long id,
+        TransactionType transactionType,
+        BigDecimal amount,
+        BigDecimal balanceBefore,
+        BigDecimal balanceAfter
+) {
+}
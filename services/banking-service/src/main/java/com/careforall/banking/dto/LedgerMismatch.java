@@ -0,0 +1,33 @@
+package com.careforall.banking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Ledger Mismatch DTO
+ *
+ * First point where an account's ledger chain does not add up:
+ * - CHAIN_BREAK: balanceBefore differs from the previous entry's balanceAfter
+ * - BAD_DELTA: balanceAfter differs from balanceBefore plus the entry's effect
+ * - ACCOUNT_BALANCE: the account's total balance differs from the end of the chain
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerMismatch {
+
+    public static final String CHAIN_BREAK = "CHAIN_BREAK";
+    public static final String BAD_DELTA = "BAD_DELTA";
+    public static final String ACCOUNT_BALANCE = "ACCOUNT_BALANCE";
+
+    private Long accountId;
+    private Long transactionId; // entry where the mismatch was found (last verified entry for ACCOUNT_BALANCE)
+    private String type;
+    private BigDecimal expected;
+    private BigDecimal actual;
+}
@@ -0,0 +1,38 @@
+package com.careforall.banking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Ledger Status DTO
+ *
+ * Furthest ledger state reached by one payment:
+ * - NONE: no ledger entry (request never processed)
+ * - AUTHORIZED: funds locked, not yet captured
+ * - CAPTURED: funds transferred
+ * - CANCELLED: authorization released
+ * - REFUNDED: captured funds returned
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerStatus {
+
+    public static final String NONE = "NONE";
+    public static final String AUTHORIZED = "AUTHORIZED";
+    public static final String CAPTURED = "CAPTURED";
+    public static final String CANCELLED = "CANCELLED";
+    public static final String REFUNDED = "REFUNDED";
+
+    private String paymentId;
+    private String status;
+    private String transactionId; // ID of the ledger entry that determined the status
+    private BigDecimal amount;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,28 @@
+package com.careforall.banking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Ledger Status Request DTO
+ *
+ * Bulk lookup of ledger state by payment ID, used by the payment-service reconciler
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerStatusRequest {
+
+    public static final int MAX_PAYMENT_IDS = 500;
+
+    @NotEmpty
+    @Size(max = MAX_PAYMENT_IDS)
+    private List<String> paymentIds;
+}
@@ -0,0 +1,27 @@
+package com.careforall.banking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Ledger Verification Report DTO
+ *
+ * Outcome of one incremental ledger verification run over all accounts.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerVerificationReport {
+
+    private int accountsVerified;
+    private long entriesReplayed;       // ledger entries after the accounts' checkpoints
+    private int checkpointsAdvanced;
+    private List<LedgerMismatch> mismatches;
+    private long durationMs;
+    private double entriesPerSecond;
+}
@@ -0,0 +1,30 @@
+package com.careforall.banking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Ledger Void Request DTO
+ *
+ * Payments the payment-service reconciler is about to fail because banking never
+ * answered them: each is the authorization request that was sent for it. Banking
+ * records a void unless the payment reached the ledger in the meantime.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerVoidRequest {
+
+    public static final int MAX_PAYMENTS = LedgerStatusRequest.MAX_PAYMENT_IDS;
+
+    @NotEmpty
+    @Size(max = MAX_PAYMENTS)
+    private List<PaymentAuthorizationRequest> payments;
+}
@@ -0,0 +1,24 @@
+package com.careforall.banking.dto;
+
+import com.careforall.banking.entity.BankTransaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Transaction Page DTO
+ *
+ * One page of an account's ledger, newest first (keyset pagination).
+ * Pass nextCursor back as ?cursor= to fetch the following page; it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPage {
+
+    private List<BankTransaction> items;
+    private String nextCursor;
+    private int limit;
+}
@@ -0,0 +1,39 @@
+package com.careforall.banking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Balance Checkpoint Entity
+ *
+ * Last verified point of an account's ledger chain: the ledger up to and including
+ * lastTransactionId has been replayed and ends at balance (total, available + locked).
+ * The next verification replays only the entries after it.
+ */
+@Entity
+@Table(name = "account_balance_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceCheckpoint {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "last_transaction_id", nullable = false)
+    private Long lastTransactionId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    @Column(name = "verified_at", nullable = false)
+    private LocalDateTime verifiedAt;
+}
@@ -15,11 +15,17 @@ import java.time.LocalDateTime;
  * Bank Transaction Entity
  *
  * Audit trail for all banking operations
+ *
+ * balanceBefore/balanceAfter are the account's total balance (available + locked).
+ * In id order an account's entries form a chain, each starting where the previous
+ * one ended; LedgerVerifier checks it.
  */
 @Entity
 @Table(name = "bank_transactions", indexes = {
-    @Index(name = "idx_transaction_account", columnList = "account_id"),
-    @Index(name = "idx_transaction_reference", columnList = "external_reference"),
+    @Index(name = "idx_transaction_account_created", columnList = "account_id, created_at, id"),
+    @Index(name = "idx_transaction_account_id", columnList = "account_id, id"), // ledger chain order
+    // One entry per payment step; also serves lookups by reference alone
+    @Index(name = "uk_transaction_reference_type", columnList = "external_reference, transaction_type", unique = true),
     @Index(name = "idx_transaction_type", columnList = "transaction_type")
 })
 @Data
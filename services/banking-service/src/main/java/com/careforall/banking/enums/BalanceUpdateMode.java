@@ -0,0 +1,13 @@
+package com.careforall.banking.enums;
+
+/**
+ * Balance Update Mode Enum
+ *
+ * How the payment path changes account balances (banking.balance-update-mode):
+ * - ATOMIC: one conditional UPDATE per lock/capture, the balance check is in the WHERE clause
+ * - PESSIMISTIC: SELECT ... FOR UPDATE, check and change the entity, then save
+ */
+public enum BalanceUpdateMode {
+    ATOMIC,
+    PESSIMISTIC
+}
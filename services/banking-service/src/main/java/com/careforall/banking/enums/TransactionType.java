@@ -1,5 +1,7 @@
 package com.careforall.banking.enums;
 
+import java.math.BigDecimal;
+
 /**
  * Transaction Type Enum
  *
@@ -8,12 +10,14 @@ package com.careforall.banking.enums;
  * - CAPTURE: Funds actually transferred
  * - REFUND: Funds returned to user
  * - CANCELLATION: Authorization cancelled, funds released
+ * - DEPOSIT: Funds added to the account (not tied to a payment)
  */
 public enum TransactionType {
     AUTHORIZATION("Funds locked for pending payment"),
     CAPTURE("Funds transferred successfully"),
     REFUND("Funds returned to account"),
-    CANCELLATION("Authorization cancelled, funds released");
+    CANCELLATION("Authorization cancelled, funds released"),
+    DEPOSIT("Funds added to account");
 
     private final String description;
 
@@ -24,4 +28,15 @@ public enum TransactionType {
     public String getDescription() {
         return description;
     }
+
+    /**
+     * Change of the account's total balance (available + locked) an entry of this type records
+     */
+    public BigDecimal balanceDelta(BigDecimal amount) {
+        return switch (this) {
+            case AUTHORIZATION, CANCELLATION -> BigDecimal.ZERO; // moves between available and locked
+            case CAPTURE -> amount.negate();
+            case REFUND, DEPOSIT -> amount;
+        };
+    }
 }
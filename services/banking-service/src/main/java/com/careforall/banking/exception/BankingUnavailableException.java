@@ -0,0 +1,16 @@
+package com.careforall.banking.exception;
+
+/**
+ * Banking Unavailable Exception
+ *
+ * An infrastructure fault (database down, lock or query timeout, open circuit,
+ * full bulkhead) that retries did not get past. The request was not decided, so it
+ * must not be answered with PAYMENT_FAILED: message requests are requeued and
+ * REST calls answer 503.
+ */
+public class BankingUnavailableException extends RuntimeException {
+
+    public BankingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
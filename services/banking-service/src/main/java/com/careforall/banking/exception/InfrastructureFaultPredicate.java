@@ -0,0 +1,61 @@
+package com.careforall.banking.exception;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.TransactionTimedOutException;
+
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.function.Predicate;
+
+/**
+ * Infrastructure Fault Predicate
+ *
+ * Tells database and transaction faults (connection loss, lock and query timeouts,
+ * deadlocks, transaction timeouts) apart from business declines and programming
+ * errors. Only these faults are retried and recorded by the bankingService circuit
+ * breaker (retryExceptionPredicate / recordFailurePredicate in application.yml).
+ */
+public class InfrastructureFaultPredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable throwable) {
+        return isInfrastructureFault(throwable);
+    }
+
+    /**
+     * A database or transaction fault anywhere in the cause chain
+     */
+    public static boolean isInfrastructureFault(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof PaymentDeclinedException) {
+                return false;
+            }
+            if (t instanceof TransientDataAccessException          // timeouts, lock failures, deadlocks
+                    || t instanceof RecoverableDataAccessException
+                    || t instanceof DataAccessResourceFailureException // connection refused or lost
+                    || t instanceof CannotCreateTransactionException
+                    || t instanceof TransactionTimedOutException
+                    || t instanceof TransactionSystemException
+                    || t instanceof SQLTransientException
+                    || t instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An infrastructure fault, or a call the circuit breaker or bulkhead turned away
+     */
+    public static boolean isUnavailable(Throwable throwable) {
+        return throwable instanceof CallNotPermittedException
+                || throwable instanceof BulkheadFullException
+                || isInfrastructureFault(throwable);
+    }
+}
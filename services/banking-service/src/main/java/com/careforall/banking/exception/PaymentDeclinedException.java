@@ -0,0 +1,15 @@
+package com.careforall.banking.exception;
+
+/**
+ * Payment Declined Exception
+ *
+ * Business decline of a banking request (unknown account, insufficient funds,
+ * expired authorization). Answered with a PAYMENT_FAILED event; never retried and
+ * never counted by the circuit breaker. The message is the failure reason.
+ */
+public class PaymentDeclinedException extends RuntimeException {
+
+    public PaymentDeclinedException(String reason) {
+        super(reason);
+    }
+}
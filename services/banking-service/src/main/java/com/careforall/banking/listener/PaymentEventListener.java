@@ -1,81 +1,261 @@
 package com.careforall.banking.listener;
 
+import com.careforall.banking.config.RabbitMQConfig;
+import com.careforall.banking.dto.BatchAuthorizationRequest;
+import com.careforall.banking.dto.BatchAuthorizationResult;
 import com.careforall.banking.dto.PaymentAuthorizationRequest;
 import com.careforall.banking.dto.PaymentCaptureRequest;
 import com.careforall.banking.event.BankingEvent;
+import com.careforall.banking.exception.BankingUnavailableException;
+import com.careforall.banking.service.AccountLaneExecutor;
 import com.careforall.banking.service.BankingService;
+import com.careforall.banking.service.BatchAuthorizationService;
+import com.rabbitmq.client.Channel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.rabbit.annotation.RabbitHandler;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * Payment Event Listener
  *
- * Listens to payment requests from Payment Service and processes them
+ * Listens to payment requests from Payment Service and processes them.
+ * BankingMessageCodec types each message from its __TypeId__ header (or routing
+ * key), and the matching @RabbitHandler runs; there is no instanceof dispatch.
+ *
+ * A request that hit an infrastructure fault (BankingUnavailableException) was
+ * not decided, and one whose result could not be published (AmqpException) was
+ * not answered: either is republished to the retry queue, which returns it to the
+ * request queue after banking.resilience.requeue-delay-ms, so the payment is retried
+ * rather than lost while the lane moves on. After banking.resilience.max-requeues
+ * attempts the request is parked instead, and the payment-service reconciler voids
+ * and fails the payment.
  */
 @Component
+@RabbitListener(queues = "banking.request.queue", ackMode = "MANUAL")
 @RequiredArgsConstructor
 @Slf4j
 public class PaymentEventListener {
 
+    static final String REQUEUE_COUNT_HEADER = "x-requeue-count";
+
     private final BankingService bankingService;
     private final RabbitTemplate rabbitTemplate;
+    private final AccountLaneExecutor accountLanes;
+    private final BatchAuthorizationService batchAuthorizationService;
+
+    @Value("${banking.combined-authorize-capture:true}")
+    private boolean combinedAuthorizeCapture = true;
+
+    @Value("${banking.resilience.requeue-delay-ms:5000}")
+    private long requeueDelayMillis = 5000;
+
+    @Value("${banking.resilience.max-requeues:60}")
+    private int maxRequeues = 60;
 
     /**
-     * Listen for payment authorization and capture requests from Payment Service
+     * Authorization request from Payment Service
      *
-     * This listener processes both authorization and capture requests since
-     * the Banking Service auto-captures after successful authorization
+     * The Banking Service auto-captures after successful authorization. By default
+     * both steps run as one authorizeAndCapture transaction that answers with a
+     * single PAYMENT_CAPTURED (banking.combined-authorize-capture=false restores
+     * the separate authorize and capture calls).
+     */
+    @RabbitHandler
+    public void handleAuthorization(PaymentAuthorizationRequest request, Message message, Channel channel,
+                                    @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) throws IOException {
+        onAccountLane(request.getDonorEmail(), message, channel, deliveryTag, () -> processAuthorization(request));
+    }
+
+    /**
+     * Capture request for a payment authorized earlier
+     */
+    @RabbitHandler
+    public void handleCapture(PaymentCaptureRequest request, Message message, Channel channel,
+                              @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) throws IOException {
+        onAccountLane(request.getDonorEmail(), message, channel, deliveryTag, () -> processCapture(request));
+    }
+
+    /**
+     * Batch of authorizations; the batch service splits it over the account lanes
+     * itself, and it is acknowledged once all of its authorizations are answered
+     */
+    @RabbitHandler
+    public void handleBatch(BatchAuthorizationRequest request, Message message, Channel channel,
+                            @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
+        settle(message, channel, deliveryTag, () -> processBatchRequest(request));
+    }
+
+    /**
+     * Message the codec could not type (unknown __TypeId__ and routing key, or unreadable body)
      */
-    @RabbitListener(queues = "banking.request.queue")
-    public void handlePaymentRequest(Object request) {
-        log.info("📨 Received payment request: {}", request.getClass().getSimpleName());
+    @RabbitHandler(isDefault = true)
+    public void handleUnknown(Object request, Channel channel,
+                              @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) throws IOException {
+        log.warn("Unknown request type: {}", request.getClass().getName());
+        channel.basicAck(deliveryTag, false);
+    }
 
+    /**
+     * Hand a request to the lane of its account (donor email), where it is
+     * acknowledged once processed: one account's requests run serially while
+     * different accounts run in parallel
+     */
+    private void onAccountLane(String accountKey, Message message, Channel channel, long deliveryTag,
+                               Runnable work) throws IOException {
         try {
-            BankingEvent event;
-
-            // Process based on request type
-            if (request instanceof PaymentAuthorizationRequest) {
-                PaymentAuthorizationRequest authRequest = (PaymentAuthorizationRequest) request;
-                log.info("Processing authorization - PaymentID: {}, Amount: {}",
-                        authRequest.getPaymentId(), authRequest.getAmount());
-
-                // Process authorization and auto-capture
-                event = bankingService.authorizePayment(authRequest);
-
-                // If authorization succeeded, immediately capture
-                if (event.getStatus().equals("SUCCESS")) {
-                    PaymentCaptureRequest captureRequest = PaymentCaptureRequest.builder()
-                            .paymentId(authRequest.getPaymentId())
-                            .donorEmail(authRequest.getDonorEmail())
-                            .userId(authRequest.getUserId())
-                            .amount(authRequest.getAmount())
-                            .build();
-
-                    event = bankingService.capturePayment(captureRequest);
-                }
-
-            } else if (request instanceof PaymentCaptureRequest) {
-                PaymentCaptureRequest captureRequest = (PaymentCaptureRequest) request;
-                log.info("Processing capture - PaymentID: {}, Amount: {}",
-                        captureRequest.getPaymentId(), captureRequest.getAmount());
+            accountLanes.execute(accountKey, () -> settle(message, channel, deliveryTag, work));
+        } catch (RejectedExecutionException e) {
+            // Shutting down: hand the request back for another consumer
+            channel.basicNack(deliveryTag, false, true);
+        }
+    }
+
+    /**
+     * Authorize (and capture) on the account lane and publish the result
+     */
+    private void processAuthorization(PaymentAuthorizationRequest authRequest) {
+        log.info("Processing authorization - PaymentID: {}, Amount: {}",
+                authRequest.getPaymentId(), authRequest.getAmount());
+
+        BankingEvent event;
+        if (combinedAuthorizeCapture) {
+            // Authorize and capture in one transaction
+            event = bankingService.authorizeAndCapture(authRequest);
+        } else {
+            // Process authorization and auto-capture
+            event = bankingService.authorizePayment(authRequest);
+
+            // If authorization succeeded, immediately capture
+            if (event.getStatus().equals("SUCCESS")) {
+                PaymentCaptureRequest captureRequest = PaymentCaptureRequest.builder()
+                        .paymentId(authRequest.getPaymentId())
+                        .donorEmail(authRequest.getDonorEmail())
+                        .userId(authRequest.getUserId())
+                        .amount(authRequest.getAmount())
+                        .build();
 
                 event = bankingService.capturePayment(captureRequest);
+            }
+        }
+        publish(event);
+    }
 
+    /**
+     * Capture on the account lane and publish the result
+     */
+    private void processCapture(PaymentCaptureRequest captureRequest) {
+        log.info("Processing capture - PaymentID: {}, Amount: {}",
+                captureRequest.getPaymentId(), captureRequest.getAmount());
+        publish(bankingService.capturePayment(captureRequest));
+    }
+
+    /**
+     * Publish result back to Payment Service using banking.response routing key
+     */
+    private void publish(BankingEvent event) {
+        rabbitTemplate.convertAndSend("banking.exchange", "banking.response", event);
+        log.info("✅ Published {} event for PaymentID: {}", event.getEventType(), event.getPaymentId());
+    }
+
+    /**
+     * Authorize and capture a batch and publish one banking event per authorization
+     * Captured like a single authorization message, so payment-service gets final outcomes
+     */
+    private void processBatchRequest(BatchAuthorizationRequest request) {
+        if (request.getAuthorizations() == null || request.getAuthorizations().isEmpty()
+                || request.getAuthorizations().size() > BatchAuthorizationRequest.MAX_AUTHORIZATIONS) {
+            log.warn("Rejected batch authorization request {}: empty or more than {} authorizations",
+                    request.getBatchId(), BatchAuthorizationRequest.MAX_AUTHORIZATIONS);
+            return;
+        }
+        BatchAuthorizationResult result = batchAuthorizationService.authorizeAndCaptureBatch(request);
+        for (BankingEvent event : result.getResults()) {
+            rabbitTemplate.convertAndSend("banking.exchange", "banking.response", event);
+        }
+        log.info("✅ Published {} events for batch {}", result.getResults().size(), request.getBatchId());
+    }
+
+    /**
+     * Run a request and acknowledge it, or retry it if it was not settled:
+     * banking was unavailable, or its result could not be published (AmqpException).
+     * A redelivered request is answered from the ledger, so nothing is applied twice.
+     * Any other error is logged and the request acknowledged, as retrying cannot fix it.
+     */
+    private void settle(Message message, Channel channel, long deliveryTag, Runnable work) {
+        try {
+            work.run();
+        } catch (BankingUnavailableException | AmqpException e) {
+            retryLater(message, channel, deliveryTag, e);
+            return;
+        } catch (RuntimeException e) {
+            log.error("❌ Error processing request {}: {}", deliveryTag, e.getMessage(), e);
+        }
+        ack(channel, deliveryTag);
+    }
+
+    /**
+     * Republish an unsettled request to the retry queue with a per-message TTL, or to
+     * the parking queue once it ran out of requeues, then acknowledge the original.
+     * Nothing waits on the lane. If the republish fails too (the broker is the fault),
+     * the request is handed straight back with a nack; RabbitMQ paces that itself.
+     */
+    private void retryLater(Message message, Channel channel, long deliveryTag, RuntimeException cause) {
+        int attempt = requeueCount(message) + 1;
+        try {
+            if (attempt > maxRequeues) {
+                log.error("❌ Request {} not settled after {} requeues, parking it on {}: {}",
+                        deliveryTag, maxRequeues, RabbitMQConfig.PARKING_QUEUE, cause.getMessage());
+                rabbitTemplate.send("", RabbitMQConfig.PARKING_QUEUE, message);
             } else {
-                log.warn("Unknown request type: {}", request.getClass().getName());
-                return;
+                log.warn("⏳ Request {} not settled, requeue {} of {} in {} ms: {}",
+                        deliveryTag, attempt, maxRequeues, requeueDelayMillis, cause.getMessage());
+                Message retry = MessageBuilder.fromMessage(message)
+                        .setHeader(REQUEUE_COUNT_HEADER, attempt)
+                        .setExpiration(String.valueOf(requeueDelayMillis))
+                        .build();
+                rabbitTemplate.send(RabbitMQConfig.RETRY_EXCHANGE,
+                        message.getMessageProperties().getReceivedRoutingKey(), retry);
             }
+        } catch (AmqpException e) {
+            log.warn("Could not delay request {}, requeueing it now: {}", deliveryTag, e.getMessage());
+            nack(channel, deliveryTag);
+            return;
+        }
+        ack(channel, deliveryTag);
+    }
 
-            // Publish result back to Payment Service using banking.response routing key
-            rabbitTemplate.convertAndSend("banking.exchange", "banking.response", event);
+    private static int requeueCount(Message message) {
+        Object count = message.getMessageProperties().getHeader(REQUEUE_COUNT_HEADER);
+        return count instanceof Number number ? number.intValue() : 0;
+    }
 
-            log.info("✅ Published {} event for PaymentID: {}", event.getEventType(), event.getPaymentId());
+    private void nack(Channel channel, long deliveryTag) {
+        try {
+            channel.basicNack(deliveryTag, false, true);
+        } catch (IOException e) {
+            // The channel closed; RabbitMQ redelivers the request anyway
+            log.warn("Could not requeue payment request {}: {}", deliveryTag, e.getMessage());
+        }
+    }
 
-        } catch (Exception e) {
-            log.error("❌ Error processing payment request: {}", e.getMessage(), e);
+    private void ack(Channel channel, long deliveryTag) {
+        try {
+            channel.basicAck(deliveryTag, false);
+        } catch (IOException e) {
+            // The channel closed; RabbitMQ redelivers and the idempotency checks absorb the repeat
+            log.warn("Could not acknowledge payment request {}: {}", deliveryTag, e.getMessage());
         }
     }
 }
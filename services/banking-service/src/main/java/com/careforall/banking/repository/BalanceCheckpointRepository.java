@@ -0,0 +1,12 @@
+package com.careforall.banking.repository;
+
+import com.careforall.banking.entity.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Balance Checkpoint Repository
+ */
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+}
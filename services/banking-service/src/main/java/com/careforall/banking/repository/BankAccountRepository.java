@@ -3,15 +3,22 @@ package com.careforall.banking.repository;
 import com.careforall.banking.entity.BankAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Bank Account Repository
  *
- * Uses pessimistic locking to prevent race conditions during balance updates
+ * Balance changes on the payment path are single conditional UPDATEs, so concurrent
+ * payments against one account never lose an update or fail on @Version; the
+ * PESSIMISTIC_WRITE lookups back the row-locking fallback mode.
  */
 @Repository
 public interface BankAccountRepository extends JpaRepository<BankAccount, Long> {
@@ -20,9 +27,73 @@ public interface BankAccountRepository extends JpaRepository<BankAccount, Long>
 
     Optional<BankAccount> findByUserId(Long userId);
 
+    @Query("SELECT a.id FROM BankAccount a WHERE a.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    @Query("SELECT a.id FROM BankAccount a ORDER BY a.id")
+    List<Long> findAllIds();
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    Optional<BankAccount> findByEmailForUpdate(String email);
+    @Query("SELECT a FROM BankAccount a WHERE a.email = :email")
+    Optional<BankAccount> findByEmailForUpdate(@Param("email") String email);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    Optional<BankAccount> findByUserIdForUpdate(Long userId);
+    @Query("SELECT a FROM BankAccount a WHERE a.id = :id")
+    Optional<BankAccount> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM BankAccount a WHERE a.userId = :userId")
+    Optional<BankAccount> findByUserIdForUpdate(@Param("userId") Long userId);
+
+    /**
+     * Move amount from available to locked balance if enough is available
+     *
+     * @return 1 if the funds were locked, 0 if the available balance is too low
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BankAccount a SET a.availableBalance = a.availableBalance - :amount, " +
+           "a.lockedBalance = a.lockedBalance + :amount, a.version = a.version + 1, a.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE a.id = :id AND a.availableBalance >= :amount")
+    int lockFunds(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Remove amount from the locked balance if enough is locked
+     *
+     * @return 1 if the funds were captured, 0 if the locked balance is too low
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BankAccount a SET a.lockedBalance = a.lockedBalance - :amount, " +
+           "a.version = a.version + 1, a.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE a.id = :id AND a.lockedBalance >= :amount")
+    int captureFunds(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Add amount to the available balance
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BankAccount a SET a.availableBalance = a.availableBalance + :amount, " +
+           "a.version = a.version + 1, a.updatedAt = CURRENT_TIMESTAMP WHERE a.id = :id")
+    int creditFunds(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Move amount from locked back to available balance
+     *
+     * @return 1 if the funds were released, 0 if the locked balance is too low
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BankAccount a SET a.availableBalance = a.availableBalance + :amount, " +
+           "a.lockedBalance = a.lockedBalance - :amount, a.version = a.version + 1, a.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE a.id = :id AND a.lockedBalance >= :amount")
+    int releaseFunds(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Lock and capture in one step: take amount straight out of the available balance
+     *
+     * @return 1 if the funds were taken, 0 if the available balance is too low
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BankAccount a SET a.availableBalance = a.availableBalance - :amount, " +
+           "a.version = a.version + 1, a.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE a.id = :id AND a.availableBalance >= :amount")
+    int debitFunds(@Param("id") Long id, @Param("amount") BigDecimal amount);
 }
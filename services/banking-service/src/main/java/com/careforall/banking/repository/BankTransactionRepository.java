@@ -1,11 +1,22 @@
 package com.careforall.banking.repository;
 
+import com.careforall.banking.dto.LedgerEntry;
 import com.careforall.banking.entity.BankTransaction;
+import com.careforall.banking.enums.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Bank Transaction Repository
@@ -13,9 +24,80 @@ import java.util.Optional;
 @Repository
 public interface BankTransactionRepository extends JpaRepository<BankTransaction, Long> {
 
-    List<BankTransaction> findByAccountIdOrderByCreatedAtDesc(Long accountId);
+    /**
+     * First page of an account's ledger, newest first (keyset pagination)
+     */
+    List<BankTransaction> findByAccountIdOrderByCreatedAtDescIdDesc(Long accountId, Pageable pageable);
 
-    Optional<BankTransaction> findByExternalReference(String externalReference);
+    /**
+     * Next page of an account's ledger after the (createdAt, id) cursor
+     * Served by idx_transaction_account_created
+     */
+    @Query("SELECT t FROM BankTransaction t WHERE t.accountId = :accountId " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<BankTransaction> findAccountPageAfter(@Param("accountId") Long accountId,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+
+    /**
+     * Stream an account's ledger entries after a checkpoint, in ledger (id) order
+     * Must be consumed inside a transaction; served by idx_transaction_account_id
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.careforall.banking.dto.LedgerEntry(t.id, t.transactionType, t.amount, t.balanceBefore, t.balanceAfter) " +
+           "FROM BankTransaction t WHERE t.accountId = :accountId AND t.id > :afterId ORDER BY t.id")
+    Stream<LedgerEntry> streamLedgerEntriesAfter(@Param("accountId") Long accountId, @Param("afterId") Long afterId);
+
+    /**
+     * Stream an account's whole ledger for statement export
+     * Must be consumed inside a read-only transaction; rows are fetched from the cursor in chunks
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM BankTransaction t WHERE t.accountId = :accountId ORDER BY t.createdAt DESC, t.id DESC")
+    Stream<BankTransaction> streamByAccountId(@Param("accountId") Long accountId);
+
+    Optional<BankTransaction> findByExternalReferenceAndTransactionType(String externalReference, TransactionType transactionType);
+
+    List<BankTransaction> findByExternalReferenceInAndTransactionType(Collection<String> externalReferences,
+                                                                      TransactionType transactionType);
+
+    boolean existsByExternalReferenceAndTransactionTypeIn(String externalReference, Collection<TransactionType> transactionTypes);
+
+    boolean existsByExternalReference(String externalReference);
+
+    /**
+     * Authorizations with no later entry (not captured, cancelled or refunded): funds still locked
+     */
+    @Query("SELECT t FROM BankTransaction t WHERE t.transactionType = com.careforall.banking.enums.TransactionType.AUTHORIZATION " +
+           "AND NOT EXISTS (SELECT s.id FROM BankTransaction s WHERE s.externalReference = t.externalReference " +
+           "AND s.transactionType <> com.careforall.banking.enums.TransactionType.AUTHORIZATION)")
+    List<BankTransaction> findOpenAuthorizations();
+
+    /**
+     * Insert a ledger entry unless the payment already has one of that type
+     * Duplicates are skipped by the unique (external_reference, transaction_type) index
+     *
+     * @return id of the new entry, or empty if it already existed
+     */
+    @Query(value = "INSERT INTO bank_transactions (account_id, external_reference, transaction_type, amount, " +
+            "balance_before, balance_after, description, created_at) " +
+            "VALUES (:#{#txn.accountId}, :#{#txn.externalReference}, :#{#txn.transactionType.name()}, :#{#txn.amount}, " +
+            ":#{#txn.balanceBefore}, :#{#txn.balanceAfter}, :#{#txn.description}, LOCALTIMESTAMP) " +
+            "ON CONFLICT (external_reference, transaction_type) DO NOTHING RETURNING id", nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("txn") BankTransaction txn);
 
     List<BankTransaction> findByExternalReferenceOrderByCreatedAtDesc(String externalReference);
+
+    /**
+     * All ledger entries for a batch of payments in one query (served by uk_transaction_reference_type)
+     */
+    List<BankTransaction> findByExternalReferenceIn(Collection<String> externalReferences);
 }
@@ -0,0 +1,106 @@
+package com.careforall.banking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account Lane Executor
+ *
+ * Stripes banking requests over a fixed set of single-threaded lanes by account
+ * (donor email hash). Requests for one account run one after another on the same
+ * lane, so they never contend for the account row or race on the idempotency
+ * check, while different accounts run in parallel on all lanes.
+ *
+ * Lane queues are unbounded; the RabbitMQ prefetch bounds how many requests are
+ * in flight. Metrics per lane: banking.lane.queue.depth, banking.lane.processed.
+ */
+@Component
+@Slf4j
+public class AccountLaneExecutor {
+
+    private final ThreadPoolExecutor[] lanes;
+    private final Counter[] processed;
+
+    public AccountLaneExecutor(@Value("${banking.lanes.count:0}") int laneCount, MeterRegistry meterRegistry) {
+        int count = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        this.lanes = new ThreadPoolExecutor[count];
+        this.processed = new Counter[count];
+
+        for (int i = 0; i < count; i++) {
+            String lane = String.valueOf(i);
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "banking-lane-" + lane);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            lanes[i] = executor;
+
+            Gauge.builder("banking.lane.queue.depth", executor, e -> e.getQueue().size())
+                    .description("Banking requests waiting on the account lane")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+            processed[i] = Counter.builder("banking.lane.processed")
+                    .description("Banking requests executed on the account lane")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+        }
+        log.info("Started {} account lanes", count);
+    }
+
+    /**
+     * Run a task on the lane of an account
+     *
+     * @param accountKey donor email (any stable account key)
+     * @throws java.util.concurrent.RejectedExecutionException once shut down
+     */
+    public void execute(String accountKey, Runnable task) {
+        int lane = laneOf(accountKey);
+        lanes[lane].execute(() -> {
+            try {
+                task.run();
+            } finally {
+                processed[lane].increment();
+            }
+        });
+    }
+
+    /**
+     * Lane index of an account
+     */
+    public int laneOf(String accountKey) {
+        // Spread the hash bits so similar emails do not cluster on a few lanes
+        int hash = accountKey != null ? accountKey.hashCode() : 0;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash * 0x9E3779B9, lanes.length);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Let queued requests finish; anything not acknowledged by then is redelivered by RabbitMQ
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            if (!lane.awaitTermination(10, TimeUnit.SECONDS)) {
+                lane.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.careforall.banking.service;
+
+import com.careforall.banking.dto.TransactionCursor;
+import com.careforall.banking.dto.TransactionPage;
+import com.careforall.banking.entity.BankAccount;
+import com.careforall.banking.entity.BankTransaction;
+import com.careforall.banking.repository.BankAccountRepository;
+import com.careforall.banking.repository.BankTransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Account Statement Service
+ *
+ * Read side of the ledger: bounded account listings, keyset-paginated transaction
+ * history and a streaming NDJSON export for statement generation. None of these
+ * load more than one page (or one fetch chunk) into memory, however long the
+ * account's history is.
+ */
+@Service
+@RequiredArgsConstructor
+public class AccountStatementService {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
+    private final BankAccountRepository accountRepository;
+    private final BankTransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * One page of accounts, ordered by id
+     *
+     * @param size page size, capped at MAX_PAGE_SIZE
+     */
+    @Transactional(readOnly = true)
+    public List<BankAccount> getAccounts(int page, Integer size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), clampPageSize(size), Sort.by("id"));
+        return accountRepository.findAll(pageable).getContent();
+    }
+
+    /**
+     * One page of an account's ledger, newest first
+     *
+     * @param cursor nextCursor from the previous page, or null for the first page
+     * @param limit  page size, capped at MAX_PAGE_SIZE
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public TransactionPage getTransactionsPage(Long accountId, String cursor, Integer limit) {
+        int pageSize = clampPageSize(limit);
+        Pageable fetch = PageRequest.of(0, pageSize + 1);
+
+        List<BankTransaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findByAccountIdOrderByCreatedAtDescIdDesc(accountId, fetch);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            rows = transactionRepository.findAccountPageAfter(accountId, position.createdAt(), position.id(), fetch);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<BankTransaction> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? TransactionCursor.of(page.get(page.size() - 1)).encode() : null;
+        return new TransactionPage(page, nextCursor, pageSize);
+    }
+
+    /**
+     * Write an account's whole ledger as NDJSON (one transaction per line, newest first)
+     * Each entity is detached once written so the persistence context does not grow with the ledger
+     *
+     * @return number of transactions written
+     */
+    @Transactional(readOnly = true)
+    public long exportTransactions(Long accountId, OutputStream out) throws IOException {
+        long written = 0;
+        try (Stream<BankTransaction> transactions = transactionRepository.streamByAccountId(accountId)) {
+            Iterator<BankTransaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                BankTransaction transaction = iterator.next();
+                out.write(objectMapper.writeValueAsBytes(transaction));
+                out.write('\n');
+                entityManager.detach(transaction);
+
+                if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        return written;
+    }
+
+    private int clampPageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,209 @@
+package com.careforall.banking.service;
+
+import com.careforall.banking.entity.BankAccount;
+import com.careforall.banking.entity.BankTransaction;
+import com.careforall.banking.enums.TransactionType;
+import com.careforall.banking.event.BankingEvent;
+import com.careforall.banking.repository.BankAccountRepository;
+import com.careforall.banking.repository.BankTransactionRepository;
+import com.careforall.banking.service.HoldTimingWheel.Hold;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Authorization Hold Expiry
+ *
+ * Releases funds locked by authorizations whose capture never arrives. Open holds
+ * are indexed by expiry time in a HoldTimingWheel (loaded from the ledger at startup,
+ * then fed by authorizePayment and emptied by captures). Every tick the expired holds
+ * are released in batches: the locked amount goes back to available, a CANCELLATION
+ * entry is written and a PAYMENT_FAILED event tells payment-service to fail the payment.
+ *
+ * A release locks the account row and re-checks the ledger first, so it never races a
+ * capture of the same payment; capturePayment refuses payments that were released.
+ *
+ * Metrics: banking.holds.open, banking.holds.released.
+ */
+@Service
+@Slf4j
+public class AuthorizationHoldExpiry {
+
+    public static final String EXPIRED_REASON = "Authorization expired, funds released";
+
+    private static final Set<TransactionType> SETTLED_TYPES = EnumSet.of(
+            TransactionType.CAPTURE, TransactionType.CANCELLATION, TransactionType.REFUND);
+
+    private final BankAccountRepository accountRepository;
+    private final BankTransactionRepository transactionRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HoldTimingWheel wheel;
+    private final Counter releasedCounter;
+
+    @Value("${banking.holds.ttl-ms:900000}")
+    private long holdTtlMillis = 900_000;
+
+    @Value("${banking.holds.batch-size:100}")
+    private int batchSize = 100;
+
+    public AuthorizationHoldExpiry(BankAccountRepository accountRepository,
+                                   BankTransactionRepository transactionRepository,
+                                   RabbitTemplate rabbitTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${banking.holds.tick-ms:1000}") long tickMillis,
+                                   @Value("${banking.holds.wheel-slots:3600}") int wheelSlots) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.wheel = new HoldTimingWheel(tickMillis, wheelSlots, System.currentTimeMillis());
+
+        Gauge.builder("banking.holds.open", wheel, HoldTimingWheel::size)
+                .description("Open authorization holds waiting for capture or expiry")
+                .register(meterRegistry);
+        this.releasedCounter = Counter.builder("banking.holds.released")
+                .description("Authorization holds released on expiry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Index the authorizations that were still open when the service stopped
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOpenHolds() {
+        List<BankTransaction> open = transactionRepository.findOpenAuthorizations();
+        for (BankTransaction authorization : open) {
+            wheel.add(new Hold(authorization.getExternalReference(), authorization.getAccountId(),
+                    authorization.getAmount(), toMillis(authorization.getCreatedAt()) + holdTtlMillis));
+        }
+        log.info("Loaded {} open authorization holds", open.size());
+    }
+
+    /**
+     * Start the expiry clock of a new authorization once its transaction commits
+     */
+    public void authorized(String paymentId, Long accountId, BigDecimal amount) {
+        afterCommit(() -> wheel.add(new Hold(paymentId, accountId, amount, System.currentTimeMillis() + holdTtlMillis)));
+    }
+
+    /**
+     * Stop the expiry clock of a payment once its capture commits
+     */
+    public void settled(String paymentId) {
+        afterCommit(() -> wheel.cancel(paymentId));
+    }
+
+    /**
+     * Release the holds that expired since the last tick, batchSize per transaction
+     */
+    @Scheduled(fixedDelayString = "${banking.holds.tick-ms:1000}")
+    public void releaseExpiredHolds() {
+        List<Hold> expired = wheel.advance(System.currentTimeMillis());
+        if (expired.isEmpty()) {
+            return;
+        }
+        // Lock account rows in a fixed order within each batch
+        expired.sort(Comparator.comparing(Hold::accountId));
+
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            List<Hold> batch = expired.subList(from, Math.min(from + batchSize, expired.size()));
+            try {
+                List<BankingEvent> events = transactionTemplate.execute(status -> releaseBatch(batch));
+                // Published after commit; if this is lost the payment-service reconciler
+                // still fails the payment from the CANCELLED ledger status
+                events.forEach(event -> rabbitTemplate.convertAndSend("banking.exchange", "banking.response", event));
+                releasedCounter.increment(events.size());
+            } catch (RuntimeException e) {
+                log.error("❌ Failed to release {} expired holds, retrying next tick: {}", batch.size(), e.getMessage());
+                batch.forEach(wheel::add);
+            }
+        }
+    }
+
+    private List<BankingEvent> releaseBatch(List<Hold> batch) {
+        List<BankingEvent> events = new ArrayList<>(batch.size());
+        for (Hold hold : batch) {
+            release(hold).ifPresent(events::add);
+        }
+        log.info("Released {} of {} expired authorization holds", events.size(), batch.size());
+        return events;
+    }
+
+    /**
+     * Release one hold unless the payment was settled in the meantime
+     */
+    private Optional<BankingEvent> release(Hold hold) {
+        // The row lock orders this release with any capture of the same payment
+        if (accountRepository.findByIdForUpdate(hold.accountId()).isEmpty()
+                || transactionRepository.existsByExternalReferenceAndTransactionTypeIn(hold.paymentId(), SETTLED_TYPES)) {
+            return Optional.empty();
+        }
+        if (accountRepository.releaseFunds(hold.accountId(), hold.amount()) == 0) {
+            log.warn("Locked balance of account {} is below expired hold {} ({})",
+                    hold.accountId(), hold.paymentId(), hold.amount());
+            return Optional.empty();
+        }
+
+        BankAccount account = accountRepository.findById(hold.accountId()).orElseThrow();
+        Optional<Long> transactionId = transactionRepository.insertIfAbsent(BankTransaction.builder()
+                .accountId(hold.accountId())
+                .externalReference(hold.paymentId())
+                .transactionType(TransactionType.CANCELLATION)
+                .amount(hold.amount())
+                .balanceBefore(account.getTotalBalance()) // releasing leaves the total unchanged
+                .balanceAfter(account.getTotalBalance())
+                .description(EXPIRED_REASON)
+                .build());
+
+        log.info("Released expired hold - PaymentID: {}, Amount: {}", hold.paymentId(), hold.amount());
+        return Optional.of(BankingEvent.builder()
+                .eventType("PAYMENT_FAILED")
+                .paymentId(hold.paymentId())
+                .transactionId(transactionId.map(String::valueOf).orElse(null))
+                .amount(hold.amount())
+                .status("FAILED")
+                .failureReason(EXPIRED_REASON)
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,104 +1,147 @@
 package com.careforall.banking.service;
 
+import com.careforall.banking.dto.LedgerStatus;
 import com.careforall.banking.dto.PaymentAuthorizationRequest;
 import com.careforall.banking.dto.PaymentCaptureRequest;
 import com.careforall.banking.entity.BankAccount;
 import com.careforall.banking.entity.BankTransaction;
+import com.careforall.banking.enums.BalanceUpdateMode;
 import com.careforall.banking.enums.TransactionType;
 import com.careforall.banking.event.BankingEvent;
+import com.careforall.banking.exception.BankingUnavailableException;
+import com.careforall.banking.exception.InfrastructureFaultPredicate;
+import com.careforall.banking.exception.PaymentDeclinedException;
 import com.careforall.banking.repository.BankAccountRepository;
 import com.careforall.banking.repository.BankTransactionRepository;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Banking Service
  *
  * Handles payment authorization and capture with:
  * - Balance validation
- * - Fund locking/releasing
+ * - Fund locking/releasing (atomic conditional UPDATE, or row lock in PESSIMISTIC mode)
  * - Transaction audit trail
  * - Resilience4j fault tolerance
+ *
+ * Failure model: business declines (PaymentDeclinedException, or a direct
+ * PAYMENT_FAILED for insufficient balance) are answered inside the transaction.
+ * Infrastructure faults propagate: Retry (outermost, a fresh transaction per
+ * attempt) and the circuit breaker only see those, the bulkhead caps concurrent
+ * database work and the transaction timeout bounds it. A fault that outlives the
+ * retries, an open circuit or a full bulkhead ends in BankingUnavailableException,
+ * never in a PAYMENT_FAILED.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BankingService {
 
+    public static final String VOIDED_REASON = "Voided: no authorization before the reconciliation deadline";
+
+    // Which ledger entry wins when a payment has several (higher = further along)
+    private static final Map<TransactionType, Integer> LEDGER_PRECEDENCE = new EnumMap<>(Map.of(
+            TransactionType.AUTHORIZATION, 0,
+            TransactionType.CAPTURE, 1,
+            TransactionType.CANCELLATION, 2,
+            TransactionType.REFUND, 3,
+            TransactionType.DEPOSIT, -1
+    ));
+
     private final BankAccountRepository accountRepository;
     private final BankTransactionRepository transactionRepository;
     private final RabbitTemplate rabbitTemplate;
+    private final AuthorizationHoldExpiry holdExpiry;
+
+    @Value("${banking.balance-update-mode:ATOMIC}")
+    private BalanceUpdateMode balanceUpdateMode = BalanceUpdateMode.ATOMIC;
 
     /**
      * Authorize payment: Check balance and lock funds
      *
+     * Idempotent without a read-before-write: the AUTHORIZATION ledger insert skips
+     * a duplicate on the unique (external_reference, transaction_type) index, and the
+     * duplicate attempt's balance change is rolled back.
+     *
      * @param request Payment authorization request
      * @return Banking event (PAYMENT_AUTHORIZED or PAYMENT_FAILED)
      */
-    @Transactional
-    @CircuitBreaker(name = "bankingService", fallbackMethod = "authorizeFallback")
-    @Retry(name = "bankingService")
+    @Transactional(timeoutString = "${banking.resilience.db-timeout-seconds:5}")
+    @Bulkhead(name = "bankingService")
+    @CircuitBreaker(name = "bankingService")
+    @Retry(name = "bankingService", fallbackMethod = "authorizeFallback")
     public BankingEvent authorizePayment(PaymentAuthorizationRequest request) {
         log.info("Processing authorization request - PaymentID: {}, Email: {}, Amount: {}",
                 request.getPaymentId(), request.getDonorEmail(), request.getAmount());
 
         try {
-            // Check for duplicate authorization (idempotency)
-            Optional<BankTransaction> existingTxn = transactionRepository.findByExternalReference(request.getPaymentId());
-            if (existingTxn.isPresent() && existingTxn.get().getTransactionType() == TransactionType.AUTHORIZATION) {
-                log.info("Duplicate authorization request detected for PaymentID: {}", request.getPaymentId());
-                return buildSuccessEvent("PAYMENT_AUTHORIZED", request.getPaymentId(),
-                        request.getAmount(), existingTxn.get().getId().toString());
-            }
-
-            // Find account by email (supports guest donations)
-            BankAccount account = accountRepository.findByEmail(request.getDonorEmail())
-                    .orElseThrow(() -> new RuntimeException("Account not found for email: " + request.getDonorEmail()));
-
-            // Check if sufficient balance
-            if (account.getAvailableBalance().compareTo(request.getAmount()) < 0) {
-                log.warn("Insufficient balance - PaymentID: {}, Available: {}, Required: {}",
-                        request.getPaymentId(), account.getAvailableBalance(), request.getAmount());
+            // Lock funds (account found by email, supports guest donations)
+            Optional<BankAccount> locked = lockFunds(request.getDonorEmail(), request.getAmount());
+            if (locked.isEmpty()) {
+                // The funds may be short because this payment already locked them
+                if (ledgerEntryExists(request.getPaymentId(), TransactionType.AUTHORIZATION)) {
+                    return duplicateEvent("PAYMENT_AUTHORIZED", TransactionType.AUTHORIZATION,
+                            request.getPaymentId(), request.getAmount());
+                }
+                log.warn("Insufficient balance - PaymentID: {}, Required: {}",
+                        request.getPaymentId(), request.getAmount());
 
                 return buildFailureEvent("PAYMENT_FAILED", request.getPaymentId(),
                         request.getAmount(), "Insufficient balance");
             }
+            // Checked after the UPDATE so the account row lock orders this with a void
+            requireNotCancelled(request.getPaymentId());
+            BankAccount account = locked.get();
 
-            // Lock funds
-            BigDecimal balanceBefore = account.getTotalBalance();
-            account.lockFunds(request.getAmount());
-            accountRepository.save(account);
-
-            // Create transaction record
-            BankTransaction transaction = BankTransaction.builder()
+            // Create transaction record (skipped if this payment is already authorized)
+            Optional<Long> transactionId = transactionRepository.insertIfAbsent(BankTransaction.builder()
                     .accountId(account.getId())
                     .externalReference(request.getPaymentId())
                     .transactionType(TransactionType.AUTHORIZATION)
                     .amount(request.getAmount())
-                    .balanceBefore(balanceBefore)
+                    .balanceBefore(account.getTotalBalance()) // locking leaves the total unchanged
                     .balanceAfter(account.getTotalBalance())
                     .description("Funds locked for donation payment")
-                    .build();
-            transactionRepository.save(transaction);
+                    .build());
+            if (transactionId.isEmpty()) {
+                return duplicateEvent("PAYMENT_AUTHORIZED", TransactionType.AUTHORIZATION,
+                        request.getPaymentId(), request.getAmount());
+            }
 
+            holdExpiry.authorized(request.getPaymentId(), account.getId(), request.getAmount());
             log.info("✅ Payment authorized - PaymentID: {}, TransactionID: {}",
-                    request.getPaymentId(), transaction.getId());
+                    request.getPaymentId(), transactionId.get());
 
             return buildSuccessEvent("PAYMENT_AUTHORIZED", request.getPaymentId(),
-                    request.getAmount(), transaction.getId().toString());
+                    request.getAmount(), transactionId.get().toString());
 
-        } catch (Exception e) {
-            log.error("❌ Authorization failed - PaymentID: {}, Error: {}",
+        } catch (PaymentDeclinedException e) {
+            log.warn("Authorization declined - PaymentID: {}, Reason: {}",
                     request.getPaymentId(), e.getMessage());
+            rollbackOnly();
 
             return buildFailureEvent("PAYMENT_FAILED", request.getPaymentId(),
                     request.getAmount(), e.getMessage());
@@ -108,41 +151,123 @@ public class BankingService {
     /**
      * Capture payment: Transfer locked funds
      *
+     * Idempotent the same way as authorizePayment, on the CAPTURE ledger entry.
+     * Fails if the authorization already expired and its funds were released.
+     *
      * @param request Payment capture request
      * @return Banking event (PAYMENT_CAPTURED or PAYMENT_FAILED)
      */
-    @Transactional
-    @CircuitBreaker(name = "bankingService", fallbackMethod = "captureFallback")
-    @Retry(name = "bankingService")
+    @Transactional(timeoutString = "${banking.resilience.db-timeout-seconds:5}")
+    @Bulkhead(name = "bankingService")
+    @CircuitBreaker(name = "bankingService")
+    @Retry(name = "bankingService", fallbackMethod = "captureFallback")
     public BankingEvent capturePayment(PaymentCaptureRequest request) {
         log.info("Processing capture request - PaymentID: {}, Email: {}, Amount: {}",
                 request.getPaymentId(), request.getDonorEmail(), request.getAmount());
 
         try {
-            // Check for duplicate capture (idempotency)
-            Optional<BankTransaction> existingCapture = transactionRepository
-                    .findByExternalReferenceOrderByCreatedAtDesc(request.getPaymentId())
-                    .stream()
-                    .filter(txn -> txn.getTransactionType() == TransactionType.CAPTURE)
-                    .findFirst();
-
-            if (existingCapture.isPresent()) {
-                log.info("Duplicate capture request detected for PaymentID: {}", request.getPaymentId());
-                return buildSuccessEvent("PAYMENT_CAPTURED", request.getPaymentId(),
-                        request.getAmount(), existingCapture.get().getId().toString());
+            // Capture locked funds
+            Optional<BankAccount> captured = captureFunds(request.getDonorEmail(), request.getAmount());
+            if (captured.isEmpty()) {
+                if (ledgerEntryExists(request.getPaymentId(), TransactionType.CAPTURE)) {
+                    return duplicateEvent("PAYMENT_CAPTURED", TransactionType.CAPTURE,
+                            request.getPaymentId(), request.getAmount());
+                }
+                requireHoldNotReleased(request.getPaymentId());
+                throw new PaymentDeclinedException("Insufficient locked balance. Required: " + request.getAmount());
+            }
+            // Checked after the UPDATE so the account row lock orders this with a hold release
+            requireHoldNotReleased(request.getPaymentId());
+            BankAccount account = captured.get();
+
+            // Create transaction record (skipped if this payment is already captured)
+            Optional<Long> transactionId = transactionRepository.insertIfAbsent(BankTransaction.builder()
+                    .accountId(account.getId())
+                    .externalReference(request.getPaymentId())
+                    .transactionType(TransactionType.CAPTURE)
+                    .amount(request.getAmount())
+                    .balanceBefore(account.getTotalBalance().add(request.getAmount()))
+                    .balanceAfter(account.getTotalBalance())
+                    .description("Funds captured and transferred to charity")
+                    .build());
+            if (transactionId.isEmpty()) {
+                return duplicateEvent("PAYMENT_CAPTURED", TransactionType.CAPTURE,
+                        request.getPaymentId(), request.getAmount());
             }
 
-            // Find account
-            BankAccount account = accountRepository.findByEmail(request.getDonorEmail())
-                    .orElseThrow(() -> new RuntimeException("Account not found for email: " + request.getDonorEmail()));
+            holdExpiry.settled(request.getPaymentId());
+            log.info("✅ Payment captured - PaymentID: {}, TransactionID: {}",
+                    request.getPaymentId(), transactionId.get());
+
+            return buildSuccessEvent("PAYMENT_CAPTURED", request.getPaymentId(),
+                    request.getAmount(), transactionId.get().toString());
 
-            // Capture locked funds
-            BigDecimal balanceBefore = account.getTotalBalance();
-            account.captureFunds(request.getAmount());
-            accountRepository.save(account);
+        } catch (PaymentDeclinedException e) {
+            log.warn("Capture declined - PaymentID: {}, Reason: {}",
+                    request.getPaymentId(), e.getMessage());
+            rollbackOnly();
 
-            // Create transaction record
-            BankTransaction transaction = BankTransaction.builder()
+            return buildFailureEvent("PAYMENT_FAILED", request.getPaymentId(),
+                    request.getAmount(), e.getMessage());
+        }
+    }
+
+    /**
+     * Authorize and capture in one transaction
+     *
+     * Fast path for requests that are captured as soon as they are authorized: one
+     * balance change on the account row and both ledger entries, where
+     * authorizePayment + capturePayment need two transactions. Duplicates are
+     * detected by the ledger inserts as in authorizePayment. A payment that the
+     * split path already authorized only has its locked funds captured.
+     *
+     * @param request Payment authorization request
+     * @return Banking event (PAYMENT_CAPTURED or PAYMENT_FAILED)
+     */
+    @Transactional(timeoutString = "${banking.resilience.db-timeout-seconds:5}")
+    @Bulkhead(name = "bankingService")
+    @CircuitBreaker(name = "bankingService")
+    @Retry(name = "bankingService", fallbackMethod = "authorizeAndCaptureFallback")
+    public BankingEvent authorizeAndCapture(PaymentAuthorizationRequest request) {
+        log.info("Processing authorize+capture request - PaymentID: {}, Email: {}, Amount: {}",
+                request.getPaymentId(), request.getDonorEmail(), request.getAmount());
+
+        try {
+            Optional<BankAccount> debited = debitFunds(request.getDonorEmail(), request.getAmount());
+            if (debited.isEmpty()) {
+                // The funds may be short because this payment already locked or took them
+                if (ledgerEntryExists(request.getPaymentId(), TransactionType.CAPTURE)) {
+                    return duplicateEvent("PAYMENT_CAPTURED", TransactionType.CAPTURE,
+                            request.getPaymentId(), request.getAmount());
+                }
+                if (ledgerEntryExists(request.getPaymentId(), TransactionType.AUTHORIZATION)) {
+                    return capturePayment(PaymentCaptureRequest.builder()
+                            .paymentId(request.getPaymentId())
+                            .donorEmail(request.getDonorEmail())
+                            .userId(request.getUserId())
+                            .amount(request.getAmount())
+                            .build());
+                }
+                log.warn("Insufficient balance - PaymentID: {}, Required: {}",
+                        request.getPaymentId(), request.getAmount());
+
+                return buildFailureEvent("PAYMENT_FAILED", request.getPaymentId(),
+                        request.getAmount(), "Insufficient balance");
+            }
+            requireNotCancelled(request.getPaymentId());
+            BankAccount account = debited.get();
+            BigDecimal balanceBefore = account.getTotalBalance().add(request.getAmount());
+
+            Optional<Long> authorizationId = transactionRepository.insertIfAbsent(BankTransaction.builder()
+                    .accountId(account.getId())
+                    .externalReference(request.getPaymentId())
+                    .transactionType(TransactionType.AUTHORIZATION)
+                    .amount(request.getAmount())
+                    .balanceBefore(balanceBefore)
+                    .balanceAfter(balanceBefore)
+                    .description("Funds locked for donation payment")
+                    .build());
+            Optional<Long> captureId = transactionRepository.insertIfAbsent(BankTransaction.builder()
                     .accountId(account.getId())
                     .externalReference(request.getPaymentId())
                     .transactionType(TransactionType.CAPTURE)
@@ -150,44 +275,189 @@ public class BankingService {
                     .balanceBefore(balanceBefore)
                     .balanceAfter(account.getTotalBalance())
                     .description("Funds captured and transferred to charity")
-                    .build();
-            transactionRepository.save(transaction);
+                    .build());
+            if (captureId.isEmpty()) {
+                return duplicateEvent("PAYMENT_CAPTURED", TransactionType.CAPTURE,
+                        request.getPaymentId(), request.getAmount());
+            }
+            if (authorizationId.isEmpty()) {
+                // Already authorized by the split path: the capture must come out of the locked
+                // funds, so hand the debited amount back to available and take it from locked
+                requireHoldNotReleased(request.getPaymentId());
+                if (accountRepository.releaseFunds(account.getId(), request.getAmount()) == 0) {
+                    throw new PaymentDeclinedException("Insufficient locked balance. Required: " + request.getAmount());
+                }
+            }
 
-            log.info("✅ Payment captured - PaymentID: {}, TransactionID: {}",
-                    request.getPaymentId(), transaction.getId());
+            holdExpiry.settled(request.getPaymentId());
+            log.info("✅ Payment authorized and captured - PaymentID: {}, TransactionID: {}",
+                    request.getPaymentId(), captureId.get());
 
             return buildSuccessEvent("PAYMENT_CAPTURED", request.getPaymentId(),
-                    request.getAmount(), transaction.getId().toString());
+                    request.getAmount(), captureId.get().toString());
 
-        } catch (Exception e) {
-            log.error("❌ Capture failed - PaymentID: {}, Error: {}",
+        } catch (PaymentDeclinedException e) {
+            log.warn("Authorize+capture declined - PaymentID: {}, Reason: {}",
                     request.getPaymentId(), e.getMessage());
+            rollbackOnly();
 
             return buildFailureEvent("PAYMENT_FAILED", request.getPaymentId(),
                     request.getAmount(), e.getMessage());
         }
     }
 
+    private boolean ledgerEntryExists(String paymentId, TransactionType type) {
+        return transactionRepository.findByExternalReferenceAndTransactionType(paymentId, type).isPresent();
+    }
+
+    /**
+     * Refuse to capture a payment whose authorization hold expired and was released
+     */
+    private void requireHoldNotReleased(String paymentId) {
+        if (ledgerEntryExists(paymentId, TransactionType.CANCELLATION)) {
+            throw new PaymentDeclinedException("Authorization expired");
+        }
+    }
+
+    /**
+     * Refuse to authorize a payment that was voided, or whose earlier hold was released
+     */
+    private void requireNotCancelled(String paymentId) {
+        if (ledgerEntryExists(paymentId, TransactionType.CANCELLATION)) {
+            throw new PaymentDeclinedException("Payment cancelled");
+        }
+    }
+
+    /**
+     * Answer a repeated request with its earlier ledger entry
+     * Rolls back whatever balance change this attempt already made
+     */
+    private BankingEvent duplicateEvent(String eventType, TransactionType type, String paymentId, BigDecimal amount) {
+        rollbackOnly();
+        log.info("Duplicate {} request detected for PaymentID: {}", type, paymentId);
+
+        BankTransaction existing = transactionRepository.findByExternalReferenceAndTransactionType(paymentId, type)
+                .orElseThrow(() -> new IllegalStateException("Ledger entry disappeared for PaymentID: " + paymentId));
+        return buildSuccessEvent(eventType, paymentId, amount, existing.getId().toString());
+    }
+
+    /**
+     * Roll back the current transaction on return (a failed or repeated request keeps no balance change)
+     */
+    private static void rollbackOnly() {
+        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+    }
+
+    /**
+     * Move funds from available to locked balance
+     *
+     * @return the account after the lock, or empty if the available balance is too low
+     */
+    private Optional<BankAccount> lockFunds(String email, BigDecimal amount) {
+        if (balanceUpdateMode == BalanceUpdateMode.PESSIMISTIC) {
+            BankAccount account = accountRepository.findByEmailForUpdate(email)
+                    .orElseThrow(() -> new PaymentDeclinedException("Account not found for email: " + email));
+            if (account.getAvailableBalance().compareTo(amount) < 0) {
+                return Optional.empty();
+            }
+            account.lockFunds(amount);
+            return Optional.of(accountRepository.save(account));
+        }
+
+        Long accountId = accountRepository.findIdByEmail(email)
+                .orElseThrow(() -> new PaymentDeclinedException("Account not found for email: " + email));
+        if (accountRepository.lockFunds(accountId, amount) == 0) {
+            return Optional.empty();
+        }
+        // The UPDATE holds the row lock until commit, so this reads our own change
+        return accountRepository.findById(accountId);
+    }
+
+    /**
+     * Remove captured funds from the locked balance
+     *
+     * @return the account after the capture, or empty if the locked balance is too low
+     */
+    private Optional<BankAccount> captureFunds(String email, BigDecimal amount) {
+        if (balanceUpdateMode == BalanceUpdateMode.PESSIMISTIC) {
+            BankAccount account = accountRepository.findByEmailForUpdate(email)
+                    .orElseThrow(() -> new PaymentDeclinedException("Account not found for email: " + email));
+            if (account.getLockedBalance().compareTo(amount) < 0) {
+                return Optional.empty();
+            }
+            account.captureFunds(amount);
+            return Optional.of(accountRepository.save(account));
+        }
+
+        Long accountId = accountRepository.findIdByEmail(email)
+                .orElseThrow(() -> new PaymentDeclinedException("Account not found for email: " + email));
+        if (accountRepository.captureFunds(accountId, amount) == 0) {
+            return Optional.empty();
+        }
+        return accountRepository.findById(accountId);
+    }
+
+    /**
+     * Take funds straight out of the available balance (lock and capture in one step)
+     *
+     * @return the account after the debit, or empty if the available balance is too low
+     */
+    private Optional<BankAccount> debitFunds(String email, BigDecimal amount) {
+        if (balanceUpdateMode == BalanceUpdateMode.PESSIMISTIC) {
+            BankAccount account = accountRepository.findByEmailForUpdate(email)
+                    .orElseThrow(() -> new PaymentDeclinedException("Account not found for email: " + email));
+            if (account.getAvailableBalance().compareTo(amount) < 0) {
+                return Optional.empty();
+            }
+            account.lockFunds(amount);
+            account.captureFunds(amount);
+            return Optional.of(accountRepository.save(account));
+        }
+
+        Long accountId = accountRepository.findIdByEmail(email)
+                .orElseThrow(() -> new PaymentDeclinedException("Account not found for email: " + email));
+        if (accountRepository.debitFunds(accountId, amount) == 0) {
+            return Optional.empty();
+        }
+        return accountRepository.findById(accountId);
+    }
+
     /**
      * Fallback method for authorization failures
      */
     private BankingEvent authorizeFallback(PaymentAuthorizationRequest request, Throwable throwable) {
-        log.error("Circuit breaker fallback triggered for authorization - PaymentID: {}, Error: {}",
-                request.getPaymentId(), throwable.getMessage());
-
-        return buildFailureEvent("PAYMENT_FAILED", request.getPaymentId(),
-                request.getAmount(), "Service temporarily unavailable. Please try again later.");
+        return fallback("authorization", request.getPaymentId(), request.getAmount(), throwable);
     }
 
     /**
      * Fallback method for capture failures
      */
     private BankingEvent captureFallback(PaymentCaptureRequest request, Throwable throwable) {
-        log.error("Circuit breaker fallback triggered for capture - PaymentID: {}, Error: {}",
-                request.getPaymentId(), throwable.getMessage());
+        return fallback("capture", request.getPaymentId(), request.getAmount(), throwable);
+    }
+
+    /**
+     * Fallback method for authorize+capture failures
+     */
+    private BankingEvent authorizeAndCaptureFallback(PaymentAuthorizationRequest request, Throwable throwable) {
+        return fallback("authorize+capture", request.getPaymentId(), request.getAmount(), throwable);
+    }
+
+    /**
+     * Called once retries are exhausted (or skipped)
+     *
+     * Infrastructure faults, an open circuit and a full bulkhead leave the payment
+     * undecided and are rethrown as BankingUnavailableException; anything else is an
+     * unexpected error in the request itself and fails the payment.
+     */
+    private BankingEvent fallback(String operation, String paymentId, BigDecimal amount, Throwable throwable) {
+        if (InfrastructureFaultPredicate.isUnavailable(throwable)) {
+            log.error("Banking unavailable for {} - PaymentID: {}, Error: {}", operation, paymentId, throwable.toString());
+            throw new BankingUnavailableException("Banking " + operation + " unavailable for PaymentID: " + paymentId, throwable);
+        }
 
-        return buildFailureEvent("PAYMENT_FAILED", request.getPaymentId(),
-                request.getAmount(), "Service temporarily unavailable. Please try again later.");
+        log.error("❌ Unexpected {} error - PaymentID: {}, Error: {}", operation, paymentId, throwable.getMessage(), throwable);
+        return buildFailureEvent("PAYMENT_FAILED", paymentId, amount, throwable.getMessage());
     }
 
     /**
@@ -220,25 +490,166 @@ public class BankingService {
                 .build();
     }
 
+    /**
+     * Look up the ledger state of a batch of payments with a single query
+     *
+     * Used by the payment-service reconciler to repair payments whose banking
+     * response was lost. Precedence when a payment has several entries:
+     * REFUND > CANCELLATION > CAPTURE > AUTHORIZATION.
+     *
+     * @param paymentIds Payment IDs (external references)
+     * @return one status per distinct payment ID, in request order
+     */
+    @Transactional(readOnly = true)
+    public List<LedgerStatus> getLedgerStatuses(List<String> paymentIds) {
+        return ledgerStatuses(paymentIds);
+    }
+
+    /**
+     * Void payments that never reached the ledger, so they can be failed for good
+     *
+     * Used by the payment-service reconciler before it fails a payment banking never
+     * answered. Each account row is locked (in email order) and the ledger re-checked:
+     * a payment with no entry gets a CANCELLATION tombstone, which authorizePayment,
+     * authorizeAndCapture and batch authorization check under the same row lock, so a
+     * request that arrives later is declined. A payment that was processed after all
+     * keeps its entries, and its real status is returned for the reconciler to apply.
+     * A payment whose account does not exist is reported CANCELLED without a tombstone:
+     * it can never be authorized.
+     *
+     * @return one status per distinct payment ID, in request order
+     */
+    @Transactional(timeoutString = "${banking.resilience.db-timeout-seconds:5}")
+    public List<LedgerStatus> voidPayments(List<PaymentAuthorizationRequest> payments) {
+        List<PaymentAuthorizationRequest> byAccount = new ArrayList<>(payments);
+        byAccount.sort(Comparator.comparing(PaymentAuthorizationRequest::getDonorEmail,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        Set<String> noAccount = new HashSet<>();
+        int voided = 0;
+        for (PaymentAuthorizationRequest payment : byAccount) {
+            Optional<BankAccount> account = payment.getDonorEmail() != null
+                    ? accountRepository.findByEmailForUpdate(payment.getDonorEmail())
+                    : Optional.empty();
+            if (account.isEmpty()) {
+                noAccount.add(payment.getPaymentId());
+                continue;
+            }
+            if (transactionRepository.existsByExternalReference(payment.getPaymentId())) {
+                continue;
+            }
+            voided += transactionRepository.insertIfAbsent(BankTransaction.builder()
+                    .accountId(account.get().getId())
+                    .externalReference(payment.getPaymentId())
+                    .transactionType(TransactionType.CANCELLATION)
+                    .amount(payment.getAmount() != null ? payment.getAmount() : BigDecimal.ZERO)
+                    .balanceBefore(account.get().getTotalBalance()) // a void moves no funds
+                    .balanceAfter(account.get().getTotalBalance())
+                    .description(VOIDED_REASON)
+                    .build()).isPresent() ? 1 : 0;
+        }
+        log.info("Voided {} of {} payments for reconciliation", voided, payments.size());
+
+        List<String> paymentIds = payments.stream().map(PaymentAuthorizationRequest::getPaymentId).toList();
+        return ledgerStatuses(paymentIds).stream()
+                .map(status -> LedgerStatus.NONE.equals(status.getStatus()) && noAccount.contains(status.getPaymentId())
+                        ? LedgerStatus.builder().paymentId(status.getPaymentId()).status(LedgerStatus.CANCELLED).build()
+                        : status)
+                .toList();
+    }
+
+    private List<LedgerStatus> ledgerStatuses(List<String> paymentIds) {
+        Map<String, BankTransaction> latest = new HashMap<>();
+        for (BankTransaction txn : transactionRepository.findByExternalReferenceIn(paymentIds)) {
+            latest.merge(txn.getExternalReference(), txn,
+                    (a, b) -> LEDGER_PRECEDENCE.get(b.getTransactionType()) > LEDGER_PRECEDENCE.get(a.getTransactionType()) ? b : a);
+        }
+
+        List<LedgerStatus> statuses = new ArrayList<>(paymentIds.size());
+        for (String paymentId : new LinkedHashSet<>(paymentIds)) {
+            BankTransaction txn = latest.get(paymentId);
+            if (txn == null) {
+                statuses.add(LedgerStatus.builder().paymentId(paymentId).status(LedgerStatus.NONE).build());
+                continue;
+            }
+            statuses.add(LedgerStatus.builder()
+                    .paymentId(paymentId)
+                    .status(toLedgerStatus(txn.getTransactionType()))
+                    .transactionId(txn.getId().toString())
+                    .amount(txn.getAmount())
+                    .updatedAt(txn.getCreatedAt())
+                    .build());
+        }
+        return statuses;
+    }
+
+    private static String toLedgerStatus(TransactionType type) {
+        return switch (type) {
+            case AUTHORIZATION -> LedgerStatus.AUTHORIZED;
+            case CAPTURE -> LedgerStatus.CAPTURED;
+            case CANCELLATION -> LedgerStatus.CANCELLED;
+            case REFUND -> LedgerStatus.REFUNDED;
+            case DEPOSIT -> LedgerStatus.NONE; // deposits are not payments
+        };
+    }
+
+    /**
+     * Open an account, recording a non-zero initial balance as a DEPOSIT (for testing/admin purposes)
+     */
+    @Transactional
+    public BankAccount openAccount(String email, String name, BigDecimal initialBalance) {
+        BankAccount account = accountRepository.save(BankAccount.builder()
+                .email(email)
+                .accountHolderName(name)
+                .availableBalance(BigDecimal.ZERO)
+                .lockedBalance(BigDecimal.ZERO)
+                .build());
+
+        if (initialBalance.signum() > 0) {
+            return deposit(account.getId(), initialBalance, "Opening balance");
+        }
+        return account;
+    }
+
     /**
      * Add funds to account (for testing/admin purposes)
      */
     @Transactional
     public void addFunds(String email, BigDecimal amount) {
-        BankAccount account = accountRepository.findByEmail(email)
+        Long accountId = accountRepository.findIdByEmail(email)
                 .orElseGet(() -> {
                     // Create account if doesn't exist
-                    return BankAccount.builder()
+                    return accountRepository.save(BankAccount.builder()
                             .email(email)
                             .accountHolderName("User")
                             .availableBalance(BigDecimal.ZERO)
                             .lockedBalance(BigDecimal.ZERO)
-                            .build();
+                            .build()).getId();
                 });
 
-        account.addFunds(amount);
-        accountRepository.save(account);
+        deposit(accountId, amount, "Funds added to account");
 
         log.info("Added {} to account: {}", amount, email);
     }
+
+    /**
+     * Credit the account, then record the DEPOSIT (the UPDATE holds the row lock, so
+     * the entry lands in the ledger chain in the same order as the balance change)
+     */
+    private BankAccount deposit(Long accountId, BigDecimal amount, String description) {
+        accountRepository.creditFunds(accountId, amount);
+        BankAccount account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new IllegalStateException("Account disappeared: " + accountId));
+
+        transactionRepository.save(BankTransaction.builder()
+                .accountId(accountId)
+                .externalReference("DEP-" + UUID.randomUUID())
+                .transactionType(TransactionType.DEPOSIT)
+                .amount(amount)
+                .balanceBefore(account.getTotalBalance().subtract(amount))
+                .balanceAfter(account.getTotalBalance())
+                .description(description)
+                .build());
+        return account;
+    }
 }
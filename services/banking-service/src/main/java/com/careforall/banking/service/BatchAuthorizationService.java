@@ -0,0 +1,363 @@
+package com.careforall.banking.service;
+
+import com.careforall.banking.dto.BatchAuthorizationRequest;
+import com.careforall.banking.dto.BatchAuthorizationResult;
+import com.careforall.banking.dto.PaymentAuthorizationRequest;
+import com.careforall.banking.entity.BankAccount;
+import com.careforall.banking.entity.BankTransaction;
+import com.careforall.banking.enums.TransactionType;
+import com.careforall.banking.event.BankingEvent;
+import com.careforall.banking.exception.BankingUnavailableException;
+import com.careforall.banking.exception.InfrastructureFaultPredicate;
+import com.careforall.banking.exception.PaymentDeclinedException;
+import com.careforall.banking.repository.BankAccountRepository;
+import com.careforall.banking.repository.BankTransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch Authorization Service
+ *
+ * Authorizes many payments per call. Requests are grouped by account (donor email)
+ * and each group runs as one transaction on the account's lane: the account row is
+ * locked once, every hold is checked against a running available balance, the
+ * AUTHORIZATION entries are inserted, and the total is locked with a single balance
+ * update. Groups for different accounts run in parallel on their lanes.
+ *
+ * With capture, each payment is also captured in the same transaction, as
+ * authorizeAndCapture does for a single payment: a CAPTURE entry follows each
+ * AUTHORIZATION and the group's balance moves once, answering PAYMENT_CAPTURED.
+ * A payment authorized earlier without capture is captured out of its locked funds.
+ *
+ * Per-item semantics match authorizePayment: a payment that is already authorized
+ * (earlier or twice in the same batch) answers with its existing ledger entry, a
+ * voided or released one fails, and one that does not fit the remaining balance
+ * fails without affecting the others.
+ * An infrastructure fault in any group fails the whole call with
+ * BankingUnavailableException; groups that committed stay committed, and sending
+ * the batch again answers them from the ledger.
+ *
+ * Metrics: banking.batch.authorizations (tag outcome), banking.batch.duration.
+ */
+@Service
+@Slf4j
+public class BatchAuthorizationService {
+
+    private final BankAccountRepository accountRepository;
+    private final BankTransactionRepository transactionRepository;
+    private final AccountLaneExecutor accountLanes;
+    private final AuthorizationHoldExpiry holdExpiry;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter authorizedCounter;
+    private final Counter failedCounter;
+    private final Timer durationTimer;
+
+    public BatchAuthorizationService(BankAccountRepository accountRepository,
+                                     BankTransactionRepository transactionRepository,
+                                     AccountLaneExecutor accountLanes,
+                                     AuthorizationHoldExpiry holdExpiry,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${banking.resilience.db-timeout-seconds:5}") int dbTimeoutSeconds) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountLanes = accountLanes;
+        this.holdExpiry = holdExpiry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setTimeout(dbTimeoutSeconds);
+
+        this.authorizedCounter = Counter.builder("banking.batch.authorizations")
+                .description("Authorizations processed through the batch API")
+                .tag("outcome", "authorized")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("banking.batch.authorizations")
+                .description("Authorizations processed through the batch API")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.durationTimer = Timer.builder("banking.batch.duration")
+                .description("Duration of a batch authorization call")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Authorize a batch of payments, leaving them to be captured later
+     *
+     * @return one PAYMENT_AUTHORIZED or PAYMENT_FAILED event per authorization, in request order
+     * @throws BankingUnavailableException if a group hit an infrastructure fault
+     */
+    public BatchAuthorizationResult authorizeBatch(BatchAuthorizationRequest request) {
+        return processBatch(request, false);
+    }
+
+    /**
+     * Authorize and capture a batch of payments
+     *
+     * @return one PAYMENT_CAPTURED or PAYMENT_FAILED event per authorization, in request order
+     * @throws BankingUnavailableException if a group hit an infrastructure fault
+     */
+    public BatchAuthorizationResult authorizeAndCaptureBatch(BatchAuthorizationRequest request) {
+        return processBatch(request, true);
+    }
+
+    private BatchAuthorizationResult processBatch(BatchAuthorizationRequest request, boolean capture) {
+        long start = System.nanoTime();
+        List<PaymentAuthorizationRequest> authorizations = request.getAuthorizations();
+
+        Map<String, List<Item>> byAccount = new LinkedHashMap<>();
+        for (int i = 0; i < authorizations.size(); i++) {
+            PaymentAuthorizationRequest authorization = authorizations.get(i);
+            byAccount.computeIfAbsent(authorization.getDonorEmail(), email -> new ArrayList<>())
+                    .add(new Item(i, authorization));
+        }
+
+        BankingEvent[] results = new BankingEvent[authorizations.size()];
+        List<CompletableFuture<Void>> groups = new ArrayList<>(byAccount.size());
+        for (Map.Entry<String, List<Item>> group : byAccount.entrySet()) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            accountLanes.execute(group.getKey(), () -> {
+                try {
+                    authorizeGroup(group.getKey(), group.getValue(), capture, results);
+                    done.complete(null);
+                } catch (Throwable t) {
+                    done.completeExceptionally(t);
+                }
+            });
+            groups.add(done);
+        }
+        try {
+            CompletableFuture.allOf(groups.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw new BankingUnavailableException("Batch " + request.getBatchId() + " interrupted by an infrastructure fault; "
+                    + "send it again to finish it", e.getCause());
+        }
+
+        int authorized = 0;
+        for (BankingEvent event : results) {
+            authorized += "SUCCESS".equals(event.getStatus()) ? 1 : 0;
+        }
+        int failed = results.length - authorized;
+        long elapsedNanos = System.nanoTime() - start;
+        authorizedCounter.increment(authorized);
+        failedCounter.increment(failed);
+        durationTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        log.info("✅ Batch {} processed - {} authorizations over {} accounts: {} {}, {} failed in {} ms",
+                request.getBatchId(), results.length, byAccount.size(), authorized, capture ? "captured" : "authorized",
+                failed, elapsedNanos / 1_000_000);
+
+        return BatchAuthorizationResult.builder()
+                .batchId(request.getBatchId())
+                .accounts(byAccount.size())
+                .authorized(authorized)
+                .failed(failed)
+                .durationMs(elapsedNanos / 1_000_000)
+                .results(List.of(results))
+                .build();
+    }
+
+    /**
+     * Authorize one account's share of the batch
+     * A decline or unexpected error fails all its items; infrastructure faults propagate
+     */
+    private void authorizeGroup(String email, List<Item> items, boolean capture, BankingEvent[] results) {
+        try {
+            List<BankingEvent> events = transactionTemplate.execute(status -> authorizeAccount(email, items, capture));
+            for (int i = 0; i < items.size(); i++) {
+                results[items.get(i).index()] = events.get(i);
+            }
+        } catch (RuntimeException e) {
+            if (InfrastructureFaultPredicate.isInfrastructureFault(e)) {
+                throw e;
+            }
+            if (e instanceof PaymentDeclinedException) {
+                log.warn("Batch authorization declined for {} payments of {}: {}", items.size(), email, e.getMessage());
+            } else {
+                log.error("❌ Batch authorization failed for {} payments of {}: {}", items.size(), email, e.getMessage());
+            }
+            for (Item item : items) {
+                results[item.index()] = failure(item.request(), e.getMessage());
+            }
+        }
+    }
+
+    private List<BankingEvent> authorizeAccount(String email, List<Item> items, boolean capture) {
+        // The one account lock of this group, held until commit
+        BankAccount account = accountRepository.findByEmailForUpdate(email)
+                .orElseThrow(() -> new PaymentDeclinedException("Account not found for email: " + email));
+
+        List<String> paymentIds = items.stream().map(item -> item.request().getPaymentId()).toList();
+        Map<String, Long> authorizations = ledgerEntries(paymentIds, TransactionType.AUTHORIZATION);
+        Map<String, Long> captures = capture ? ledgerEntries(paymentIds, TransactionType.CAPTURE) : new HashMap<>();
+        // Voided or released payments, read under the account lock like authorizePayment does
+        Set<String> cancelled = ledgerEntries(paymentIds, TransactionType.CANCELLATION).keySet();
+
+        BigDecimal available = account.getAvailableBalance();
+        BigDecimal lockedLeft = account.getLockedBalance();
+        BigDecimal total = account.getTotalBalance(); // locking leaves the total unchanged, capturing lowers it
+        BigDecimal toLock = BigDecimal.ZERO;
+        BigDecimal toCapture = BigDecimal.ZERO;
+        List<BankingEvent> events = new ArrayList<>(items.size());
+
+        for (Item item : items) {
+            PaymentAuthorizationRequest request = item.request();
+            String paymentId = request.getPaymentId();
+
+            if (cancelled.contains(paymentId)) {
+                events.add(failure(request, "Payment cancelled"));
+                continue;
+            }
+            // Already captured, before or earlier in this batch
+            Long captureId = captures.get(paymentId);
+            if (captureId != null) {
+                events.add(success(request, "PAYMENT_CAPTURED", captureId));
+                continue;
+            }
+            // Already authorized, before or earlier in this batch
+            Long existingId = authorizations.get(paymentId);
+            if (existingId != null && !capture) {
+                events.add(success(request, "PAYMENT_AUTHORIZED", existingId));
+                continue;
+            }
+            if (request.getAmount() == null || request.getAmount().signum() <= 0) {
+                events.add(failure(request, "Invalid amount"));
+                continue;
+            }
+            if (existingId != null) {
+                // Authorized earlier without capture: take it out of its locked funds
+                if (lockedLeft.compareTo(request.getAmount()) < 0) {
+                    events.add(failure(request, "Insufficient locked balance"));
+                    continue;
+                }
+                captureId = insertCapture(account, request, total);
+                lockedLeft = lockedLeft.subtract(request.getAmount());
+                toCapture = toCapture.add(request.getAmount());
+                total = total.subtract(request.getAmount());
+                captures.put(paymentId, captureId);
+                holdExpiry.settled(paymentId);
+                events.add(success(request, "PAYMENT_CAPTURED", captureId));
+                continue;
+            }
+            if (available.compareTo(request.getAmount()) < 0) {
+                events.add(failure(request, "Insufficient balance"));
+                continue;
+            }
+
+            Optional<Long> transactionId = transactionRepository.insertIfAbsent(BankTransaction.builder()
+                    .accountId(account.getId())
+                    .externalReference(paymentId)
+                    .transactionType(TransactionType.AUTHORIZATION)
+                    .amount(request.getAmount())
+                    .balanceBefore(total)
+                    .balanceAfter(total)
+                    .description("Funds locked for donation payment")
+                    .build());
+            if (transactionId.isEmpty()) {
+                // Authorized concurrently under another account: keep that entry, lock nothing here
+                events.add(capture ? failure(request, "Concurrent authorization")
+                        : transactionRepository.findByExternalReferenceAndTransactionType(paymentId, TransactionType.AUTHORIZATION)
+                                .map(txn -> success(request, "PAYMENT_AUTHORIZED", txn.getId()))
+                                .orElseGet(() -> failure(request, "Concurrent authorization")));
+                continue;
+            }
+
+            available = available.subtract(request.getAmount());
+            toLock = toLock.add(request.getAmount());
+            authorizations.put(paymentId, transactionId.get());
+            if (!capture) {
+                holdExpiry.authorized(paymentId, account.getId(), request.getAmount());
+                events.add(success(request, "PAYMENT_AUTHORIZED", transactionId.get()));
+                continue;
+            }
+
+            captureId = insertCapture(account, request, total);
+            toCapture = toCapture.add(request.getAmount());
+            total = total.subtract(request.getAmount());
+            captures.put(paymentId, captureId);
+            events.add(success(request, "PAYMENT_CAPTURED", captureId));
+        }
+
+        // One balance update for the whole group, flushed at commit
+        if (toLock.signum() > 0) {
+            account.lockFunds(toLock);
+        }
+        if (toCapture.signum() > 0) {
+            account.captureFunds(toCapture);
+        }
+        return events;
+    }
+
+    /**
+     * Ledger entries of one type for the group's payments, keyed by payment ID
+     */
+    private Map<String, Long> ledgerEntries(List<String> paymentIds, TransactionType type) {
+        Map<String, Long> entries = new HashMap<>();
+        transactionRepository.findByExternalReferenceInAndTransactionType(paymentIds, type)
+                .forEach(txn -> entries.put(txn.getExternalReference(), txn.getId()));
+        return entries;
+    }
+
+    /**
+     * Record the capture of an authorized payment; total is the account total before it
+     */
+    private Long insertCapture(BankAccount account, PaymentAuthorizationRequest request, BigDecimal total) {
+        // The AUTHORIZATION is ours under the account lock, so no other capture can exist
+        return transactionRepository.insertIfAbsent(BankTransaction.builder()
+                        .accountId(account.getId())
+                        .externalReference(request.getPaymentId())
+                        .transactionType(TransactionType.CAPTURE)
+                        .amount(request.getAmount())
+                        .balanceBefore(total)
+                        .balanceAfter(total.subtract(request.getAmount()))
+                        .description("Funds captured and transferred to charity")
+                        .build())
+                .orElseThrow(() -> new IllegalStateException("Concurrent capture of PaymentID: " + request.getPaymentId()));
+    }
+
+    private static BankingEvent success(PaymentAuthorizationRequest request, String eventType, Long transactionId) {
+        return BankingEvent.builder()
+                .eventType(eventType)
+                .paymentId(request.getPaymentId())
+                .transactionId(transactionId.toString())
+                .amount(request.getAmount())
+                .status("SUCCESS")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private static BankingEvent failure(PaymentAuthorizationRequest request, String failureReason) {
+        return BankingEvent.builder()
+                .eventType("PAYMENT_FAILED")
+                .paymentId(request.getPaymentId())
+                .amount(request.getAmount())
+                .status("FAILED")
+                .failureReason(failureReason)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * One authorization and its position in the request
+     */
+    private record Item(int index, PaymentAuthorizationRequest request) {
+    }
+}
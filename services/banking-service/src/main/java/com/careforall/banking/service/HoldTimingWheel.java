@@ -0,0 +1,97 @@
+package com.careforall.banking.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hold Timing Wheel
+ *
+ * Hashed timing wheel of open authorization holds keyed by expiry time. Adding,
+ * cancelling and expiring a hold are O(1); each tick only looks at one slot, and a
+ * hold whose expiry is more than one revolution away simply stays in its slot until
+ * the wheel comes round to its tick.
+ *
+ * Holds are cancelled lazily: cancel() drops the payment from the index and the slot
+ * entry is discarded when its tick comes. Thread-safe (all methods synchronized).
+ */
+class HoldTimingWheel {
+
+    /**
+     * An open authorization: amount locked on the account until capture or expiry
+     */
+    record Hold(String paymentId, Long accountId, BigDecimal amount, long expiresAtMillis) {
+    }
+
+    private final long tickMillis;
+    private final ArrayDeque<Hold>[] slots;
+    private final Map<String, Hold> pending = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    HoldTimingWheel(long tickMillis, int slotCount, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayDeque[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new ArrayDeque<>();
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Index a hold; one that is already due expires on the next tick
+     * Re-adding a payment replaces its earlier hold
+     */
+    synchronized void add(Hold hold) {
+        long tick = Math.max(Math.ceilDiv(hold.expiresAtMillis(), tickMillis), currentTick + 1);
+        slots[(int) (tick % slots.length)].add(hold);
+        pending.put(hold.paymentId(), hold);
+    }
+
+    /**
+     * Forget a payment's hold (captured or released elsewhere)
+     */
+    synchronized void cancel(String paymentId) {
+        pending.remove(paymentId);
+    }
+
+    /**
+     * Move the wheel to now and remove every hold that expired on the way
+     */
+    synchronized List<Hold> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        if (targetTick <= currentTick) {
+            return List.of();
+        }
+
+        List<Hold> expired = new ArrayList<>();
+        // After a pause longer than one revolution every slot is visited exactly once
+        long firstTick = Math.max(currentTick + 1, targetTick - slots.length + 1);
+        for (long tick = firstTick; tick <= targetTick; tick++) {
+            Iterator<Hold> slot = slots[(int) (tick % slots.length)].iterator();
+            while (slot.hasNext()) {
+                Hold hold = slot.next();
+                if (pending.get(hold.paymentId()) != hold) {
+                    slot.remove(); // cancelled or replaced
+                } else if (Math.ceilDiv(hold.expiresAtMillis(), tickMillis) <= targetTick) {
+                    slot.remove();
+                    pending.remove(hold.paymentId());
+                    expired.add(hold);
+                }
+            }
+        }
+        currentTick = targetTick;
+        return expired;
+    }
+
+    /**
+     * Number of open (not cancelled) holds
+     */
+    synchronized int size() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,261 @@
+package com.careforall.banking.service;
+
+import com.careforall.banking.dto.LedgerEntry;
+import com.careforall.banking.dto.LedgerMismatch;
+import com.careforall.banking.dto.LedgerVerificationReport;
+import com.careforall.banking.entity.BalanceCheckpoint;
+import com.careforall.banking.entity.BankAccount;
+import com.careforall.banking.repository.BalanceCheckpointRepository;
+import com.careforall.banking.repository.BankAccountRepository;
+import com.careforall.banking.repository.BankTransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Ledger Verifier
+ *
+ * Checks that every account's ledger is a consistent chain: each entry starts at the
+ * previous entry's balanceAfter, moves the balance by exactly its own effect, and the
+ * chain ends at the account's current total balance.
+ *
+ * Verification is incremental. Each account has a balance checkpoint (last verified
+ * entry and the balance there), and a run replays only the entries after it, then
+ * moves the checkpoint forward. Accounts are verified in parallel on a fork-join pool,
+ * each in its own REPEATABLE READ snapshot so the ledger and the account balance are
+ * read at the same point in time.
+ *
+ * Metrics: banking.ledger.verify.entries, .mismatches, .duration, .entries-per-second.
+ */
+@Service
+@Slf4j
+public class LedgerVerifier {
+
+    private final BankAccountRepository accountRepository;
+    private final BankTransactionRepository transactionRepository;
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final TransactionTemplate snapshotTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final ForkJoinPool pool;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final Counter entriesCounter;
+    private final Counter mismatchCounter;
+    private final Timer durationTimer;
+    private final AtomicLong lastEntriesPerSecond = new AtomicLong();
+
+    public LedgerVerifier(BankAccountRepository accountRepository,
+                          BankTransactionRepository transactionRepository,
+                          BalanceCheckpointRepository checkpointRepository,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${banking.ledger.verify.parallelism:0}") int parallelism) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.checkpointRepository = checkpointRepository;
+
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate.setReadOnly(true);
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+
+        this.entriesCounter = Counter.builder("banking.ledger.verify.entries")
+                .description("Ledger entries replayed by the verifier")
+                .register(meterRegistry);
+        this.mismatchCounter = Counter.builder("banking.ledger.verify.mismatches")
+                .description("Accounts whose ledger chain did not add up")
+                .register(meterRegistry);
+        this.durationTimer = Timer.builder("banking.ledger.verify.duration")
+                .description("Duration of a full incremental verification run")
+                .register(meterRegistry);
+        Gauge.builder("banking.ledger.verify.entries-per-second", lastEntriesPerSecond, AtomicLong::get)
+                .description("Replay throughput of the last verification run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Scheduled incremental verification of all accounts
+     */
+    @Scheduled(fixedDelayString = "${banking.ledger.verify.interval-ms:300000}",
+            initialDelayString = "${banking.ledger.verify.interval-ms:300000}")
+    public void scheduledVerification() {
+        if (running.get()) {
+            log.info("Skipping scheduled ledger verification: a run is in progress");
+            return;
+        }
+        try {
+            verifyAll();
+        } catch (RuntimeException e) {
+            log.error("Scheduled ledger verification failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Verify the ledger entries of every account written since its checkpoint
+     *
+     * @throws IllegalStateException if a verification run is already in progress
+     */
+    public LedgerVerificationReport verifyAll() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Ledger verification already running");
+        }
+
+        try {
+            long start = System.nanoTime();
+            List<Long> accountIds = accountRepository.findAllIds();
+            List<AccountResult> results = pool.submit(() -> accountIds.parallelStream()
+                    .map(this::verifyAccount)
+                    .toList()).get();
+            long elapsedNanos = System.nanoTime() - start;
+
+            long entries = 0;
+            int advanced = 0;
+            List<LedgerMismatch> mismatches = new ArrayList<>();
+            for (AccountResult result : results) {
+                entries += result.entries();
+                advanced += result.checkpointAdvanced() ? 1 : 0;
+                result.mismatch().ifPresent(mismatches::add);
+            }
+
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            double entriesPerSecond = seconds > 0 ? entries / seconds : 0;
+            durationTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            lastEntriesPerSecond.set(Math.round(entriesPerSecond));
+
+            if (mismatches.isEmpty()) {
+                log.info("Ledger verified: {} accounts, {} entries in {} ms ({} entries/s)",
+                        accountIds.size(), entries, elapsedNanos / 1_000_000, Math.round(entriesPerSecond));
+            } else {
+                log.error("❌ Ledger verification found {} mismatching accounts: {}", mismatches.size(), mismatches);
+            }
+
+            return LedgerVerificationReport.builder()
+                    .accountsVerified(accountIds.size())
+                    .entriesReplayed(entries)
+                    .checkpointsAdvanced(advanced)
+                    .mismatches(mismatches)
+                    .durationMs(elapsedNanos / 1_000_000)
+                    .entriesPerSecond(entriesPerSecond)
+                    .build();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ledger verification interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ledger verification failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Replay one account's entries after its checkpoint and move the checkpoint to the
+     * last entry that chained correctly
+     */
+    private AccountResult verifyAccount(Long accountId) {
+        AccountResult result = snapshotTemplate.execute(status -> replay(accountId));
+
+        if (result.checkpointAdvanced()) {
+            writeTemplate.executeWithoutResult(status -> checkpointRepository.save(BalanceCheckpoint.builder()
+                    .accountId(accountId)
+                    .lastTransactionId(result.lastTransactionId())
+                    .balance(result.balance())
+                    .verifiedAt(LocalDateTime.now())
+                    .build()));
+        }
+        entriesCounter.increment(result.entries());
+        result.mismatch().ifPresent(mismatch -> mismatchCounter.increment());
+        return result;
+    }
+
+    private AccountResult replay(Long accountId) {
+        Optional<BalanceCheckpoint> checkpoint = checkpointRepository.findById(accountId);
+        long checkpointId = checkpoint.map(BalanceCheckpoint::getLastTransactionId).orElse(0L);
+        // Without a checkpoint the chain starts wherever the first entry says it does
+        BigDecimal balance = checkpoint.map(BalanceCheckpoint::getBalance).orElse(null);
+        long lastId = checkpointId;
+        long entries = 0;
+
+        try (Stream<LedgerEntry> stream = transactionRepository.streamLedgerEntriesAfter(accountId, checkpointId)) {
+            Iterator<LedgerEntry> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                LedgerEntry entry = iterator.next();
+                entries++;
+
+                if (balance != null && entry.balanceBefore().compareTo(balance) != 0) {
+                    return new AccountResult(accountId, entries, lastId, balance, lastId > checkpointId,
+                            Optional.of(mismatch(accountId, entry.id(), LedgerMismatch.CHAIN_BREAK, balance, entry.balanceBefore())));
+                }
+                BigDecimal expected = entry.balanceBefore().add(entry.transactionType().balanceDelta(entry.amount()));
+                if (entry.balanceAfter().compareTo(expected) != 0) {
+                    return new AccountResult(accountId, entries, lastId, balance, lastId > checkpointId,
+                            Optional.of(mismatch(accountId, entry.id(), LedgerMismatch.BAD_DELTA, expected, entry.balanceAfter())));
+                }
+
+                balance = entry.balanceAfter();
+                lastId = entry.id();
+            }
+        }
+
+        Optional<LedgerMismatch> mismatch = Optional.empty();
+        if (balance != null) {
+            BigDecimal actual = accountRepository.findById(accountId)
+                    .map(BankAccount::getTotalBalance)
+                    .orElse(null);
+            if (actual == null || actual.compareTo(balance) != 0) {
+                mismatch = Optional.of(mismatch(accountId, lastId, LedgerMismatch.ACCOUNT_BALANCE, balance, actual));
+            }
+        }
+        return new AccountResult(accountId, entries, lastId, balance, lastId > checkpointId, mismatch);
+    }
+
+    private static LedgerMismatch mismatch(Long accountId, Long transactionId, String type,
+                                           BigDecimal expected, BigDecimal actual) {
+        return LedgerMismatch.builder()
+                .accountId(accountId)
+                .transactionId(transactionId)
+                .type(type)
+                .expected(expected)
+                .actual(actual)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Outcome of verifying one account
+     *
+     * @param lastTransactionId last entry that chained correctly (the new checkpoint)
+     * @param balance           total balance after that entry
+     */
+    private record AccountResult(Long accountId, long entries, long lastTransactionId, BigDecimal balance,
+                                 boolean checkpointAdvanced, Optional<LedgerMismatch> mismatch) {
+    }
+}
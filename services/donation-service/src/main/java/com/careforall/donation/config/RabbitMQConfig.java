@@ -1,10 +1,12 @@
 package com.careforall.donation.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -31,6 +33,17 @@ public class RabbitMQConfig {
     public static final String DONATION_FAILED_ROUTING_KEY = "donation.failed";
     public static final String DONATION_REFUNDED_ROUTING_KEY = "donation.refunded";
 
+    // Payment results from payment-service (inbound)
+    public static final String PAYMENT_EXCHANGE = "payment.exchange";
+    public static final String PAYMENT_RESULT_QUEUE = "donation.payment-result.queue";
+    public static final String PAYMENT_COMPLETED_ROUTING_KEY = "payment.completed";
+    public static final String PAYMENT_FAILED_ROUTING_KEY = "payment.failed";
+
+    // Payment results that cannot be applied
+    public static final String PAYMENT_RESULT_DLX = "donation.payment-result.dlx";
+    public static final String PAYMENT_RESULT_DLQ = "donation.payment-result.dlq";
+    public static final String PAYMENT_RESULT_DEAD_ROUTING_KEY = "payment.result.dead";
+
     /**
      * Declare donation exchange
      */
@@ -115,6 +128,95 @@ public class RabbitMQConfig {
             .with(DONATION_REFUNDED_ROUTING_KEY);
     }
 
+    /**
+     * Declare payment exchange (owned by payment-service, declared here so binding succeeds on startup)
+     */
+    @Bean
+    public TopicExchange paymentExchange() {
+        return new TopicExchange(PAYMENT_EXCHANGE);
+    }
+
+    /**
+     * Declare payment result queue consumed by donation-service
+     * Rejected messages are dead-lettered to the payment result DLQ
+     */
+    @Bean
+    public Queue paymentResultQueue() {
+        return QueueBuilder.durable(PAYMENT_RESULT_QUEUE)
+            .withArgument("x-dead-letter-exchange", PAYMENT_RESULT_DLX)
+            .withArgument("x-dead-letter-routing-key", PAYMENT_RESULT_DEAD_ROUTING_KEY)
+            .build();
+    }
+
+    /**
+     * Declare dead letter exchange for payment results
+     */
+    @Bean
+    public TopicExchange paymentResultDeadLetterExchange() {
+        return new TopicExchange(PAYMENT_RESULT_DLX);
+    }
+
+    /**
+     * Declare dead letter queue holding payment results that could not be applied
+     */
+    @Bean
+    public Queue paymentResultDeadLetterQueue() {
+        return new Queue(PAYMENT_RESULT_DLQ, true);
+    }
+
+    /**
+     * Bind payment result DLQ to the dead letter exchange
+     */
+    @Bean
+    public Binding paymentResultDeadLetterBinding() {
+        return BindingBuilder
+            .bind(paymentResultDeadLetterQueue())
+            .to(paymentResultDeadLetterExchange())
+            .with(PAYMENT_RESULT_DEAD_ROUTING_KEY);
+    }
+
+    /**
+     * Bind payment result queue to payment completed events
+     */
+    @Bean
+    public Binding paymentCompletedBinding() {
+        return BindingBuilder
+            .bind(paymentResultQueue())
+            .to(paymentExchange())
+            .with(PAYMENT_COMPLETED_ROUTING_KEY);
+    }
+
+    /**
+     * Bind payment result queue to payment failed events
+     */
+    @Bean
+    public Binding paymentFailedBinding() {
+        return BindingBuilder
+            .bind(paymentResultQueue())
+            .to(paymentExchange())
+            .with(PAYMENT_FAILED_ROUTING_KEY);
+    }
+
+    /**
+     * Batch listener container for payment results
+     * Delivers up to batch-size messages per poll; a partial batch is released after receive-timeout.
+     * Messages are acked only after the listener (and its transaction) returns.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory paymentResultBatchContainerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${donation.payment-results.batch-size:50}") int batchSize,
+            @Value("${donation.payment-results.receive-timeout-ms:1000}") long receiveTimeout) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(batchSize);
+        factory.setReceiveTimeout(receiveTimeout);
+        return factory;
+    }
+
     /**
      * JSON message converter
      */
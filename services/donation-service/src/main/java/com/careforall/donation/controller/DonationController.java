@@ -1,15 +1,20 @@
 package com.careforall.donation.controller;
 
+import com.careforall.donation.dto.CampaignStatsResponse;
 import com.careforall.donation.dto.CreateDonationRequest;
+import com.careforall.donation.dto.DonationPage;
 import com.careforall.donation.dto.DonationResponse;
+import com.careforall.donation.service.CampaignStatsService;
 import com.careforall.donation.service.DonationService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -30,6 +35,9 @@ public class DonationController {
     @Autowired
     private DonationService donationService;
 
+    @Autowired
+    private CampaignStatsService campaignStatsService;
+
     /**
      * Create a new donation
      * Requires authentication - user ID comes from JWT header
@@ -101,25 +109,98 @@ public class DonationController {
     }
 
     /**
-     * Refund a donation
+     * Get one page of the authenticated user's donations (keyset pagination)
+     */
+    @GetMapping("/user/page")
+    public ResponseEntity<?> getUserDonationsPage(
+        @RequestHeader("X-User-Id") String userId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
+    ) {
+        try {
+            DonationPage page = donationService.getUserDonationsPage(Long.parseLong(userId), cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            logger.error("Failed to get user donations page: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Get one page of a campaign's donations (keyset pagination)
+     */
+    @GetMapping("/campaign/{campaignId}/page")
+    public ResponseEntity<?> getCampaignDonationsPage(
+        @PathVariable Long campaignId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
+    ) {
+        try {
+            DonationPage page = donationService.getCampaignDonationsPage(campaignId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            logger.error("Failed to get campaign donations page: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Export all of the authenticated user's donations as NDJSON
+     * Rows are streamed from the database, so memory use does not depend on result size
+     */
+    @GetMapping(value = "/user/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUserDonations(@RequestHeader("X-User-Id") String userId) {
+        long parsedUserId = Long.parseLong(userId);
+        StreamingResponseBody body = out -> {
+            long count = donationService.exportUserDonations(parsedUserId, out);
+            logger.info("Exported {} donations for user {}", count, parsedUserId);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Export all donations for a campaign as NDJSON
+     * Rows are streamed from the database, so memory use does not depend on result size
+     */
+    @GetMapping(value = "/campaign/{campaignId}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCampaignDonations(@PathVariable Long campaignId) {
+        StreamingResponseBody body = out -> {
+            long count = donationService.exportCampaignDonations(campaignId, out);
+            logger.info("Exported {} donations for campaign {}", count, campaignId);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Get aggregate stats for a campaign (captured donations only)
+     * Served from the materialized campaign_donation_stats row
+     */
+    @GetMapping("/campaign/{campaignId}/stats")
+    public ResponseEntity<CampaignStatsResponse> getCampaignStats(@PathVariable Long campaignId) {
+        return ResponseEntity.ok(campaignStatsService.getCampaignStats(campaignId));
+    }
+
+    /**
+     * Mark a donation refunded (ADMIN only)
+     * Bookkeeping correction for a refund made outside the platform; no money is moved
      */
-    // Refund functionality not implemented yet
-    // TODO: Implement refundDonation in DonationService
-    /*
     @PostMapping("/{donationId}/refund")
     public ResponseEntity<?> refundDonation(
-        @PathVariable Long donationId,
-        @RequestHeader("X-User-Id") String userId
+        @PathVariable UUID donationId,
+        @RequestHeader(value = "X-User-Role", required = false) String userRole
     ) {
+        if (!"ADMIN".equals(userRole)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(errorResponse("Only admins can record refunds"));
+        }
         try {
-            DonationResponse donation = donationService.refundDonation(donationId, Long.parseLong(userId));
+            DonationResponse donation = donationService.refundDonation(donationId);
             return ResponseEntity.ok(donation);
         } catch (Exception e) {
             logger.error("Failed to refund donation: {}", e.getMessage());
             return ResponseEntity.badRequest().body(errorResponse(e.getMessage()));
         }
     }
-    */
 
     /**
      * Health check endpoint
@@ -0,0 +1,85 @@
+package com.careforall.donation.controller;
+
+import com.careforall.donation.outbox.DeadLetterNotFoundException;
+import com.careforall.donation.outbox.OutboxDeadLetter;
+import com.careforall.donation.outbox.OutboxEvent;
+import com.careforall.donation.outbox.OutboxPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outbox Admin Controller
+ *
+ * Admin endpoints for inspecting the outbox backlog and replaying dead-lettered events.
+ */
+@RestController
+@RequestMapping("/api/donations/admin/outbox")
+public class OutboxAdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxAdminController.class);
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    /**
+     * Outbox backlog summary
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Long>> stats() {
+        Map<String, Long> response = new HashMap<>();
+        response.put("pending", outboxPublisher.getPendingEventsCount());
+        response.put("deadLettered", outboxPublisher.getFailedEventsCount());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * List dead letters awaiting replay
+     */
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<OutboxDeadLetter>> getDeadLetters() {
+        return ResponseEntity.ok(outboxPublisher.getDeadLetters());
+    }
+
+    /**
+     * Replay a dead letter back into the outbox
+     */
+    @PostMapping("/dead-letters/{deadLetterId}/replay")
+    public ResponseEntity<?> replayDeadLetter(@PathVariable Long deadLetterId) {
+        try {
+            OutboxEvent event = outboxPublisher.replayDeadLetter(deadLetterId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("deadLetterId", deadLetterId);
+            response.put("outboxEventId", event.getId());
+            response.put("eventType", event.getEventType());
+            response.put("status", event.getStatus().name());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (DeadLetterNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            logger.warn("Dead letter {} not replayed: {}", deadLetterId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Failed to replay dead letter {}: {}", deadLetterId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(errorResponse("Failed to replay dead letter " + deadLetterId));
+        }
+    }
+
+    /**
+     * Helper method to create error response
+     */
+    private Map<String, String> errorResponse(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        return error;
+    }
+}
@@ -0,0 +1,44 @@
+package com.careforall.donation.dto;
+
+import com.careforall.donation.entity.Donation;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Donation Cursor
+ *
+ * Opaque keyset position (createdAt, id) of the last row on a page.
+ * Encoded as URL-safe Base64 so clients treat it as an opaque token.
+ */
+public record DonationCursor(LocalDateTime createdAt, UUID id) {
+
+    public static DonationCursor of(Donation donation) {
+        return new DonationCursor(donation.getCreatedAt(), donation.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor produced by {@link #encode()}
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static DonationCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new DonationCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                UUID.fromString(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.careforall.donation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Donation Page DTO
+ *
+ * One page of a keyset-paginated donation listing.
+ * Pass nextCursor back as ?cursor= to fetch the following page; it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonationPage {
+
+    private List<DonationResponse> items;
+    private String nextCursor;
+    private int limit;
+}
@@ -0,0 +1,66 @@
+package com.careforall.donation.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Campaign Donation Stats Entity
+ *
+ * Materialized aggregates of CAPTURED donations per campaign, updated in the same
+ * transaction as the capture/refund that changes them, so reads are a primary-key lookup.
+ *
+ * - totalAmount / donationCount are exact
+ * - donorCount is a HyperLogLog estimate of distinct donor emails (donorSketch)
+ * - lastRecountAt is set by the exact-recount repair job
+ */
+@Entity
+@Table(name = "campaign_donation_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CampaignDonationStats {
+
+    @Id
+    @Column(name = "campaign_id")
+    private Long campaignId;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    @Builder.Default
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "donation_count", nullable = false)
+    @Builder.Default
+    private Long donationCount = 0L;
+
+    /**
+     * Estimated distinct donors, refreshed from donorSketch on every write
+     */
+    @Column(name = "donor_count", nullable = false)
+    @Builder.Default
+    private Long donorCount = 0L;
+
+    /**
+     * Serialized HyperLogLog registers over lower-cased donor emails
+     */
+    @Column(name = "donor_sketch", nullable = false, length = 4096)
+    private byte[] donorSketch;
+
+    @Column(name = "last_recount_at")
+    private LocalDateTime lastRecountAt;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
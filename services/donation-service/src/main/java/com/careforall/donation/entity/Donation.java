@@ -17,15 +17,15 @@ import java.util.UUID;
  *
  * Supports:
  * - Guest donations (userId can be NULL)
- * - State machine: CREATED -> AUTHORIZED -> CAPTURED
+ * - State machine: CREATED -> AUTHORIZED -> CAPTURED (or FAILED), CAPTURED -> REFUNDED
  * - Idempotency via transaction_id
  * - Optimistic locking with @Version
  */
 @Entity
 @Table(name = "donations", indexes = {
-    @Index(name = "idx_donation_campaign", columnList = "campaign_id"),
-    @Index(name = "idx_donation_user", columnList = "user_id"),
-    @Index(name = "idx_donation_email", columnList = "donor_email"),
+    @Index(name = "idx_donation_campaign_created", columnList = "campaign_id, created_at, id"),
+    @Index(name = "idx_donation_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_donation_email_user", columnList = "donor_email, user_id"),
     @Index(name = "idx_donation_transaction", columnList = "transaction_id")
 })
 @Data
@@ -140,6 +140,20 @@ public class Donation {
         this.completedAt = LocalDateTime.now();
     }
 
+    public void fail() {
+        if (this.status != DonationStatus.CREATED && this.status != DonationStatus.AUTHORIZED) {
+            throw new IllegalStateException("Cannot fail donation in state: " + this.status);
+        }
+        this.status = DonationStatus.FAILED;
+    }
+
+    public void refund() {
+        if (this.status != DonationStatus.CAPTURED) {
+            throw new IllegalStateException("Cannot refund donation in state: " + this.status);
+        }
+        this.status = DonationStatus.REFUNDED;
+    }
+
     /**
      * Check if donation is from guest user
      */
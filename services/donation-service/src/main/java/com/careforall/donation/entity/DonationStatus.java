@@ -7,6 +7,8 @@ package com.careforall.donation.entity;
  * CREATED: User clicked "Donate", order created, not yet paid
  * AUTHORIZED: Payment authorized, money on hold
  * CAPTURED: Money transferred to charity account (final state)
+ * FAILED: Payment was declined or could not be processed (final state)
+ * REFUNDED: Captured donation returned to the donor (final state)
  *
  * Invalid Transitions (Rejected by State Machine):
  * - CAPTURED -> AUTHORIZED (backward move)
@@ -29,5 +31,17 @@ public enum DonationStatus {
      * Final state: Money successfully transferred
      * Donation is complete
      */
-    CAPTURED
+    CAPTURED,
+
+    /**
+     * Final state: Payment failed (declined, insufficient funds, etc.)
+     * Reachable from CREATED or AUTHORIZED only
+     */
+    FAILED,
+
+    /**
+     * Final state: Captured donation was refunded
+     * Reachable from CAPTURED only
+     */
+    REFUNDED
 }
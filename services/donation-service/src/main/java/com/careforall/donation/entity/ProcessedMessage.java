@@ -0,0 +1,47 @@
+package com.careforall.donation.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Processed Message Entity
+ *
+ * Dedupe table for inbound broker messages. A row is inserted in the same
+ * transaction that applies the message, so a redelivered message is skipped.
+ */
+@Entity
+@Table(name = "processed_messages")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedMessage implements Persistable<String> {
+
+    @Id
+    @Column(name = "message_key", length = 255)
+    private String messageKey;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+
+    public static ProcessedMessage of(String messageKey) {
+        return new ProcessedMessage(messageKey, LocalDateTime.now());
+    }
+
+    /**
+     * Rows are insert-only, so skip the merge SELECT on save
+     */
+    @Override
+    public String getId() {
+        return messageKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -81,4 +81,40 @@ public class DonationEvent {
             LocalDateTime.now()
         );
     }
+
+    /**
+     * Create a DONATION_FAILED event
+     */
+    public static DonationEvent failed(String donationId, Long campaignId, Long userId,
+                                      String donorEmail, BigDecimal amount) {
+        return new DonationEvent(
+            donationId,
+            campaignId,
+            userId,
+            donorEmail,
+            amount,
+            "FAILED",
+            null,
+            "DONATION_FAILED",
+            LocalDateTime.now()
+        );
+    }
+
+    /**
+     * Create a DONATION_REFUNDED event
+     */
+    public static DonationEvent refunded(String donationId, Long campaignId, Long userId,
+                                        String donorEmail, BigDecimal amount, String transactionId) {
+        return new DonationEvent(
+            donationId,
+            campaignId,
+            userId,
+            donorEmail,
+            amount,
+            "REFUNDED",
+            transactionId,
+            "DONATION_REFUNDED",
+            LocalDateTime.now()
+        );
+    }
 }
@@ -0,0 +1,48 @@
+package com.careforall.donation.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Payment Result Event
+ *
+ * Event received from payment-service on payment.completed / payment.failed.
+ * Drives the donation state machine (CREATED -> AUTHORIZED -> CAPTURED, or FAILED).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PaymentResultEvent {
+
+    public static final String STATUS_CAPTURED = "CAPTURED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private String paymentId;
+    private String donationId; // Donation UUID as String
+    private Long userId;
+    private BigDecimal amount;
+    private String status;     // CAPTURED or FAILED
+    private LocalDateTime timestamp;
+
+    /**
+     * Key used to deduplicate redelivered messages
+     * A payment publishes at most one result per status
+     */
+    public String messageKey() {
+        return "payment:" + paymentId + ":" + status;
+    }
+
+    public boolean isCaptured() {
+        return STATUS_CAPTURED.equals(status);
+    }
+
+    public boolean isFailed() {
+        return STATUS_FAILED.equals(status);
+    }
+}
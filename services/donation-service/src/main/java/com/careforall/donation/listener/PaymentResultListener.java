@@ -0,0 +1,128 @@
+package com.careforall.donation.listener;
+
+import com.careforall.donation.config.RabbitMQConfig;
+import com.careforall.donation.event.PaymentResultEvent;
+import com.careforall.donation.service.DonationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Payment Result Listener
+ *
+ * Consumes payment.completed / payment.failed events from payment-service and
+ * drives the donation state machine (CREATED -> AUTHORIZED -> CAPTURED, or FAILED).
+ *
+ * Messages arrive in batches; each batch is applied in a single transaction.
+ * If the batch fails (e.g. an optimistic lock conflict on one donation), the
+ * messages are retried one by one, up to max-attempts each, so a single conflict
+ * does not block the rest. A result that still fails is dead-lettered to
+ * donation.payment-result.dlq, unless the failure is a transient database fault:
+ * then the batch is requeued, as no other result could be applied either.
+ * Redeliveries are harmless: every applied message is recorded in processed_messages.
+ */
+@Component
+public class PaymentResultListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentResultListener.class);
+
+    @Autowired
+    private DonationService donationService;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${donation.payment-results.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @RabbitListener(queues = RabbitMQConfig.PAYMENT_RESULT_QUEUE,
+                    containerFactory = "paymentResultBatchContainerFactory")
+    public void handlePaymentResults(List<Message> messages) {
+        List<Message> readable = new ArrayList<>(messages.size());
+        List<PaymentResultEvent> events = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            try {
+                events.add(objectMapper.readValue(message.getBody(), PaymentResultEvent.class));
+                readable.add(message);
+            } catch (Exception e) {
+                // Malformed payloads can never succeed - drop them rather than requeue the batch
+                logger.error("Discarding unreadable payment result: {}", e.getMessage());
+            }
+        }
+
+        if (events.isEmpty()) {
+            return;
+        }
+
+        try {
+            donationService.applyPaymentResults(events);
+        } catch (Exception e) {
+            logger.warn("Batch of {} payment results failed ({}), retrying individually",
+                events.size(), e.getMessage());
+
+            // Results that already succeeded are skipped on redelivery
+            for (int i = 0; i < events.size(); i++) {
+                applyIndividually(events.get(i), readable.get(i));
+            }
+        }
+    }
+
+    /**
+     * Apply one result, up to max-attempts times
+     * A transient database fault propagates so the container requeues the batch;
+     * any other failure dead-letters the result and lets the batch complete.
+     */
+    private void applyIndividually(PaymentResultEvent event, Message message) {
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                donationService.applyPaymentResults(List.of(event));
+                return;
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        if (isTransient(failure)) {
+            throw failure;
+        }
+        logger.error("Payment result {} for donation {} failed {} times, dead-lettering it: {}",
+            event.getPaymentId(), event.getDonationId(), maxAttempts, failure.getMessage(), failure);
+        rabbitTemplate.send(RabbitMQConfig.PAYMENT_RESULT_DLX, RabbitMQConfig.PAYMENT_RESULT_DEAD_ROUTING_KEY, message);
+    }
+
+    /**
+     * Database unreachable, timed out or in a lock conflict: worth redelivering
+     */
+    static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,11 @@
+package com.careforall.donation.outbox;
+
+/**
+ * Thrown when a dead letter id does not exist
+ */
+public class DeadLetterNotFoundException extends RuntimeException {
+
+    public DeadLetterNotFoundException(Long deadLetterId) {
+        super("Dead letter not found with ID: " + deadLetterId);
+    }
+}
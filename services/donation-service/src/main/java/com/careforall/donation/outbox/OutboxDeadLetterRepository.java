@@ -0,0 +1,25 @@
+package com.careforall.donation.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Outbox Dead Letter Repository
+ *
+ * Data access layer for OutboxDeadLetter entity.
+ */
+@Repository
+public interface OutboxDeadLetterRepository extends JpaRepository<OutboxDeadLetter, Long> {
+
+    /**
+     * Find dead letters that have not been replayed yet, oldest first
+     */
+    List<OutboxDeadLetter> findByReplayedAtIsNullOrderByDeadLetteredAtAsc();
+
+    /**
+     * Count dead letters that have not been replayed yet
+     */
+    long countByReplayedAtIsNull();
+}
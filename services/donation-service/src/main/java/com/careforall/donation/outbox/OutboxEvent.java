@@ -16,7 +16,9 @@ import java.time.LocalDateTime;
  * then asynchronously published to the message broker.
  */
 @Entity
-@Table(name = "outbox_events")
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -75,6 +77,12 @@ public class OutboxEvent {
     @Column(nullable = false)
     private Integer retryCount = 0;
 
+    /**
+     * Earliest time the event may be picked up again after a failed publish.
+     * NULL means the event is eligible immediately.
+     */
+    private LocalDateTime nextAttemptAt;
+
     /**
      * Error message if processing failed
      */
@@ -122,6 +130,15 @@ public class OutboxEvent {
         this.processedAt = LocalDateTime.now();
     }
 
+    /**
+     * Put the event back into the queue, not to be retried before the given time
+     */
+    public void scheduleRetry(LocalDateTime nextAttemptAt, String errorMessage) {
+        this.status = EventStatus.PENDING;
+        this.nextAttemptAt = nextAttemptAt;
+        this.errorMessage = errorMessage;
+    }
+
     /**
      * Increment retry count
      */
@@ -2,9 +2,12 @@ package com.careforall.donation.outbox;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Outbox Event Repository
@@ -21,10 +24,16 @@ public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>
 
     /**
      * Find pending events that need to be published
-     * Includes failed events with retry count less than max retries
+     * Events waiting out a retry backoff are skipped until nextAttemptAt has passed
      */
-    @Query("SELECT e FROM OutboxEvent e WHERE e.status = 'PENDING' OR (e.status = 'FAILED' AND e.retryCount < 3) ORDER BY e.createdAt ASC")
-    List<OutboxEvent> findPendingEvents();
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = 'PENDING' " +
+           "AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) ORDER BY e.createdAt ASC")
+    List<OutboxEvent> findPendingEvents(@Param("now") LocalDateTime now);
+
+    /**
+     * Find the oldest event still waiting to be published (for outbox age monitoring)
+     */
+    Optional<OutboxEvent> findFirstByStatusOrderByCreatedAtAsc(OutboxEvent.EventStatus status);
 
     /**
      * Count events by status
@@ -2,44 +2,142 @@ package com.careforall.donation.outbox;
 
 import com.careforall.donation.config.RabbitMQConfig;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Outbox Publisher
  *
  * Scheduled task that polls the outbox table and publishes pending events to RabbitMQ.
  * Runs every 5 seconds to ensure eventual consistency.
+ *
+ * Failed publishes are retried with jittered exponential backoff (via nextAttemptAt),
+ * so a broker outage does not turn into a retry storm. Events that exhaust their
+ * retries are moved to the dead-letter table, from where they can be replayed.
+ *
+ * Outbox rows left FAILED by earlier versions (which kept exhausted events in the
+ * outbox) are migrated once at startup, see migrateFailedEvents.
  */
 @Service
 public class OutboxPublisher {
 
     private static final Logger logger = LoggerFactory.getLogger(OutboxPublisher.class);
-    private static final int MAX_RETRIES = 3;
+
+    @Value("${outbox.retry.max-attempts:5}")
+    private int maxRetries = 5;
+
+    @Value("${outbox.retry.base-delay-ms:5000}")
+    private long baseDelayMs = 5000;
+
+    @Value("${outbox.retry.max-delay-ms:300000}")
+    private long maxDelayMs = 300000;
 
     @Autowired
     private OutboxEventRepository outboxEventRepository;
 
+    @Autowired
+    private OutboxDeadLetterRepository deadLetterRepository;
+
     @Autowired
     private RabbitTemplate rabbitTemplate;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter publishedCounter;
+    private Counter retryCounter;
+    private Counter deadLetterCounter;
+    private Timer publishLagTimer;
+    private final AtomicLong pendingGauge = new AtomicLong();
+    private final AtomicLong oldestPendingAgeSeconds = new AtomicLong();
+
+    /**
+     * Register outbox metrics
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        publishedCounter = Counter.builder("outbox.events.published")
+            .description("Outbox events successfully published to the broker")
+            .register(meterRegistry);
+        retryCounter = Counter.builder("outbox.events.retries")
+            .description("Failed publish attempts that were scheduled for retry")
+            .register(meterRegistry);
+        deadLetterCounter = Counter.builder("outbox.events.dead_lettered")
+            .description("Outbox events moved to the dead-letter table")
+            .register(meterRegistry);
+        publishLagTimer = Timer.builder("outbox.events.publish.lag")
+            .description("Time between outbox event creation and successful publish")
+            .register(meterRegistry);
+        Gauge.builder("outbox.events.pending", pendingGauge, AtomicLong::get)
+            .description("Outbox events waiting to be published")
+            .register(meterRegistry);
+        Gauge.builder("outbox.events.oldest.age.seconds", oldestPendingAgeSeconds, AtomicLong::get)
+            .description("Age of the oldest pending outbox event")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Migrate FAILED outbox rows written before the dead-letter table existed
+     * Rows with retries left go back to PENDING, as the old relay still retried them;
+     * the rest are moved to the dead-letter table, where they can be replayed.
+     * Nothing writes FAILED outbox rows any more, so later runs find none.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void migrateFailedEvents() {
+        List<OutboxEvent> failedEvents = outboxEventRepository
+            .findByStatusOrderByCreatedAtAsc(OutboxEvent.EventStatus.FAILED);
+        if (failedEvents.isEmpty()) {
+            return;
+        }
+
+        int requeued = 0;
+        for (OutboxEvent event : failedEvents) {
+            if (event.getRetryCount() < maxRetries) {
+                event.scheduleRetry(null, event.getErrorMessage());
+                outboxEventRepository.save(event);
+                requeued++;
+            } else {
+                deadLetterRepository.save(OutboxDeadLetter.from(event));
+                outboxEventRepository.delete(event);
+            }
+        }
+        logger.info("Migrated {} FAILED outbox events: {} requeued, {} dead-lettered",
+            failedEvents.size(), requeued, failedEvents.size() - requeued);
+    }
+
     /**
      * Scheduled task that runs every 5 seconds to publish pending events
      */
     @Scheduled(fixedDelay = 5000, initialDelay = 10000)
     @Transactional
     public void publishPendingEvents() {
-        List<OutboxEvent> pendingEvents = outboxEventRepository.findPendingEvents();
+        LocalDateTime now = LocalDateTime.now();
+        updateBacklogGauges(now);
+
+        List<OutboxEvent> pendingEvents = outboxEventRepository.findPendingEvents(now);
 
         if (pendingEvents.isEmpty()) {
             return;
@@ -84,6 +182,11 @@ public class OutboxPublisher {
             event.markAsPublished();
             outboxEventRepository.save(event);
 
+            publishedCounter.increment();
+            if (event.getCreatedAt() != null) {
+                publishLagTimer.record(Duration.between(event.getCreatedAt(), event.getProcessedAt()));
+            }
+
             logger.info("Successfully published event {} - {} to {}",
                 event.getId(), event.getEventType(), routingKey);
 
@@ -97,20 +200,51 @@ public class OutboxPublisher {
 
     /**
      * Handle event publishing failure
+     * Schedules a backed-off retry, or dead-letters the event once retries are exhausted
      */
     private void handlePublishFailure(OutboxEvent event, Exception e) {
         event.incrementRetryCount();
+        String errorMessage = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
 
-        if (event.getRetryCount() >= MAX_RETRIES) {
-            event.markAsFailed(e.getMessage());
-            logger.error("Event {} failed after {} retries. Moving to FAILED status.",
-                event.getId(), MAX_RETRIES);
-        } else {
-            event.setStatus(OutboxEvent.EventStatus.PENDING);
-            logger.warn("Event {} failed, retry count: {}", event.getId(), event.getRetryCount());
+        if (event.getRetryCount() >= maxRetries) {
+            event.markAsFailed(errorMessage);
+            deadLetterRepository.save(OutboxDeadLetter.from(event));
+            outboxEventRepository.delete(event);
+            deadLetterCounter.increment();
+            logger.error("Event {} failed after {} retries. Moved to dead-letter table.",
+                event.getId(), event.getRetryCount());
+            return;
         }
 
+        Duration delay = calculateBackoff(event.getRetryCount());
+        event.scheduleRetry(LocalDateTime.now().plus(delay), errorMessage);
         outboxEventRepository.save(event);
+        retryCounter.increment();
+
+        logger.warn("Event {} failed, retry count: {}, next attempt in {} ms",
+            event.getId(), event.getRetryCount(), delay.toMillis());
+    }
+
+    /**
+     * Exponential backoff with jitter: random delay in [base/2, min(max, base * 2^(attempt-1))]
+     * Jitter spreads retries from a broker outage instead of firing them all on one tick.
+     */
+    Duration calculateBackoff(int attempt) {
+        int exponent = Math.min(Math.max(attempt - 1, 0), 20);
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << exponent);
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        return Duration.ofMillis(Math.max(delay, baseDelayMs / 2));
+    }
+
+    /**
+     * Refresh the backlog gauges (pending count and age of the oldest pending event)
+     */
+    private void updateBacklogGauges(LocalDateTime now) {
+        pendingGauge.set(outboxEventRepository.countByStatus(OutboxEvent.EventStatus.PENDING));
+        oldestPendingAgeSeconds.set(outboxEventRepository
+            .findFirstByStatusOrderByCreatedAtAsc(OutboxEvent.EventStatus.PENDING)
+            .map(oldest -> Duration.between(oldest.getCreatedAt(), now).getSeconds())
+            .orElse(0L));
     }
 
     /**
@@ -126,6 +260,37 @@ public class OutboxPublisher {
         };
     }
 
+    /**
+     * List dead letters that have not been replayed yet
+     */
+    @Transactional(readOnly = true)
+    public List<OutboxDeadLetter> getDeadLetters() {
+        return deadLetterRepository.findByReplayedAtIsNullOrderByDeadLetteredAtAsc();
+    }
+
+    /**
+     * Replay a dead letter: re-enqueue its payload as a fresh PENDING outbox event
+     *
+     * @return the new outbox event
+     */
+    @Transactional
+    public OutboxEvent replayDeadLetter(Long deadLetterId) {
+        OutboxDeadLetter deadLetter = deadLetterRepository.findById(deadLetterId)
+            .orElseThrow(() -> new DeadLetterNotFoundException(deadLetterId));
+
+        if (deadLetter.isReplayed()) {
+            throw new IllegalStateException("Dead letter " + deadLetterId + " was already replayed at " + deadLetter.getReplayedAt());
+        }
+
+        OutboxEvent replayed = outboxEventRepository.save(deadLetter.toOutboxEvent());
+        deadLetter.markAsReplayed();
+        deadLetterRepository.save(deadLetter);
+
+        logger.info("Replayed dead letter {} as outbox event {} ({})",
+            deadLetterId, replayed.getId(), deadLetter.getEventType());
+        return replayed;
+    }
+
     /**
      * Get pending events count for monitoring
      */
@@ -135,8 +300,9 @@ public class OutboxPublisher {
 
     /**
      * Get failed events count for monitoring
+     * Failed events live in the dead-letter table until replayed
      */
     public long getFailedEventsCount() {
-        return outboxEventRepository.countByStatus(OutboxEvent.EventStatus.FAILED);
+        return deadLetterRepository.countByReplayedAtIsNull();
     }
 }
@@ -0,0 +1,48 @@
+package com.careforall.donation.repository;
+
+import com.careforall.donation.entity.CampaignDonationStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Campaign Donation Stats Repository
+ *
+ * Data access layer for CampaignDonationStats entity.
+ */
+@Repository
+public interface CampaignDonationStatsRepository extends JpaRepository<CampaignDonationStats, Long> {
+
+    /**
+     * Load a campaign's stats row with a row lock (SELECT ... FOR UPDATE)
+     * Serializes concurrent captures/refunds/recounts for the same campaign
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CampaignDonationStats s WHERE s.campaignId = :campaignId")
+    Optional<CampaignDonationStats> findByIdForUpdate(@Param("campaignId") Long campaignId);
+
+    /**
+     * Create a campaign's empty stats row unless it already exists
+     * Concurrent first captures of a campaign all succeed; only one row is inserted
+     *
+     * @return 1 if the row was inserted, 0 if it already existed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO campaign_donation_stats (campaign_id, total_amount, donation_count, donor_count, " +
+           "donor_sketch, version, updated_at) VALUES (:campaignId, 0, 0, 0, :donorSketch, 0, LOCALTIMESTAMP) " +
+           "ON CONFLICT (campaign_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("campaignId") Long campaignId, @Param("donorSketch") byte[] donorSketch);
+
+    /**
+     * All campaigns that have a stats row
+     */
+    @Query("SELECT s.campaignId FROM CampaignDonationStats s")
+    List<Long> findAllCampaignIds();
+}
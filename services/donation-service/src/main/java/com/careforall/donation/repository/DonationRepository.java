@@ -2,13 +2,21 @@ package com.careforall.donation.repository;
 
 import com.careforall.donation.entity.Donation;
 import com.careforall.donation.entity.DonationStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Donation Repository
@@ -28,6 +36,62 @@ public interface DonationRepository extends JpaRepository<Donation, UUID> {
      */
     List<Donation> findByCampaignIdOrderByCreatedAtDesc(Long campaignId);
 
+    /**
+     * First page of a user's donations, newest first (keyset pagination)
+     */
+    List<Donation> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Pageable pageable);
+
+    /**
+     * Next page of a user's donations after the (createdAt, id) cursor
+     * Served by idx_donation_user_created
+     */
+    @Query("SELECT d FROM Donation d WHERE d.userId = :userId " +
+           "AND (d.createdAt < :createdAt OR (d.createdAt = :createdAt AND d.id < :id)) " +
+           "ORDER BY d.createdAt DESC, d.id DESC")
+    List<Donation> findUserPageAfter(@Param("userId") Long userId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") UUID id,
+                                     Pageable pageable);
+
+    /**
+     * First page of a campaign's donations, newest first (keyset pagination)
+     */
+    List<Donation> findByCampaignIdOrderByCreatedAtDescIdDesc(Long campaignId, Pageable pageable);
+
+    /**
+     * Next page of a campaign's donations after the (createdAt, id) cursor
+     * Served by idx_donation_campaign_created
+     */
+    @Query("SELECT d FROM Donation d WHERE d.campaignId = :campaignId " +
+           "AND (d.createdAt < :createdAt OR (d.createdAt = :createdAt AND d.id < :id)) " +
+           "ORDER BY d.createdAt DESC, d.id DESC")
+    List<Donation> findCampaignPageAfter(@Param("campaignId") Long campaignId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") UUID id,
+                                         Pageable pageable);
+
+    /**
+     * Stream all of a user's donations for export
+     * Must be consumed inside a read-only transaction; rows are fetched from the cursor in chunks
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d FROM Donation d WHERE d.userId = :userId ORDER BY d.createdAt DESC, d.id DESC")
+    Stream<Donation> streamByUserId(@Param("userId") Long userId);
+
+    /**
+     * Stream all of a campaign's donations for export
+     * Must be consumed inside a read-only transaction; rows are fetched from the cursor in chunks
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d FROM Donation d WHERE d.campaignId = :campaignId ORDER BY d.createdAt DESC, d.id DESC")
+    Stream<Donation> streamByCampaignId(@Param("campaignId") Long campaignId);
+
     /**
      * Find donations by email (for guest donations)
      */
@@ -55,8 +119,41 @@ public interface DonationRepository extends JpaRepository<Donation, UUID> {
     @Query("SELECT COUNT(DISTINCT d.userId) FROM Donation d WHERE d.campaignId = :campaignId AND d.status = 'CAPTURED' AND d.userId IS NOT NULL")
     Long countDonorsForCampaign(Long campaignId);
 
+    /**
+     * Count donations for a campaign in a given status
+     */
+    long countByCampaignIdAndStatus(Long campaignId, DonationStatus status);
+
+    /**
+     * Campaigns with at least one captured donation (stats recount scope)
+     */
+    @Query("SELECT DISTINCT d.campaignId FROM Donation d WHERE d.status = 'CAPTURED'")
+    List<Long> findCampaignIdsWithCapturedDonations();
+
+    /**
+     * Stream the distinct donor keys (trimmed, lower-cased emails) of a campaign's captured donations
+     * Used to rebuild the campaign's HyperLogLog donor sketch
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT DISTINCT LOWER(TRIM(d.donorEmail)) FROM Donation d WHERE d.campaignId = :campaignId AND d.status = 'CAPTURED'")
+    Stream<String> streamCapturedDonorKeys(@Param("campaignId") Long campaignId);
+
     /**
      * Find user's donations for a specific campaign
      */
     List<Donation> findByUserIdAndCampaignId(Long userId, Long campaignId);
+
+    /**
+     * Link all guest donations for an email to a registered user in one statement
+     * Bumps the version so concurrent entity updates still see the change as a conflict
+     *
+     * @return number of donations linked
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Donation d SET d.userId = :userId, d.version = d.version + 1, d.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE d.donorEmail = :donorEmail AND d.userId IS NULL")
+    int linkGuestDonationsToUser(@Param("donorEmail") String donorEmail, @Param("userId") Long userId);
 }
@@ -0,0 +1,14 @@
+package com.careforall.donation.repository;
+
+import com.careforall.donation.entity.ProcessedMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Processed Message Repository
+ *
+ * Data access layer for the inbound message dedupe table.
+ */
+@Repository
+public interface ProcessedMessageRepository extends JpaRepository<ProcessedMessage, String> {
+}
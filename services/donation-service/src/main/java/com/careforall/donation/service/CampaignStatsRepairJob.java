@@ -0,0 +1,56 @@
+package com.careforall.donation.service;
+
+import com.careforall.donation.repository.CampaignDonationStatsRepository;
+import com.careforall.donation.repository.DonationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Campaign Stats Repair Job
+ *
+ * Periodically recounts every campaign's stats row from the donations table.
+ * Fixes drift from refunds (the donor sketch cannot remove donors) and from rows
+ * written before the stats table existed. Each campaign is recounted in its own
+ * transaction, so one campaign's lock is never held for the whole run.
+ */
+@Component
+public class CampaignStatsRepairJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(CampaignStatsRepairJob.class);
+
+    @Autowired
+    private CampaignStatsService campaignStatsService;
+
+    @Autowired
+    private CampaignDonationStatsRepository statsRepository;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Scheduled(cron = "${donation.campaign-stats.recount-cron:0 0 3 * * *}")
+    public void recountAll() {
+        // Campaigns with stats but no remaining captures (all refunded) must be zeroed too
+        Set<Long> campaignIds = new TreeSet<>(donationRepository.findCampaignIdsWithCapturedDonations());
+        campaignIds.addAll(statsRepository.findAllCampaignIds());
+
+        logger.info("Recounting donation stats for {} campaigns", campaignIds.size());
+
+        int failed = 0;
+        for (Long campaignId : campaignIds) {
+            try {
+                campaignStatsService.recount(campaignId);
+            } catch (Exception e) {
+                failed++;
+                logger.error("Failed to recount stats for campaign {}: {}", campaignId, e.getMessage());
+            }
+        }
+
+        logger.info("Campaign stats recount finished ({} failed)", failed);
+    }
+}
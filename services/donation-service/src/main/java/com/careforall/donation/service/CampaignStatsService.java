@@ -0,0 +1,128 @@
+package com.careforall.donation.service;
+
+import com.careforall.donation.dto.CampaignStatsResponse;
+import com.careforall.donation.entity.CampaignDonationStats;
+import com.careforall.donation.entity.Donation;
+import com.careforall.donation.entity.DonationStatus;
+import com.careforall.donation.repository.CampaignDonationStatsRepository;
+import com.careforall.donation.repository.DonationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Campaign Stats Service
+ *
+ * Maintains the campaign_donation_stats table. Captures and refunds update the
+ * campaign's row under a row lock inside the caller's transaction, so the stats
+ * commit or roll back together with the donation state change.
+ *
+ * Donor counts come from a HyperLogLog sketch, which cannot forget a donor on
+ * refund; recount() rebuilds the row exactly from the donations table.
+ */
+@Service
+public class CampaignStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CampaignStatsService.class);
+
+    @Autowired
+    private CampaignDonationStatsRepository statsRepository;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    /**
+     * Add a newly captured donation to its campaign's stats
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCapture(Donation donation) {
+        CampaignDonationStats stats = lockOrCreate(donation.getCampaignId());
+
+        stats.setTotalAmount(stats.getTotalAmount().add(donation.getAmount()));
+        stats.setDonationCount(stats.getDonationCount() + 1);
+
+        HyperLogLog sketch = HyperLogLog.fromBytes(stats.getDonorSketch());
+        if (sketch.offer(donorKey(donation.getDonorEmail()))) {
+            stats.setDonorSketch(sketch.toBytes());
+            stats.setDonorCount(sketch.estimate());
+        }
+    }
+
+    /**
+     * Remove a refunded donation from its campaign's stats
+     * The donor stays in the sketch until the next recount
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRefund(Donation donation) {
+        CampaignDonationStats stats = lockOrCreate(donation.getCampaignId());
+
+        stats.setTotalAmount(stats.getTotalAmount().subtract(donation.getAmount()));
+        stats.setDonationCount(Math.max(stats.getDonationCount() - 1, 0));
+    }
+
+    /**
+     * Current stats for a campaign (single primary-key lookup)
+     */
+    @Transactional(readOnly = true)
+    public CampaignStatsResponse getCampaignStats(Long campaignId) {
+        return statsRepository.findById(campaignId)
+            .map(CampaignStatsResponse::fromEntity)
+            .orElseGet(() -> CampaignStatsResponse.empty(campaignId));
+    }
+
+    /**
+     * Rebuild a campaign's stats exactly from its captured donations
+     *
+     * The stats row is locked first, so captures/refunds of this campaign wait for the
+     * recount; anything committed before the lock is included in the aggregates.
+     */
+    @Transactional
+    public CampaignStatsResponse recount(Long campaignId) {
+        CampaignDonationStats stats = lockOrCreate(campaignId);
+
+        BigDecimal exactTotal = donationRepository.calculateTotalDonationsForCampaign(campaignId);
+        long exactCount = donationRepository.countByCampaignIdAndStatus(campaignId, DonationStatus.CAPTURED);
+
+        HyperLogLog sketch = new HyperLogLog();
+        try (Stream<String> donorKeys = donationRepository.streamCapturedDonorKeys(campaignId)) {
+            donorKeys.forEach(sketch::offer);
+        }
+
+        if (exactTotal.compareTo(stats.getTotalAmount()) != 0 || exactCount != stats.getDonationCount()) {
+            logger.warn("Campaign {} stats drifted: total {} -> {}, count {} -> {}",
+                campaignId, stats.getTotalAmount(), exactTotal, stats.getDonationCount(), exactCount);
+        }
+
+        stats.setTotalAmount(exactTotal);
+        stats.setDonationCount(exactCount);
+        stats.setDonorSketch(sketch.toBytes());
+        stats.setDonorCount(sketch.estimate());
+        stats.setLastRecountAt(LocalDateTime.now());
+
+        return CampaignStatsResponse.fromEntity(statsRepository.save(stats));
+    }
+
+    /**
+     * Lock the campaign's stats row, creating it on the campaign's first capture
+     *
+     * The row is created with INSERT ... ON CONFLICT DO NOTHING, so concurrent first
+     * captures never collide on the primary key; all of them then queue on the row lock.
+     */
+    private CampaignDonationStats lockOrCreate(Long campaignId) {
+        statsRepository.insertIfAbsent(campaignId, new HyperLogLog().toBytes());
+        return statsRepository.findByIdForUpdate(campaignId)
+            .orElseThrow(() -> new IllegalStateException("Stats row missing for campaign " + campaignId));
+    }
+
+    static String donorKey(String donorEmail) {
+        return donorEmail == null ? "" : donorEmail.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,24 +1,42 @@
 package com.careforall.donation.service;
 
 import com.careforall.donation.dto.CreateDonationRequest;
+import com.careforall.donation.dto.DonationCursor;
+import com.careforall.donation.dto.DonationPage;
 import com.careforall.donation.dto.DonationResponse;
 import com.careforall.donation.entity.Donation;
 import com.careforall.donation.entity.DonationStatus;
+import com.careforall.donation.entity.ProcessedMessage;
 import com.careforall.donation.event.DonationEvent;
+import com.careforall.donation.event.PaymentResultEvent;
 import com.careforall.donation.outbox.OutboxEvent;
 import com.careforall.donation.outbox.OutboxEventRepository;
 import com.careforall.donation.repository.DonationRepository;
+import com.careforall.donation.repository.ProcessedMessageRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Donation Service
@@ -30,6 +48,9 @@ import java.util.stream.Collectors;
 public class DonationService {
 
     private static final Logger logger = LoggerFactory.getLogger(DonationService.class);
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
 
     @Autowired
     private DonationRepository donationRepository;
@@ -37,9 +58,18 @@ public class DonationService {
     @Autowired
     private OutboxEventRepository outboxEventRepository;
 
+    @Autowired
+    private ProcessedMessageRepository processedMessageRepository;
+
+    @Autowired
+    private CampaignStatsService campaignStatsService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
      * Create a new donation with Transactional Outbox pattern
      * Both donation and outbox event are saved in the SAME transaction
@@ -92,19 +122,9 @@ public class DonationService {
             .orElseThrow(() -> new RuntimeException("Donation not found with ID: " + donationId));
 
         // Authorize the donation (state transition: CREATED -> AUTHORIZED)
-        donation.authorize();
+        applyAuthorization(donation);
         donation = donationRepository.save(donation);
 
-        // Create DONATION_AUTHORIZED event in outbox
-        DonationEvent event = DonationEvent.authorized(
-            donation.getId().toString(),
-            donation.getCampaignId(),
-            donation.getUserId(),
-            donation.getDonorEmail(),
-            donation.getAmount()
-        );
-
-        saveOutboxEvent(donation.getId().toString(), "DONATION_AUTHORIZED", event);
         logger.info("Payment authorized for donation: {}", donationId);
 
         return DonationResponse.fromEntity(donation);
@@ -122,10 +142,138 @@ public class DonationService {
             .orElseThrow(() -> new RuntimeException("Donation not found with ID: " + donationId));
 
         // Capture the donation (state transition: AUTHORIZED -> CAPTURED)
-        donation.capture(transactionId);
+        applyCapture(donation, transactionId);
         donation = donationRepository.save(donation);
 
-        // Create DONATION_CAPTURED event in outbox
+        logger.info("Payment captured for donation: {}", donationId);
+
+        return DonationResponse.fromEntity(donation);
+    }
+
+    /**
+     * Apply a batch of payment results from payment-service
+     *
+     * Runs in one transaction: already-processed messages are filtered out via the
+     * processed_messages table, all referenced donations are loaded with one query,
+     * transitions are applied in memory and flushed on commit. Concurrent updates to
+     * the same donation are caught by the @Version check and fail the whole batch.
+     *
+     * @return number of donations whose state changed
+     */
+    @Transactional
+    public int applyPaymentResults(List<PaymentResultEvent> events) {
+        Map<String, PaymentResultEvent> unprocessed = new LinkedHashMap<>();
+        for (PaymentResultEvent event : events) {
+            unprocessed.putIfAbsent(event.messageKey(), event);
+        }
+
+        processedMessageRepository.findAllById(unprocessed.keySet())
+            .forEach(processed -> unprocessed.remove(processed.getMessageKey()));
+
+        if (unprocessed.isEmpty()) {
+            logger.debug("All {} payment results already processed", events.size());
+            return 0;
+        }
+
+        Set<UUID> donationIds = new HashSet<>();
+        for (PaymentResultEvent event : unprocessed.values()) {
+            UUID donationId = parseDonationId(event);
+            if (donationId != null) {
+                donationIds.add(donationId);
+            }
+        }
+
+        Map<UUID, Donation> donations = new HashMap<>();
+        donationRepository.findAllById(donationIds)
+            .forEach(donation -> donations.put(donation.getId(), donation));
+
+        int applied = 0;
+        for (PaymentResultEvent event : unprocessed.values()) {
+            Donation donation = donations.get(parseDonationId(event));
+            if (donation == null) {
+                logger.warn("Ignoring payment result {} - donation {} not found",
+                    event.messageKey(), event.getDonationId());
+                continue;
+            }
+            if (applyPaymentResult(donation, event)) {
+                applied++;
+            }
+        }
+
+        processedMessageRepository.saveAll(unprocessed.keySet().stream()
+            .map(ProcessedMessage::of)
+            .collect(Collectors.toList()));
+
+        logger.info("Applied {} of {} payment results ({} duplicates skipped)",
+            applied, events.size(), events.size() - unprocessed.size());
+        return applied;
+    }
+
+    /**
+     * Apply a single payment result to a loaded donation
+     * Results that do not move the donation forward are ignored (idempotent redelivery)
+     *
+     * @return true if the donation state changed
+     */
+    private boolean applyPaymentResult(Donation donation, PaymentResultEvent event) {
+        DonationStatus current = donation.getStatus();
+
+        if (event.isCaptured()) {
+            switch (current) {
+                case CREATED:
+                    applyAuthorization(donation);
+                    applyCapture(donation, event.getPaymentId());
+                    return true;
+                case AUTHORIZED:
+                    applyCapture(donation, event.getPaymentId());
+                    return true;
+                case CAPTURED:
+                    return false;
+                default:
+                    logger.error("Payment {} captured but donation {} is {} - needs manual review",
+                        event.getPaymentId(), donation.getId(), current);
+                    return false;
+            }
+        }
+
+        if (event.isFailed()) {
+            if (current == DonationStatus.CREATED || current == DonationStatus.AUTHORIZED) {
+                applyFailure(donation);
+                return true;
+            }
+            logger.warn("Ignoring payment failure {} for donation {} in state {}",
+                event.getPaymentId(), donation.getId(), current);
+            return false;
+        }
+
+        logger.warn("Unknown payment status {} for payment {}", event.getStatus(), event.getPaymentId());
+        return false;
+    }
+
+    /**
+     * CREATED -> AUTHORIZED, with DONATION_AUTHORIZED outbox event
+     */
+    private void applyAuthorization(Donation donation) {
+        donation.authorize();
+
+        DonationEvent event = DonationEvent.authorized(
+            donation.getId().toString(),
+            donation.getCampaignId(),
+            donation.getUserId(),
+            donation.getDonorEmail(),
+            donation.getAmount()
+        );
+
+        saveOutboxEvent(donation.getId().toString(), "DONATION_AUTHORIZED", event);
+    }
+
+    /**
+     * AUTHORIZED -> CAPTURED, with DONATION_CAPTURED outbox event and campaign stats update
+     */
+    private void applyCapture(Donation donation, String transactionId) {
+        donation.capture(transactionId);
+        campaignStatsService.recordCapture(donation);
+
         DonationEvent event = DonationEvent.captured(
             donation.getId().toString(),
             donation.getCampaignId(),
@@ -136,30 +284,83 @@ public class DonationService {
         );
 
         saveOutboxEvent(donation.getId().toString(), "DONATION_CAPTURED", event);
-        logger.info("Payment captured for donation: {}", donationId);
+    }
+
+    /**
+     * CREATED/AUTHORIZED -> FAILED, with DONATION_FAILED outbox event
+     */
+    private void applyFailure(Donation donation) {
+        donation.fail();
+
+        DonationEvent event = DonationEvent.failed(
+            donation.getId().toString(),
+            donation.getCampaignId(),
+            donation.getUserId(),
+            donation.getDonorEmail(),
+            donation.getAmount()
+        );
+
+        saveOutboxEvent(donation.getId().toString(), "DONATION_FAILED", event);
+    }
+
+    /**
+     * Record a refund of a captured donation (admin bookkeeping correction)
+     * CAPTURED -> REFUNDED, with DONATION_REFUNDED outbox event and campaign stats update
+     *
+     * No money moves: nothing in payment or banking acts on DONATION_REFUNDED. This only
+     * brings donation records and campaign totals in line with a refund made elsewhere.
+     */
+    @Transactional
+    public DonationResponse refundDonation(UUID donationId) {
+        logger.info("Recording refund of donation {}", donationId);
+
+        Donation donation = donationRepository.findById(donationId)
+            .orElseThrow(() -> new RuntimeException("Donation not found with ID: " + donationId));
+
+        donation.refund();
+        campaignStatsService.recordRefund(donation);
+
+        DonationEvent event = DonationEvent.refunded(
+            donation.getId().toString(),
+            donation.getCampaignId(),
+            donation.getUserId(),
+            donation.getDonorEmail(),
+            donation.getAmount(),
+            donation.getTransactionId()
+        );
+
+        saveOutboxEvent(donation.getId().toString(), "DONATION_REFUNDED", event);
+        donation = donationRepository.save(donation);
+
+        logger.info("Donation refunded: {}", donationId);
 
         return DonationResponse.fromEntity(donation);
     }
 
+    private UUID parseDonationId(PaymentResultEvent event) {
+        try {
+            return event.getDonationId() != null ? UUID.fromString(event.getDonationId()) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Link a guest donation to a registered user
      * This is called when a guest who made a donation later registers
+     *
+     * Uses a single set-based UPDATE so the cost does not grow with the donor's history.
+     *
+     * @return number of guest donations linked
      */
     @Transactional
-    public void linkDonationToUser(String donorEmail, Long userId) {
+    public int linkDonationToUser(String donorEmail, Long userId) {
         logger.info("Linking donations for email {} to user {}", donorEmail, userId);
 
-        List<Donation> guestDonations = donationRepository.findByDonorEmailOrderByCreatedAtDesc(donorEmail)
-            .stream()
-            .filter(Donation::isGuestDonation)
-            .collect(Collectors.toList());
-
-        for (Donation donation : guestDonations) {
-            donation.linkToUser(userId);
-            donationRepository.save(donation);
-        }
+        int linked = donationRepository.linkGuestDonationsToUser(donorEmail, userId);
 
-        logger.info("Linked {} guest donations to user {}", guestDonations.size(), userId);
+        logger.info("Linked {} guest donations to user {}", linked, userId);
+        return linked;
     }
 
     /**
@@ -220,6 +421,112 @@ public class DonationService {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Get one page of a user's donations (keyset pagination, newest first)
+     *
+     * @param cursor nextCursor from the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public DonationPage getUserDonationsPage(Long userId, String cursor, Integer limit) {
+        int pageSize = clampPageSize(limit);
+        Pageable fetch = PageRequest.of(0, pageSize + 1);
+
+        List<Donation> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = donationRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, fetch);
+        } else {
+            DonationCursor position = DonationCursor.decode(cursor);
+            rows = donationRepository.findUserPageAfter(userId, position.createdAt(), position.id(), fetch);
+        }
+
+        return toPage(rows, pageSize);
+    }
+
+    /**
+     * Get one page of a campaign's donations (keyset pagination, newest first)
+     *
+     * @param cursor nextCursor from the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public DonationPage getCampaignDonationsPage(Long campaignId, String cursor, Integer limit) {
+        int pageSize = clampPageSize(limit);
+        Pageable fetch = PageRequest.of(0, pageSize + 1);
+
+        List<Donation> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = donationRepository.findByCampaignIdOrderByCreatedAtDescIdDesc(campaignId, fetch);
+        } else {
+            DonationCursor position = DonationCursor.decode(cursor);
+            rows = donationRepository.findCampaignPageAfter(campaignId, position.createdAt(), position.id(), fetch);
+        }
+
+        return toPage(rows, pageSize);
+    }
+
+    /**
+     * Write all of a user's donations as NDJSON (one DonationResponse per line)
+     *
+     * @return number of donations written
+     */
+    @Transactional(readOnly = true)
+    public long exportUserDonations(Long userId, OutputStream out) throws IOException {
+        try (Stream<Donation> donations = donationRepository.streamByUserId(userId)) {
+            return writeNdjson(donations, out);
+        }
+    }
+
+    /**
+     * Write all of a campaign's donations as NDJSON (one DonationResponse per line)
+     *
+     * @return number of donations written
+     */
+    @Transactional(readOnly = true)
+    public long exportCampaignDonations(Long campaignId, OutputStream out) throws IOException {
+        try (Stream<Donation> donations = donationRepository.streamByCampaignId(campaignId)) {
+            return writeNdjson(donations, out);
+        }
+    }
+
+    /**
+     * Serialize a donation stream line by line
+     * Each entity is detached once written so the persistence context does not grow with the result
+     */
+    private long writeNdjson(Stream<Donation> donations, OutputStream out) throws IOException {
+        long written = 0;
+        Iterator<Donation> iterator = donations.iterator();
+        while (iterator.hasNext()) {
+            Donation donation = iterator.next();
+            out.write(objectMapper.writeValueAsBytes(DonationResponse.fromEntity(donation)));
+            out.write('\n');
+            entityManager.detach(donation);
+
+            if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return written;
+    }
+
+    private DonationPage toPage(List<Donation> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<Donation> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = hasMore ? DonationCursor.of(page.get(page.size() - 1)).encode() : null;
+        List<DonationResponse> items = page.stream()
+            .map(DonationResponse::fromEntity)
+            .collect(Collectors.toList());
+
+        return new DonationPage(items, nextCursor, pageSize);
+    }
+
+    private int clampPageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
     /**
      * Get all donations by email (for guest donations)
      */
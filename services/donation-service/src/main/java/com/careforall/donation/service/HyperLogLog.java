@@ -0,0 +1,101 @@
+package com.careforall.donation.service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog distinct-count sketch
+ *
+ * Fixed 2^12 one-byte registers (4 KB serialized, ~1.6% standard error), so the
+ * sketch can be stored as a single column and updated in place. Adding the same
+ * value twice never changes the estimate. Values cannot be removed; callers that
+ * need to forget values rebuild the sketch from scratch.
+ */
+public final class HyperLogLog {
+
+    public static final int PRECISION = 12;
+    public static final int SIZE_BYTES = 1 << PRECISION;
+
+    private static final int MAX_RANK = 64 - PRECISION + 1;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / SIZE_BYTES);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[SIZE_BYTES];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * Restore a sketch from its serialized registers
+     * Missing or malformed input yields an empty sketch
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != SIZE_BYTES) {
+            return new HyperLogLog();
+        }
+        return new HyperLogLog(bytes.clone());
+    }
+
+    public byte[] toBytes() {
+        return registers.clone();
+    }
+
+    /**
+     * Add a value to the sketch
+     *
+     * @return true if a register changed
+     */
+    public boolean offer(String value) {
+        long hash = hash64(value);
+        int index = (int) (hash >>> (64 - PRECISION));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << PRECISION) + 1, MAX_RANK);
+
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Estimated number of distinct values offered
+     * Falls back to linear counting while many registers are still empty
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double raw = ALPHA * SIZE_BYTES * SIZE_BYTES / sum;
+        if (raw <= 2.5 * SIZE_BYTES && zeros > 0) {
+            return Math.round(SIZE_BYTES * Math.log((double) SIZE_BYTES / zeros));
+        }
+        return Math.round(raw);
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 fmix64 avalanche
+     */
+    static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,95 @@
+package com.careforall.donation.listener;
+
+import com.careforall.donation.config.RabbitMQConfig;
+import com.careforall.donation.event.PaymentResultEvent;
+import com.careforall.donation.service.DonationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Payment Result Listener Tests
+ *
+ * Unit tests for the per-result fallback: poison results are dead-lettered,
+ * transient database faults requeue the batch.
+ */
+@ExtendWith(MockitoExtension.class)
+class PaymentResultListenerTest {
+
+    @Mock
+    private DonationService donationService;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private PaymentResultListener listener;
+
+    @Test
+    void testPoisonResultIsDeadLetteredAndBatchCompletes() {
+        Message good = message("PAY-1");
+        Message poison = message("PAY-2");
+        when(donationService.applyPaymentResults(anyList())).thenAnswer(inv -> {
+            List<PaymentResultEvent> events = inv.getArgument(0);
+            if (events.stream().anyMatch(e -> e.getPaymentId().equals("PAY-2"))) {
+                throw new IllegalStateException("Donation not found");
+            }
+            return events.size();
+        });
+
+        listener.handlePaymentResults(List.of(good, poison));
+
+        // Batch once, PAY-1 once, PAY-2 max-attempts (3) times
+        verify(donationService, times(5)).applyPaymentResults(anyList());
+        verify(rabbitTemplate).send(RabbitMQConfig.PAYMENT_RESULT_DLX,
+            RabbitMQConfig.PAYMENT_RESULT_DEAD_ROUTING_KEY, poison);
+        verify(rabbitTemplate, never()).send(anyString(), anyString(), argThat(m -> m == good));
+    }
+
+    @Test
+    void testTransientFaultRequeuesBatch() {
+        when(donationService.applyPaymentResults(anyList()))
+            .thenThrow(new CannotCreateTransactionException("database down"));
+
+        assertThrows(CannotCreateTransactionException.class,
+            () -> listener.handlePaymentResults(List.of(message("PAY-1"))));
+        verify(rabbitTemplate, never()).send(anyString(), anyString(), any(Message.class));
+    }
+
+    @Test
+    void testTransientClassification() {
+        assertTrue(PaymentResultListener.isTransient(new CannotAcquireLockException("lock")));
+        assertTrue(PaymentResultListener.isTransient(
+            new RuntimeException(new CannotCreateTransactionException("down"))));
+        assertFalse(PaymentResultListener.isTransient(new IllegalStateException("bad state")));
+    }
+
+    private Message message(String paymentId) {
+        String json = "{\"paymentId\":\"" + paymentId + "\",\"donationId\":\"" + UUID.randomUUID()
+            + "\",\"status\":\"CAPTURED\",\"amount\":10}";
+        return new Message(json.getBytes(StandardCharsets.UTF_8), new MessageProperties());
+    }
+}
@@ -0,0 +1,178 @@
+package com.careforall.donation.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Outbox Publisher Tests
+ *
+ * Unit tests for retry backoff and dead-letter handling.
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxPublisherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxDeadLetterRepository deadLetterRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private OutboxPublisher outboxPublisher;
+
+    private OutboxEvent event;
+
+    @BeforeEach
+    void setUp() {
+        outboxPublisher.registerMetrics();
+
+        event = OutboxEvent.create("donation-1", "DONATION", "DONATION_CREATED", "{\"amount\":10}");
+        event.setId(1L);
+        event.setCreatedAt(LocalDateTime.now().minusSeconds(30));
+    }
+
+    @Test
+    void testPublishSuccess() {
+        when(outboxEventRepository.findPendingEvents(any(LocalDateTime.class))).thenReturn(List.of(event));
+        when(outboxEventRepository.findFirstByStatusOrderByCreatedAtAsc(OutboxEvent.EventStatus.PENDING))
+            .thenReturn(Optional.of(event));
+
+        outboxPublisher.publishPendingEvents();
+
+        assertEquals(OutboxEvent.EventStatus.PUBLISHED, event.getStatus());
+        assertEquals(1.0, meterRegistry.counter("outbox.events.published").count());
+        assertTrue(meterRegistry.get("outbox.events.oldest.age.seconds").gauge().value() >= 30);
+    }
+
+    @Test
+    void testFailedPublishIsScheduledWithBackoff() {
+        when(outboxEventRepository.findPendingEvents(any(LocalDateTime.class))).thenReturn(List.of(event));
+        when(outboxEventRepository.findFirstByStatusOrderByCreatedAtAsc(any())).thenReturn(Optional.empty());
+        doThrow(new AmqpException("broker down")).when(rabbitTemplate)
+            .convertAndSend(anyString(), anyString(), any(Object.class));
+
+        LocalDateTime before = LocalDateTime.now();
+        outboxPublisher.publishPendingEvents();
+
+        assertEquals(OutboxEvent.EventStatus.PENDING, event.getStatus());
+        assertEquals(1, event.getRetryCount());
+        assertNotNull(event.getNextAttemptAt());
+        assertTrue(event.getNextAttemptAt().isAfter(before));
+        assertEquals("broker down", event.getErrorMessage());
+        assertEquals(1.0, meterRegistry.counter("outbox.events.retries").count());
+        verify(deadLetterRepository, never()).save(any());
+    }
+
+    @Test
+    void testExhaustedEventIsMovedToDeadLetters() {
+        event.setRetryCount(4);
+        when(outboxEventRepository.findPendingEvents(any(LocalDateTime.class))).thenReturn(List.of(event));
+        when(outboxEventRepository.findFirstByStatusOrderByCreatedAtAsc(any())).thenReturn(Optional.empty());
+        doThrow(new AmqpException("broker down")).when(rabbitTemplate)
+            .convertAndSend(anyString(), anyString(), any(Object.class));
+
+        outboxPublisher.publishPendingEvents();
+
+        ArgumentCaptor<OutboxDeadLetter> captor = ArgumentCaptor.forClass(OutboxDeadLetter.class);
+        verify(deadLetterRepository).save(captor.capture());
+        verify(outboxEventRepository).delete(event);
+
+        OutboxDeadLetter deadLetter = captor.getValue();
+        assertEquals(1L, deadLetter.getOriginalEventId());
+        assertEquals("DONATION_CREATED", deadLetter.getEventType());
+        assertEquals(5, deadLetter.getRetryCount());
+        assertEquals(1.0, meterRegistry.counter("outbox.events.dead_lettered").count());
+    }
+
+    @Test
+    void testBackoffGrowsAndIsCapped() {
+        for (int i = 0; i < 50; i++) {
+            Duration first = outboxPublisher.calculateBackoff(1);
+            assertTrue(first.toMillis() >= 2500 && first.toMillis() <= 5000);
+
+            Duration third = outboxPublisher.calculateBackoff(3);
+            assertTrue(third.toMillis() >= 2500 && third.toMillis() <= 20000);
+
+            Duration capped = outboxPublisher.calculateBackoff(30);
+            assertTrue(capped.toMillis() <= 300000);
+        }
+    }
+
+    @Test
+    void testReplayDeadLetter() {
+        OutboxDeadLetter deadLetter = OutboxDeadLetter.from(event);
+        deadLetter.setId(7L);
+        when(deadLetterRepository.findById(7L)).thenReturn(Optional.of(deadLetter));
+        when(outboxEventRepository.save(any(OutboxEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        OutboxEvent replayed = outboxPublisher.replayDeadLetter(7L);
+
+        assertEquals(OutboxEvent.EventStatus.PENDING, replayed.getStatus());
+        assertEquals(0, replayed.getRetryCount());
+        assertEquals(event.getPayload(), replayed.getPayload());
+        assertTrue(deadLetter.isReplayed());
+        assertThrows(IllegalStateException.class, () -> outboxPublisher.replayDeadLetter(7L));
+    }
+
+    @Test
+    void testReplayMissingDeadLetter() {
+        when(deadLetterRepository.findById(8L)).thenReturn(Optional.empty());
+
+        assertThrows(DeadLetterNotFoundException.class, () -> outboxPublisher.replayDeadLetter(8L));
+    }
+
+    @Test
+    void testLegacyFailedEventsAreMigrated() {
+        event.markAsFailed("broker down");
+        event.setRetryCount(2);
+        OutboxEvent exhausted = OutboxEvent.create("donation-2", "DONATION", "DONATION_FAILED", "{}");
+        exhausted.setId(2L);
+        exhausted.setCreatedAt(LocalDateTime.now().minusHours(1));
+        exhausted.setRetryCount(5);
+        exhausted.markAsFailed("broker down");
+        when(outboxEventRepository.findByStatusOrderByCreatedAtAsc(OutboxEvent.EventStatus.FAILED))
+            .thenReturn(List.of(event, exhausted));
+
+        outboxPublisher.migrateFailedEvents();
+
+        // Retries left: back in the relay's queue
+        assertEquals(OutboxEvent.EventStatus.PENDING, event.getStatus());
+        assertNull(event.getNextAttemptAt());
+        verify(outboxEventRepository).save(event);
+
+        // Exhausted: moved to the dead-letter table, where replay can reach it
+        ArgumentCaptor<OutboxDeadLetter> captor = ArgumentCaptor.forClass(OutboxDeadLetter.class);
+        verify(deadLetterRepository).save(captor.capture());
+        assertEquals(2L, captor.getValue().getOriginalEventId());
+        verify(outboxEventRepository).delete(exhausted);
+    }
+}
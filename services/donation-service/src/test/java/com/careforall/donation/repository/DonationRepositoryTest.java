@@ -0,0 +1,123 @@
+package com.careforall.donation.repository;
+
+import com.careforall.donation.dto.DonationCursor;
+import com.careforall.donation.entity.Donation;
+import com.careforall.donation.entity.DonationStatus;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Donation Repository Tests
+ *
+ * Runs the custom queries against H2.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class DonationRepositoryTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DonationRepositoryTest.class);
+
+    private static final String GUEST_EMAIL = "prolific@example.com";
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Test
+    void testLinkGuestDonationsToUser_TenThousandRowsInOneUpdate() {
+        // Arrange: 10k guest donations for one email, plus rows that must not be touched
+        List<Donation> donations = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            donations.add(donation(GUEST_EMAIL, null));
+        }
+        donations.add(donation(GUEST_EMAIL, 42L));
+        donations.add(donation("someone-else@example.com", null));
+        donationRepository.saveAll(donations);
+        donationRepository.flush();
+
+        // Act
+        long start = System.nanoTime();
+        int linked = donationRepository.linkGuestDonationsToUser(GUEST_EMAIL, 7L);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertEquals(10_000, linked);
+        assertEquals(10_000, donationRepository.findByUserIdOrderByCreatedAtDesc(7L).size());
+        assertEquals(1, donationRepository.findByUserIdOrderByCreatedAtDesc(42L).size());
+        assertTrue(donationRepository.findByDonorEmailOrderByCreatedAtDesc("someone-else@example.com")
+            .get(0).isGuestDonation());
+        assertTrue(donationRepository.findByUserIdOrderByCreatedAtDesc(7L).stream()
+            .allMatch(d -> d.getVersion() == 1L));
+        logger.info("Linked {} guest donations in {} ms", linked, elapsedMs);
+
+        // Running again is a no-op
+        assertEquals(0, donationRepository.linkGuestDonationsToUser(GUEST_EMAIL, 7L));
+    }
+
+    @Test
+    void testCampaignKeysetPagination_VisitsEveryRowOnce() {
+        // Arrange: rows saved back to back share created_at values, exercising the id tiebreaker
+        List<Donation> donations = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            donations.add(donation("donor" + i + "@example.com", null));
+        }
+        Donation otherCampaign = donation("other@example.com", null);
+        otherCampaign.setCampaignId(2L);
+        donations.add(otherCampaign);
+        donationRepository.saveAllAndFlush(donations);
+
+        // Act: walk pages of 10
+        Set<UUID> seen = new HashSet<>();
+        List<Donation> page = donationRepository.findByCampaignIdOrderByCreatedAtDescIdDesc(1L, PageRequest.of(0, 10));
+        int pages = 0;
+        while (!page.isEmpty()) {
+            pages++;
+            page.forEach(d -> assertTrue(seen.add(d.getId()), "row returned twice"));
+            DonationCursor last = DonationCursor.decode(DonationCursor.of(page.get(page.size() - 1)).encode());
+            page = donationRepository.findCampaignPageAfter(1L, last.createdAt(), last.id(), PageRequest.of(0, 10));
+        }
+
+        // Assert
+        assertEquals(3, pages);
+        assertEquals(25, seen.size());
+    }
+
+    @Test
+    void testStreamByUserId() {
+        List<Donation> donations = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            donations.add(donation("streamer@example.com", 99L));
+        }
+        donationRepository.saveAllAndFlush(donations);
+
+        try (Stream<Donation> stream = donationRepository.streamByUserId(99L)) {
+            assertEquals(1_000, stream.count());
+        }
+    }
+
+    private Donation donation(String email, Long userId) {
+        return Donation.builder()
+            .campaignId(1L)
+            .userId(userId)
+            .amount(new BigDecimal("10.00"))
+            .donorEmail(email)
+            .donorName("Guest")
+            .paymentMethod("CREDIT_CARD")
+            .status(DonationStatus.CAPTURED)
+            .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.careforall.donation.service;
+
+import com.careforall.donation.dto.CampaignStatsResponse;
+import com.careforall.donation.entity.CampaignDonationStats;
+import com.careforall.donation.entity.Donation;
+import com.careforall.donation.entity.DonationStatus;
+import com.careforall.donation.repository.CampaignDonationStatsRepository;
+import com.careforall.donation.repository.DonationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Campaign Stats Service Tests
+ *
+ * Unit tests for transactional campaign aggregate maintenance and the exact recount.
+ */
+@ExtendWith(MockitoExtension.class)
+class CampaignStatsServiceTest {
+
+    @Mock
+    private CampaignDonationStatsRepository statsRepository;
+
+    @Mock
+    private DonationRepository donationRepository;
+
+    @InjectMocks
+    private CampaignStatsService campaignStatsService;
+
+    @Test
+    void testFirstCaptureCreatesStatsRow() {
+        CampaignDonationStats stats = emptyStats();
+        when(statsRepository.insertIfAbsent(eq(1L), any(byte[].class))).thenReturn(1);
+        when(statsRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(stats));
+
+        campaignStatsService.recordCapture(donation("a@example.com", "100.00"));
+
+        // Created without a read-then-insert race, then locked like any existing row
+        InOrder inOrder = inOrder(statsRepository);
+        inOrder.verify(statsRepository).insertIfAbsent(eq(1L), any(byte[].class));
+        inOrder.verify(statsRepository).findByIdForUpdate(1L);
+        verify(statsRepository, never()).saveAndFlush(any());
+
+        assertEquals(new BigDecimal("100.00"), stats.getTotalAmount());
+        assertEquals(1L, stats.getDonationCount());
+        assertEquals(1L, stats.getDonorCount());
+    }
+
+    @Test
+    void testRepeatDonorIsCountedOnce() {
+        CampaignDonationStats stats = emptyStats();
+        when(statsRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(stats));
+
+        campaignStatsService.recordCapture(donation("a@example.com", "10.00"));
+        campaignStatsService.recordCapture(donation(" A@Example.com", "15.00"));
+        campaignStatsService.recordCapture(donation("b@example.com", "20.00"));
+
+        assertEquals(new BigDecimal("45.00"), stats.getTotalAmount());
+        assertEquals(3L, stats.getDonationCount());
+        assertEquals(2L, stats.getDonorCount());
+    }
+
+    @Test
+    void testRefundSubtractsAmount() {
+        CampaignDonationStats stats = emptyStats();
+        when(statsRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(stats));
+
+        campaignStatsService.recordCapture(donation("a@example.com", "10.00"));
+        campaignStatsService.recordRefund(donation("a@example.com", "10.00"));
+
+        assertEquals(0, stats.getTotalAmount().compareTo(BigDecimal.ZERO));
+        assertEquals(0L, stats.getDonationCount());
+    }
+
+    @Test
+    void testRecountReplacesDriftedValues() {
+        CampaignDonationStats stats = emptyStats();
+        stats.setTotalAmount(new BigDecimal("999.00"));
+        stats.setDonationCount(42L);
+        stats.setDonorCount(40L);
+        when(statsRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(stats));
+        when(statsRepository.save(stats)).thenReturn(stats);
+        when(donationRepository.calculateTotalDonationsForCampaign(1L)).thenReturn(new BigDecimal("30.00"));
+        when(donationRepository.countByCampaignIdAndStatus(1L, DonationStatus.CAPTURED)).thenReturn(3L);
+        when(donationRepository.streamCapturedDonorKeys(1L)).thenReturn(Stream.of("a@example.com", "b@example.com"));
+
+        CampaignStatsResponse response = campaignStatsService.recount(1L);
+
+        assertEquals(new BigDecimal("30.00"), response.getTotalAmount());
+        assertEquals(3L, response.getDonationCount());
+        assertEquals(2L, response.getDonorCount());
+        assertNotNull(stats.getLastRecountAt());
+    }
+
+    @Test
+    void testStatsForUnknownCampaignAreEmpty() {
+        when(statsRepository.findById(7L)).thenReturn(Optional.empty());
+
+        CampaignStatsResponse response = campaignStatsService.getCampaignStats(7L);
+
+        assertEquals(7L, response.getCampaignId());
+        assertEquals(BigDecimal.ZERO, response.getTotalAmount());
+        assertEquals(0, response.getDonorCount());
+    }
+
+    private CampaignDonationStats emptyStats() {
+        return CampaignDonationStats.builder()
+            .campaignId(1L)
+            .donorSketch(new HyperLogLog().toBytes())
+            .build();
+    }
+
+    private Donation donation(String email, String amount) {
+        return Donation.builder()
+            .campaignId(1L)
+            .donorEmail(email)
+            .amount(new BigDecimal(amount))
+            .status(DonationStatus.CAPTURED)
+            .build();
+    }
+}
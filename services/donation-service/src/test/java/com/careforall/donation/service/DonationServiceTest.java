@@ -4,10 +4,14 @@ import com.careforall.donation.dto.CreateDonationRequest;
 import com.careforall.donation.dto.DonationResponse;
 import com.careforall.donation.entity.Donation;
 import com.careforall.donation.entity.DonationStatus;
+import com.careforall.donation.entity.ProcessedMessage;
+import com.careforall.donation.event.PaymentResultEvent;
 import com.careforall.donation.outbox.OutboxEvent;
 import com.careforall.donation.outbox.OutboxEventRepository;
 import com.careforall.donation.repository.DonationRepository;
+import com.careforall.donation.repository.ProcessedMessageRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,10 +24,12 @@ import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
 import static org.mockito.Mockito.*;
 
 /**
@@ -40,6 +46,12 @@ class DonationServiceTest {
     @Mock
     private OutboxEventRepository outboxEventRepository;
 
+    @Mock
+    private ProcessedMessageRepository processedMessageRepository;
+
+    @Mock
+    private CampaignStatsService campaignStatsService;
+
     @Mock
     private ObjectMapper objectMapper;
 
@@ -159,4 +171,158 @@ class DonationServiceTest {
         assertEquals(1, responses.size());
         assertEquals("john@example.com", responses.get(0).getDonorEmail());
     }
+
+    @Test
+    void testApplyPaymentResults_CapturedDrivesCreatedToCaptured() throws Exception {
+        // Arrange
+        PaymentResultEvent event = paymentResult("PAY-1", PaymentResultEvent.STATUS_CAPTURED);
+        when(processedMessageRepository.findAllById(anyIterable())).thenReturn(List.of());
+        when(donationRepository.findAllById(anyIterable())).thenReturn(List.of(donation));
+        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+
+        // Act
+        int applied = donationService.applyPaymentResults(List.of(event));
+
+        // Assert
+        assertEquals(1, applied);
+        assertEquals(DonationStatus.CAPTURED, donation.getStatus());
+        assertEquals("PAY-1", donation.getTransactionId());
+
+        ArgumentCaptor<OutboxEvent> outboxCaptor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository, times(2)).save(outboxCaptor.capture());
+        assertEquals("DONATION_AUTHORIZED", outboxCaptor.getAllValues().get(0).getEventType());
+        assertEquals("DONATION_CAPTURED", outboxCaptor.getAllValues().get(1).getEventType());
+        verify(processedMessageRepository).saveAll(anyIterable());
+        verify(campaignStatsService).recordCapture(donation);
+    }
+
+    @Test
+    void testApplyPaymentResults_PaymentServiceEventCapturesDonation() throws Exception {
+        // Arrange - the payment.completed payload exactly as payment-service publishes its PaymentEvent
+        String payload = "{\"paymentId\":\"PAY-42\",\"donationId\":\"" + testDonationId + "\","
+            + "\"userId\":1,\"amount\":100.00,\"status\":\"CAPTURED\","
+            + "\"timestamp\":\"2026-10-18T10:30:00\"}";
+        PaymentResultEvent event = JsonMapper.builder().findAndAddModules().build()
+            .readValue(payload, PaymentResultEvent.class);
+        when(processedMessageRepository.findAllById(anyIterable())).thenReturn(List.of());
+        when(donationRepository.findAllById(anyIterable())).thenReturn(List.of(donation));
+        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+
+        // Act
+        int applied = donationService.applyPaymentResults(List.of(event));
+
+        // Assert
+        assertEquals(1, applied);
+        assertEquals(DonationStatus.CAPTURED, donation.getStatus());
+        assertEquals("PAY-42", donation.getTransactionId());
+        verify(donationRepository).findAllById(Set.of(testDonationId));
+    }
+
+    @Test
+    void testApplyPaymentResults_DuplicateMessageSkipped() {
+        // Arrange
+        PaymentResultEvent event = paymentResult("PAY-1", PaymentResultEvent.STATUS_CAPTURED);
+        when(processedMessageRepository.findAllById(anyIterable()))
+            .thenReturn(List.of(ProcessedMessage.of(event.messageKey())));
+
+        // Act
+        int applied = donationService.applyPaymentResults(List.of(event, event));
+
+        // Assert
+        assertEquals(0, applied);
+        assertEquals(DonationStatus.CREATED, donation.getStatus());
+        verify(donationRepository, never()).findAllById(anyIterable());
+        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
+    }
+
+    @Test
+    void testApplyPaymentResults_FailureDoesNotOverrideCapture() {
+        // Arrange
+        donation.setStatus(DonationStatus.CAPTURED);
+        PaymentResultEvent event = paymentResult("PAY-1", PaymentResultEvent.STATUS_FAILED);
+        when(processedMessageRepository.findAllById(anyIterable())).thenReturn(List.of());
+        when(donationRepository.findAllById(anyIterable())).thenReturn(List.of(donation));
+
+        // Act
+        int applied = donationService.applyPaymentResults(List.of(event));
+
+        // Assert
+        assertEquals(0, applied);
+        assertEquals(DonationStatus.CAPTURED, donation.getStatus());
+        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
+        verify(processedMessageRepository).saveAll(anyIterable());
+    }
+
+    @Test
+    void testApplyPaymentResults_FailedMarksDonationFailed() throws Exception {
+        // Arrange
+        PaymentResultEvent event = paymentResult("PAY-1", PaymentResultEvent.STATUS_FAILED);
+        when(processedMessageRepository.findAllById(anyIterable())).thenReturn(List.of());
+        when(donationRepository.findAllById(anyIterable())).thenReturn(List.of(donation));
+        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+
+        // Act
+        int applied = donationService.applyPaymentResults(List.of(event));
+
+        // Assert
+        assertEquals(1, applied);
+        assertEquals(DonationStatus.FAILED, donation.getStatus());
+    }
+
+    @Test
+    void testRefundDonation_UpdatesStatsAndWritesOutboxEvent() throws Exception {
+        // Arrange
+        donation.setStatus(DonationStatus.CAPTURED);
+        when(donationRepository.findById(testDonationId)).thenReturn(Optional.of(donation));
+        when(donationRepository.save(any(Donation.class))).thenReturn(donation);
+        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+
+        // Act
+        DonationResponse response = donationService.refundDonation(testDonationId);
+
+        // Assert
+        assertEquals("REFUNDED", response.getStatus());
+        verify(campaignStatsService).recordRefund(donation);
+
+        ArgumentCaptor<OutboxEvent> outboxCaptor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(outboxCaptor.capture());
+        assertEquals("DONATION_REFUNDED", outboxCaptor.getValue().getEventType());
+    }
+
+    @Test
+    void testRefundDonation_RejectsUncapturedDonation() {
+        // Arrange
+        when(donationRepository.findById(testDonationId)).thenReturn(Optional.of(donation));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> donationService.refundDonation(testDonationId));
+        verify(campaignStatsService, never()).recordRefund(any());
+        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
+    }
+
+    @Test
+    void testRefundDonation_GuestDonation() throws Exception {
+        // Arrange
+        donation.setUserId(null);
+        donation.setStatus(DonationStatus.CAPTURED);
+        when(donationRepository.findById(testDonationId)).thenReturn(Optional.of(donation));
+        when(donationRepository.save(any(Donation.class))).thenReturn(donation);
+        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+
+        // Act
+        DonationResponse response = donationService.refundDonation(testDonationId);
+
+        // Assert
+        assertEquals("REFUNDED", response.getStatus());
+        verify(campaignStatsService).recordRefund(donation);
+    }
+
+    private PaymentResultEvent paymentResult(String paymentId, String status) {
+        PaymentResultEvent event = new PaymentResultEvent();
+        event.setPaymentId(paymentId);
+        event.setDonationId(testDonationId.toString());
+        event.setAmount(new BigDecimal("100.00"));
+        event.setStatus(status);
+        return event;
+    }
 }
@@ -0,0 +1,63 @@
+package com.careforall.donation.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HyperLogLog Tests
+ *
+ * Accuracy and serialization of the donor-count sketch.
+ */
+class HyperLogLogTest {
+
+    @Test
+    void testEmptySketchEstimatesZero() {
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void testDuplicatesDoNotChangeEstimate() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertTrue(sketch.offer("donor@example.com"));
+
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(sketch.offer("donor@example.com"));
+        }
+        assertEquals(1, sketch.estimate());
+    }
+
+    @Test
+    void testEstimateWithinErrorBounds() {
+        for (int distinct : new int[]{100, 10_000, 200_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < distinct; i++) {
+                sketch.offer("donor" + i + "@example.com");
+            }
+
+            double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+            assertTrue(error < 0.05, "estimate " + sketch.estimate() + " for " + distinct + " distinct");
+        }
+    }
+
+    @Test
+    void testRoundTripThroughBytes() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 5000; i++) {
+            sketch.offer("donor" + i + "@example.com");
+        }
+
+        byte[] bytes = sketch.toBytes();
+        assertEquals(HyperLogLog.SIZE_BYTES, bytes.length);
+
+        HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+        assertEquals(sketch.estimate(), restored.estimate());
+        assertFalse(restored.offer("donor42@example.com"));
+    }
+
+    @Test
+    void testMalformedBytesGiveEmptySketch() {
+        assertEquals(0, HyperLogLog.fromBytes(null).estimate());
+        assertEquals(0, HyperLogLog.fromBytes(new byte[10]).estimate());
+    }
+}
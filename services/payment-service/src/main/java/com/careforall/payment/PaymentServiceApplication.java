@@ -3,13 +3,15 @@ package com.careforall.payment;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * HF Payment Service Application
  *
  * This service handles donation payment processing with advanced features:
- * - Idempotency support (24-hour window)
+ * - Idempotency support (24-hour window, expired keys cleared by a scheduled job)
  * - State machine for payment status transitions
+ * - Scheduled reconciler that repairs payments stuck after a lost banking response
  * - Retry logic with exponential backoff (max 3 attempts)
  * - Event-driven architecture with RabbitMQ
  * - H2 database for payment persistence
@@ -27,6 +29,7 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
  */
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableScheduling
 public class PaymentServiceApplication {
 
     public static final String VERSION = "2.0.0-FINAL";
@@ -0,0 +1,85 @@
+package com.careforall.payment.client;
+
+import com.careforall.payment.dto.LedgerStatus;
+import com.careforall.payment.dto.PaymentAuthorizationRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Banking Ledger Client
+ *
+ * Synchronous client for Banking Service's bulk ledger lookup and void. Only the
+ * reconciler uses it; the payment flow itself stays on RabbitMQ.
+ */
+@Component
+public class BankingLedgerClient {
+
+    private static final ParameterizedTypeReference<List<LedgerStatus>> LEDGER_STATUS_LIST =
+        new ParameterizedTypeReference<>() {};
+
+    private final RestClient restClient;
+
+    public BankingLedgerClient(RestClient.Builder builder,
+                               @Value("${payment.reconciler.banking-base-url:http://localhost:8091}") String baseUrl,
+                               @Value("${payment.reconciler.banking-timeout-ms:5000}") long timeoutMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(timeoutMs));
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMs));
+        this.restClient = builder.baseUrl(baseUrl).requestFactory(requestFactory).build();
+    }
+
+    /**
+     * Look up the ledger state of a batch of payments in one request
+     *
+     * @param paymentIds Payment IDs (at most 500)
+     * @return ledger status keyed by payment ID
+     * @throws org.springframework.web.client.RestClientException if banking-service is unreachable
+     */
+    public Map<String, LedgerStatus> getLedgerStatuses(Collection<String> paymentIds) {
+        List<LedgerStatus> statuses = restClient.post()
+            .uri("/api/banking/ledger/status")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(Map.of("paymentIds", paymentIds))
+            .retrieve()
+            .body(LEDGER_STATUS_LIST);
+
+        return byPaymentId(statuses);
+    }
+
+    /**
+     * Void payments banking never answered, so a late request for them is declined
+     * Banking keeps the entries of any payment that reached the ledger in the meantime
+     *
+     * @param payments authorization requests of the payments to void (at most 500)
+     * @return ledger status after the void keyed by payment ID (CANCELLED if voided)
+     * @throws org.springframework.web.client.RestClientException if banking-service is unreachable
+     */
+    public Map<String, LedgerStatus> voidPayments(Collection<PaymentAuthorizationRequest> payments) {
+        List<LedgerStatus> statuses = restClient.post()
+            .uri("/api/banking/ledger/void")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(Map.of("payments", payments))
+            .retrieve()
+            .body(LEDGER_STATUS_LIST);
+
+        return byPaymentId(statuses);
+    }
+
+    private static Map<String, LedgerStatus> byPaymentId(List<LedgerStatus> statuses) {
+        if (statuses == null) {
+            return Map.of();
+        }
+        return statuses.stream().collect(Collectors.toMap(LedgerStatus::getPaymentId, Function.identity(), (a, b) -> a));
+    }
+}
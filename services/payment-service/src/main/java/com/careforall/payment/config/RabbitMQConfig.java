@@ -1,10 +1,12 @@
 package com.careforall.payment.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -38,6 +40,9 @@ public class RabbitMQConfig {
     public static final String BANKING_AUTHORIZE_ROUTING_KEY = "banking.authorize";
     public static final String BANKING_CAPTURE_ROUTING_KEY = "banking.capture";
     public static final String BANKING_RESPONSE_ROUTING_KEY = "banking.response";
+    public static final String BANKING_RESPONSE_DLX = "banking.response.dlx";
+    public static final String BANKING_RESPONSE_DLQ = "banking.response.dlq";
+    public static final String BANKING_RESPONSE_DEAD_ROUTING_KEY = "banking.response.dead";
 
     // ========== Payment Exchange and Queues (for publishing events) ==========
 
@@ -151,6 +156,48 @@ public class RabbitMQConfig {
             .with(BANKING_RESPONSE_ROUTING_KEY);
     }
 
+    // banking.response.queue is also declared by banking-service, so its arguments stay
+    // unchanged; the batch listener republishes events it cannot apply to this DLQ itself
+
+    @Bean
+    public Queue bankingResponseDeadLetterQueue() {
+        return new Queue(BANKING_RESPONSE_DLQ, true);
+    }
+
+    @Bean
+    public TopicExchange bankingResponseDeadLetterExchange() {
+        return new TopicExchange(BANKING_RESPONSE_DLX);
+    }
+
+    @Bean
+    public Binding bankingResponseDeadLetterBinding() {
+        return BindingBuilder
+            .bind(bankingResponseDeadLetterQueue())
+            .to(bankingResponseDeadLetterExchange())
+            .with(BANKING_RESPONSE_DEAD_ROUTING_KEY);
+    }
+
+    /**
+     * Batch listener container for banking responses
+     * Delivers up to batch-size messages per poll; a partial batch is released after receive-timeout.
+     * Messages are acked only after the listener (commit and publisher confirms included) returns.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory bankingResponseBatchContainerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${payment.banking-responses.batch-size:50}") int batchSize,
+            @Value("${payment.banking-responses.receive-timeout-ms:1000}") long receiveTimeout) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(batchSize);
+        factory.setReceiveTimeout(receiveTimeout);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        return factory;
+    }
+
     // ========== Message Converter ==========
 
     @Bean
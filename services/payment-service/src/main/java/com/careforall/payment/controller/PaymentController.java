@@ -7,12 +7,19 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Payment Controller
@@ -24,6 +31,13 @@ import java.util.Map;
 public class PaymentController {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
+    private static final String INCLUDE_METADATA = "metadata";
+
+    @Value("${payment.long-poll.default-timeout-ms:30000}")
+    private long defaultLongPollTimeoutMs = 30000;
+
+    @Value("${payment.long-poll.max-timeout-ms:60000}")
+    private long maxLongPollTimeoutMs = 60000;
 
     @Autowired
     private PaymentService paymentService;
@@ -56,13 +70,83 @@ public class PaymentController {
         }
     }
 
+    /**
+     * Submit a payment asynchronously
+     *
+     * Same processing and idempotency as /process, but answers 202 Accepted with a
+     * Location header pointing at the payment while banking is still in progress
+     * (200 if the idempotency key already has a final result). Callers can then
+     * long-poll GET /api/payments/{paymentId}/result for the outcome.
+     */
+    @PostMapping
+    public ResponseEntity<?> submitPayment(@Valid @RequestBody PaymentRequest request) {
+        try {
+            logger.info("Received async payment request for donation: {}", request.getDonationId());
+            PaymentResponse response = paymentService.processPayment(request);
+
+            URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .path("/{paymentId}")
+                .buildAndExpand(response.getPaymentId())
+                .toUri();
+            HttpStatus status = response.getStatus() != null && response.getStatus().isTerminal()
+                ? HttpStatus.OK
+                : HttpStatus.ACCEPTED;
+            return ResponseEntity.status(status).location(location).body(response);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid payment request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Failed to process payment: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(errorResponse("Payment processing failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Long-poll for the final result of a payment
+     *
+     * Completes with 200 as soon as the payment is CAPTURED or FAILED. If that does
+     * not happen within timeoutMs (capped by payment.long-poll.max-timeout-ms), the
+     * current state is returned with 202 and the caller polls again. The request
+     * thread is released while waiting.
+     */
+    @GetMapping("/{paymentId}/result")
+    public DeferredResult<ResponseEntity<?>> awaitPaymentResult(@PathVariable String paymentId,
+                                                                @RequestParam(required = false) Long timeoutMs) {
+        long timeout = Math.min(timeoutMs != null && timeoutMs > 0 ? timeoutMs : defaultLongPollTimeoutMs,
+            maxLongPollTimeoutMs);
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(timeout);
+
+        Optional<CompletableFuture<PaymentResponse>> waiter;
+        try {
+            waiter = paymentService.awaitFinalResult(paymentId);
+        } catch (IllegalStateException e) {
+            result.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse(e.getMessage())));
+            return result;
+        }
+        if (waiter.isEmpty()) {
+            result.setResult(ResponseEntity.notFound().build());
+            return result;
+        }
+
+        CompletableFuture<PaymentResponse> future = waiter.get();
+        result.onTimeout(() -> result.setResult(paymentService.getPaymentById(paymentId, false)
+            .<ResponseEntity<?>>map(current -> ResponseEntity.status(HttpStatus.ACCEPTED).body(current))
+            .orElse(ResponseEntity.notFound().build())));
+        result.onCompletion(() -> paymentService.cancelWait(paymentId, future));
+        future.thenAccept(response -> result.setResult(ResponseEntity.ok(response)));
+        return result;
+    }
+
     /**
      * Get payment by payment ID
+     * Metadata is only returned with ?include=metadata
      */
     @GetMapping("/{paymentId}")
-    public ResponseEntity<?> getPayment(@PathVariable String paymentId) {
+    public ResponseEntity<?> getPayment(@PathVariable String paymentId,
+                                        @RequestParam(required = false) Set<String> include) {
         try {
-            return paymentService.getPaymentById(paymentId)
+            return paymentService.getPaymentById(paymentId, includes(include, INCLUDE_METADATA))
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
@@ -73,12 +157,14 @@ public class PaymentController {
     }
 
     /**
-     * Get payment by donation ID
+     * Get the latest payment for a donation
+     * Metadata is only returned with ?include=metadata
      */
     @GetMapping("/donation/{donationId}")
-    public ResponseEntity<?> getPaymentByDonation(@PathVariable Long donationId) {
+    public ResponseEntity<?> getPaymentByDonation(@PathVariable String donationId,
+                                                  @RequestParam(required = false) Set<String> include) {
         try {
-            return paymentService.getPaymentByDonationId(donationId)
+            return paymentService.getPaymentByDonationId(donationId, includes(include, INCLUDE_METADATA))
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
@@ -100,6 +186,10 @@ public class PaymentController {
         return ResponseEntity.ok(response);
     }
 
+    private boolean includes(Set<String> include, String field) {
+        return include != null && include.contains(field);
+    }
+
     /**
      * Helper method to create error response
      */
@@ -0,0 +1,35 @@
+package com.careforall.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Ledger Status DTO
+ *
+ * Received from Banking Service's bulk ledger lookup (POST /api/banking/ledger/status).
+ * Status is the furthest ledger state the payment reached:
+ * NONE, AUTHORIZED, CAPTURED, CANCELLED or REFUNDED.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerStatus {
+
+    public static final String NONE = "NONE";
+    public static final String AUTHORIZED = "AUTHORIZED";
+    public static final String CAPTURED = "CAPTURED";
+    public static final String CANCELLED = "CANCELLED";
+    public static final String REFUNDED = "REFUNDED";
+
+    private String paymentId;
+    private String status;
+    private String transactionId;
+    private BigDecimal amount;
+    private LocalDateTime updatedAt;
+}
@@ -26,7 +26,7 @@ public class PaymentRequest {
     private String idempotencyKey;
 
     @NotNull(message = "Donation ID is required")
-    private Long donationId;
+    private String donationId; // Donation UUID as String
 
     @NotNull(message = "User ID is required")
     private Long userId;
@@ -1,6 +1,8 @@
 package com.careforall.payment.dto;
 
+import com.careforall.payment.entity.Payment;
 import com.careforall.payment.enums.PaymentStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,29 +20,65 @@ import java.util.Map;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class PaymentResponse {
 
     private String paymentId;
     private String idempotencyKey;
-    private Long donationId;
+    private String donationId; // Donation UUID as String
     private Long userId;
     private BigDecimal amount;
     private String paymentMethod;
     private PaymentStatus status;
     private String message;
+    @JsonInclude(JsonInclude.Include.NON_NULL) // omitted unless requested with ?include=metadata
     private Map<String, String> metadata;
     private Integer attemptCount;
     private String errorMessage;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private LocalDateTime idempotencyExpiresAt;
     private boolean fromCache; // Indicates if this was returned from idempotency cache
 
+    /**
+     * Convert Payment entity to PaymentResponse
+     */
+    public static PaymentResponse fromEntity(Payment payment) {
+        return PaymentResponse.builder()
+            .paymentId(payment.getPaymentId())
+            .idempotencyKey(payment.getIdempotencyKey())
+            .donationId(payment.getDonationId())
+            .userId(payment.getUserId())
+            .amount(payment.getAmount())
+            .paymentMethod(payment.getPaymentMethod())
+            .status(payment.getStatus())
+            .message(statusMessage(payment.getStatus(), payment.getErrorMessage()))
+            .metadata(payment.getMetadata())
+            .attemptCount(payment.getAttemptCount())
+            .errorMessage(payment.getErrorMessage())
+            .createdAt(payment.getCreatedAt())
+            .updatedAt(payment.getUpdatedAt())
+            .idempotencyExpiresAt(payment.getIdempotencyExpiresAt())
+            .fromCache(false)
+            .build();
+    }
+
+    /**
+     * Human-readable message for a payment status
+     */
+    public static String statusMessage(PaymentStatus status, String errorMessage) {
+        return status == PaymentStatus.CAPTURED
+            ? "Payment processed successfully"
+            : status == PaymentStatus.AUTHORIZED
+            ? "Payment authorized, pending capture"
+            : "Payment created: " + (errorMessage != null ? errorMessage : "Processing");
+    }
+
     /**
      * Create success response
      */
     public static PaymentResponse success(String paymentId, String idempotencyKey,
-                                         Long donationId, BigDecimal amount) {
+                                         String donationId, BigDecimal amount) {
         return PaymentResponse.builder()
             .paymentId(paymentId)
             .idempotencyKey(idempotencyKey)
@@ -56,7 +94,7 @@ public class PaymentResponse {
      * Create failure response
      */
     public static PaymentResponse failure(String paymentId, String idempotencyKey,
-                                         Long donationId, BigDecimal amount, String errorMessage) {
+                                         String donationId, BigDecimal amount, String errorMessage) {
         return PaymentResponse.builder()
             .paymentId(paymentId)
             .idempotencyKey(idempotencyKey)
@@ -0,0 +1,52 @@
+package com.careforall.payment.dto;
+
+import com.careforall.payment.enums.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Payment View
+ *
+ * Read-only projection of the payment columns in PaymentResponse, selected with a
+ * JPQL constructor expression. Skips the metadata column and the persistence
+ * context (no managed entity, no dirty checking), so lookups read only what the
+ * response needs.
+ */
+public record PaymentView(
+    String paymentId,
+    String idempotencyKey,
+    String donationId,
+    Long userId,
+    BigDecimal amount,
+    String paymentMethod,
+    PaymentStatus status,
+    Integer attemptCount,
+    String errorMessage,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt,
+    LocalDateTime idempotencyExpiresAt
+) {
+
+    /**
+     * Convert to PaymentResponse (metadata left out)
+     */
+    public PaymentResponse toResponse() {
+        return PaymentResponse.builder()
+            .paymentId(paymentId)
+            .idempotencyKey(idempotencyKey)
+            .donationId(donationId)
+            .userId(userId)
+            .amount(amount)
+            .paymentMethod(paymentMethod)
+            .status(status)
+            .message(PaymentResponse.statusMessage(status, errorMessage))
+            .attemptCount(attemptCount)
+            .errorMessage(errorMessage)
+            .createdAt(createdAt)
+            .updatedAt(updatedAt)
+            .idempotencyExpiresAt(idempotencyExpiresAt)
+            .fromCache(false)
+            .build();
+    }
+}
@@ -6,6 +6,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -16,16 +19,22 @@ import java.util.Map;
  * Payment Entity
  *
  * Represents a payment transaction with idempotency support and state machine.
+ *
+ * Metadata is a single JSON column (jsonb on PostgreSQL) loaded with the row, and
+ * updates only write the columns that changed (@DynamicUpdate).
  */
 @Entity
 @Table(name = "payments", indexes = {
     @Index(name = "idx_idempotency_key", columnList = "idempotency_key", unique = true),
-    @Index(name = "idx_donation_id", columnList = "donation_id")
+    @Index(name = "idx_donation_created_at", columnList = "donation_id, created_at"),
+    @Index(name = "idx_idempotency_expires_at", columnList = "idempotency_expires_at"),
+    @Index(name = "idx_status_created_at", columnList = "status, created_at")
 })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@DynamicUpdate
 public class Payment {
 
     @Id
@@ -35,11 +44,19 @@ public class Payment {
     @Column(name = "payment_id", nullable = false, unique = true, length = 100)
     private String paymentId;
 
-    @Column(name = "idempotency_key", nullable = false, unique = true, length = 255)
+    /**
+     * Cleared (NULL) by IdempotencyCleanupJob once the idempotency window has passed,
+     * so the key can be reused; the unique index allows any number of NULLs
+     */
+    @Column(name = "idempotency_key", unique = true, length = 255)
     private String idempotencyKey;
 
-    @Column(name = "donation_id", nullable = false)
-    private Long donationId;
+    /**
+     * Donation UUID as String, as donation-service issues it
+     * (DonationIdColumnMigration converts the column on databases that stored a bigint)
+     */
+    @Column(name = "donation_id", nullable = false, length = 36)
+    private String donationId;
 
     @Column(name = "user_id", nullable = false)
     private Long userId;
@@ -54,10 +71,9 @@ public class Payment {
     @Column(name = "status", nullable = false, length = 20)
     private PaymentStatus status;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "payment_metadata", joinColumns = @JoinColumn(name = "payment_id"))
-    @MapKeyColumn(name = "metadata_key")
-    @Column(name = "metadata_value", length = 1000)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "metadata")
+    @Builder.Default
     private Map<String, String> metadata = new HashMap<>();
 
     @Column(name = "attempt_count", nullable = false)
@@ -73,7 +89,10 @@ public class Payment {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
-    @Column(name = "idempotency_expires_at", nullable = false)
+    /**
+     * NULL once the idempotency key has been cleared
+     */
+    @Column(name = "idempotency_expires_at")
     private LocalDateTime idempotencyExpiresAt;
 
     @PrePersist
@@ -116,6 +135,6 @@ public class Payment {
      * Check if idempotency window has expired
      */
     public boolean isIdempotencyExpired() {
-        return LocalDateTime.now().isAfter(idempotencyExpiresAt);
+        return idempotencyExpiresAt == null || LocalDateTime.now().isAfter(idempotencyExpiresAt);
     }
 }
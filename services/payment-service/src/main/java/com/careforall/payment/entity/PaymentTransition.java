@@ -0,0 +1,51 @@
+package com.careforall.payment.entity;
+
+import com.careforall.payment.enums.PaymentStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Payment Transition Entity
+ *
+ * Append-only history of applied payment status changes, written in batches by
+ * PaymentTransitionAuditLog. occurredAt is the time of the transition, not of the
+ * (later) insert.
+ *
+ * IDs come from a pooled sequence so a batch is sent as one JDBC batch insert.
+ */
+@Entity
+@Immutable
+@Table(name = "payment_transitions", indexes = {
+    @Index(name = "idx_transition_payment_id", columnList = "payment_id, occurred_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentTransition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_transitions_seq")
+    @SequenceGenerator(name = "payment_transitions_seq", sequenceName = "payment_transitions_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "payment_id", nullable = false, length = 100)
+    private String paymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", nullable = false, length = 20)
+    private PaymentStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false, length = 20)
+    private PaymentStatus toStatus;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
@@ -23,7 +23,7 @@ public class DonationEvent implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    private Long donationId;
+    private String donationId; // Donation UUID as String
     private Long campaignId;
     private Long userId;
     private BigDecimal amount;
@@ -24,7 +24,7 @@ public class PaymentEvent implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private String paymentId;
-    private Long donationId;
+    private String donationId; // Donation UUID as String
     private Long userId;
     private BigDecimal amount;
     private String status; // COMPLETED or FAILED
@@ -1,27 +1,52 @@
 package com.careforall.payment.listener;
 
+import com.careforall.payment.config.RabbitMQConfig;
 import com.careforall.payment.entity.Payment;
 import com.careforall.payment.enums.PaymentStatus;
 import com.careforall.payment.event.BankingEvent;
 import com.careforall.payment.event.PaymentEvent;
+import com.careforall.payment.outbox.OutboxEvent;
+import com.careforall.payment.outbox.OutboxWriter;
 import com.careforall.payment.repository.PaymentRepository;
+import com.careforall.payment.service.IdempotencyCache;
+import com.careforall.payment.service.PaymentCompletionWaiters;
 import com.careforall.payment.statemachine.PaymentStateMachine;
+import com.careforall.payment.statemachine.TransitionResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Banking Event Listener
  *
  * Listens to events from Banking Service and updates payment status accordingly.
  * Handles: PAYMENT_AUTHORIZED, PAYMENT_CAPTURED, PAYMENT_FAILED
+ *
+ * Consumes in batches by default (payment.banking-responses.*); set batch-enabled=false
+ * to fall back to one event per transaction.
  */
 @Component
 public class BankingEventListener {
@@ -38,13 +63,33 @@ public class BankingEventListener {
     @Autowired
     private PaymentStateMachine stateMachine;
 
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private PaymentCompletionWaiters completionWaiters;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Autowired
     private RabbitTemplate rabbitTemplate;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${payment.banking-responses.max-attempts:3}")
+    private int maxAttempts = 3;
+
     /**
      * Listen to banking response queue for authorization/capture/failure events
+     * Single-event mode, used when payment.banking-responses.batch-enabled=false
      */
-    @RabbitListener(queues = "banking.response.queue")
+    @RabbitListener(queues = RabbitMQConfig.BANKING_RESPONSE_QUEUE,
+                    autoStartup = "#{!${payment.banking-responses.batch-enabled:true}}")
     @Transactional
     public void handleBankingEvent(BankingEvent event) {
         logger.info("Received banking event: {} for payment: {}",
@@ -60,110 +105,246 @@ public class BankingEventListener {
             }
 
             Payment payment = paymentOpt.get();
+            PaymentEvent outbound = applyEvent(payment, event);
+            paymentRepository.save(payment);
 
-            // Handle event based on type
-            switch (event.getEventType()) {
-                case "PAYMENT_AUTHORIZED":
-                    handlePaymentAuthorized(payment, event);
-                    break;
+            if (outbound != null) {
+                publishPaymentEvent(outbound);
+            }
 
-                case "PAYMENT_CAPTURED":
-                    handlePaymentCaptured(payment, event);
-                    break;
+            // Retried requests for this key and long-poll waiters see the new status (after commit)
+            idempotencyCache.refresh(payment);
+            completionWaiters.paymentUpdated(payment);
 
-                case "PAYMENT_FAILED":
-                    handlePaymentFailed(payment, event);
-                    break;
+        } catch (Exception e) {
+            logger.error("Error processing banking event for payment {}: {}",
+                event.getPaymentId(), e.getMessage(), e);
+        }
+    }
 
-                default:
-                    logger.warn("Unknown event type: {}", event.getEventType());
+    /**
+     * Batch mode: apply up to batch-size banking events in one transaction
+     *
+     * All referenced payments are loaded with one IN query, transitions are applied in
+     * memory in arrival order and flushed at commit together with their outbox rows
+     * (JDBC-batched). The container acks the messages once this method returns.
+     * If the batch fails, each event is retried on its own, up to max-attempts times;
+     * an event that still fails is dead-lettered to banking.response.dlq, unless the
+     * failure is a transient database fault, which requeues the batch. Redelivery is
+     * safe because same-state transitions are idempotent (donation-service may see a
+     * duplicate event).
+     */
+    @RabbitListener(queues = RabbitMQConfig.BANKING_RESPONSE_QUEUE,
+                    containerFactory = "bankingResponseBatchContainerFactory",
+                    autoStartup = "${payment.banking-responses.batch-enabled:true}")
+    public void handleBankingEvents(List<Message> messages) {
+        List<Message> readable = new ArrayList<>(messages.size());
+        List<BankingEvent> events = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            try {
+                events.add(objectMapper.readValue(message.getBody(), BankingEvent.class));
+                readable.add(message);
+            } catch (Exception e) {
+                // Malformed payloads can never succeed - drop them rather than requeue the batch
+                logger.error("Discarding unreadable banking event: {}", e.getMessage());
             }
+        }
+
+        if (events.isEmpty()) {
+            return;
+        }
 
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyBatch(events));
         } catch (Exception e) {
-            logger.error("Error processing banking event for payment {}: {}",
-                event.getPaymentId(), e.getMessage(), e);
+            logger.warn("Batch of {} banking events failed ({}), retrying individually",
+                events.size(), e.getMessage());
+
+            for (int i = 0; i < events.size(); i++) {
+                applyIndividually(events.get(i), readable.get(i));
+            }
+        }
+    }
+
+    /**
+     * Apply one event in its own transaction, up to max-attempts times
+     * A transient database fault propagates so the container requeues the batch;
+     * any other failure dead-letters the event and lets the batch complete.
+     */
+    private void applyIndividually(BankingEvent event, Message message) {
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyBatch(List.of(event)));
+                return;
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        if (isTransient(failure)) {
+            throw failure;
+        }
+        logger.error("Banking event {} for payment {} failed {} times, dead-lettering it: {}",
+            event.getEventType(), event.getPaymentId(), maxAttempts, failure.getMessage(), failure);
+        rabbitTemplate.send(RabbitMQConfig.BANKING_RESPONSE_DLX, RabbitMQConfig.BANKING_RESPONSE_DEAD_ROUTING_KEY, message);
+    }
+
+    /**
+     * Database unreachable, timed out or in a lock conflict: worth redelivering
+     */
+    static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Apply a batch of banking events to their payments inside the caller's transaction
+     */
+    private void applyBatch(List<BankingEvent> events) {
+        Set<String> paymentIds = events.stream().map(BankingEvent::getPaymentId).collect(Collectors.toSet());
+        Map<String, Payment> payments = paymentRepository.findByPaymentIdIn(paymentIds).stream()
+            .collect(Collectors.toMap(Payment::getPaymentId, Function.identity()));
+
+        for (BankingEvent event : events) {
+            Payment payment = payments.get(event.getPaymentId());
+            if (payment == null) {
+                logger.error("Payment not found: {}", event.getPaymentId());
+                continue;
+            }
+            PaymentEvent outbound = applyEvent(payment, event);
+            if (outbound != null) {
+                publishPaymentEvent(outbound);
+            }
+        }
+
+        // Managed payments are flushed at commit; the cache refresh and waiters also wait for commit
+        payments.values().forEach(idempotencyCache::refresh);
+        payments.values().forEach(completionWaiters::paymentUpdated);
+    }
+
+    /**
+     * Apply one banking event to the payment in memory
+     *
+     * @return event to publish to donation-service, or null if none
+     */
+    private PaymentEvent applyEvent(Payment payment, BankingEvent event) {
+        switch (event.getEventType()) {
+            case "PAYMENT_AUTHORIZED":
+                return handlePaymentAuthorized(payment, event);
+
+            case "PAYMENT_CAPTURED":
+                return handlePaymentCaptured(payment, event);
+
+            case "PAYMENT_FAILED":
+                return handlePaymentFailed(payment, event);
+
+            default:
+                logger.warn("Unknown event type: {}", event.getEventType());
+                return null;
         }
     }
 
     /**
      * Handle payment authorization success from Banking Service
      */
-    private void handlePaymentAuthorized(Payment payment, BankingEvent event) {
+    private PaymentEvent handlePaymentAuthorized(Payment payment, BankingEvent event) {
         logger.info("Processing PAYMENT_AUTHORIZED for payment: {}", payment.getPaymentId());
 
         try {
             // Transition to AUTHORIZED state using state machine
-            stateMachine.transitionToAuthorized(payment);
+            TransitionResult result = stateMachine.tryTransition(payment, PaymentStatus.AUTHORIZED);
+            if (isStale(payment, result)) {
+                return null;
+            }
+            if (!result.isAllowed()) {
+                return failPayment(payment, "Failed to process authorization: " + result
+                    + " from " + payment.getStatus());
+            }
 
             // Add banking transaction metadata
             payment.addMetadata("banking_transaction_id", event.getTransactionId());
             payment.addMetadata("authorization_time", event.getTimestamp().toString());
             payment.addMetadata("banking_status", event.getStatus());
 
-            paymentRepository.save(payment);
-
             logger.info("Payment {} successfully authorized with transaction ID: {}",
                 payment.getPaymentId(), event.getTransactionId());
 
             // Note: We don't publish to donation-service yet - waiting for CAPTURED
+            return null;
 
         } catch (Exception e) {
             logger.error("Failed to process authorization for payment {}: {}",
                 payment.getPaymentId(), e.getMessage(), e);
 
             // Mark as failed and publish failure event
-            payment.setStatus(PaymentStatus.FAILED);
-            payment.setErrorMessage("Failed to process authorization: " + e.getMessage());
-            paymentRepository.save(payment);
-            publishPaymentFailedEvent(payment);
+            return failPayment(payment, "Failed to process authorization: " + e.getMessage());
         }
     }
 
     /**
      * Handle payment capture success from Banking Service
      */
-    private void handlePaymentCaptured(Payment payment, BankingEvent event) {
+    private PaymentEvent handlePaymentCaptured(Payment payment, BankingEvent event) {
         logger.info("Processing PAYMENT_CAPTURED for payment: {}", payment.getPaymentId());
 
         try {
+            // Banking authorizes and captures in one step and answers with the capture only
+            if (payment.getStatus() == PaymentStatus.CREATED) {
+                stateMachine.tryTransition(payment, PaymentStatus.AUTHORIZED);
+                payment.addMetadata("banking_transaction_id", event.getTransactionId());
+                payment.addMetadata("authorization_time", event.getTimestamp().toString());
+            }
+
             // Transition to CAPTURED state using state machine
-            stateMachine.transitionToCaptured(payment);
+            TransitionResult result = stateMachine.tryTransition(payment, PaymentStatus.CAPTURED);
+            if (isStale(payment, result)) {
+                return null;
+            }
+            if (!result.isAllowed()) {
+                return failPayment(payment, "Failed to process capture: " + result
+                    + " from " + payment.getStatus());
+            }
 
             // Update metadata with capture details
             payment.addMetadata("capture_time", event.getTimestamp().toString());
             payment.addMetadata("final_amount", event.getAmount().toString());
             payment.addMetadata("completion_time", LocalDateTime.now().toString());
 
-            paymentRepository.save(payment);
-
             logger.info("Payment {} successfully captured for amount: {}",
                 payment.getPaymentId(), event.getAmount());
 
             // Publish PAYMENT_COMPLETED event to donation-service
-            publishPaymentCompletedEvent(payment);
+            return paymentEvent(payment, PaymentStatus.CAPTURED);
 
         } catch (Exception e) {
             logger.error("Failed to process capture for payment {}: {}",
                 payment.getPaymentId(), e.getMessage(), e);
 
             // Mark as failed and publish failure event
-            payment.setStatus(PaymentStatus.FAILED);
-            payment.setErrorMessage("Failed to process capture: " + e.getMessage());
-            paymentRepository.save(payment);
-            publishPaymentFailedEvent(payment);
+            return failPayment(payment, "Failed to process capture: " + e.getMessage());
         }
     }
 
     /**
      * Handle payment failure from Banking Service
      */
-    private void handlePaymentFailed(Payment payment, BankingEvent event) {
+    private PaymentEvent handlePaymentFailed(Payment payment, BankingEvent event) {
         logger.warn("Processing PAYMENT_FAILED for payment: {} - Reason: {}",
             payment.getPaymentId(), event.getFailureReason());
 
         try {
             // Update payment status to FAILED
-            payment.setStatus(PaymentStatus.FAILED);
+            stateMachine.transitionToFailed(payment);
             payment.setErrorMessage(event.getFailureReason());
 
             // Add failure metadata
@@ -173,55 +354,66 @@ public class BankingEventListener {
                 payment.addMetadata("banking_transaction_id", event.getTransactionId());
             }
 
-            paymentRepository.save(payment);
-
             logger.info("Payment {} marked as failed: {}",
                 payment.getPaymentId(), event.getFailureReason());
 
             // Publish PAYMENT_FAILED event to donation-service
-            publishPaymentFailedEvent(payment);
+            return paymentEvent(payment, PaymentStatus.FAILED);
 
         } catch (Exception e) {
             logger.error("Failed to process payment failure for payment {}: {}",
                 payment.getPaymentId(), e.getMessage(), e);
+            return null;
         }
     }
 
     /**
-     * Publish payment completed event to donation-service
+     * A success event for a state the payment has already moved past (a redelivery or
+     * an out-of-order webhook) is ignored instead of failing the payment
      */
-    private void publishPaymentCompletedEvent(Payment payment) {
-        PaymentEvent event = new PaymentEvent(
-            payment.getPaymentId(),
-            payment.getDonationId(),
-            payment.getUserId(),
-            payment.getAmount(),
-            PaymentStatus.CAPTURED.name(),
-            LocalDateTime.now()
-        );
-
-        rabbitTemplate.convertAndSend(PAYMENT_EXCHANGE, PAYMENT_COMPLETED_ROUTING_KEY, event);
+    private boolean isStale(Payment payment, TransitionResult result) {
+        if (result == TransitionResult.REJECTED_BACKWARD) {
+            logger.info("Ignoring stale event for payment {} already in status {}",
+                payment.getPaymentId(), payment.getStatus());
+            return true;
+        }
+        return false;
+    }
 
-        logger.info("Published PAYMENT_COMPLETED event for payment: {} to donation-service",
-            payment.getPaymentId());
+    /**
+     * Mark the payment FAILED and build the failure event for donation-service
+     */
+    private PaymentEvent failPayment(Payment payment, String errorMessage) {
+        stateMachine.transitionToFailed(payment);
+        payment.setErrorMessage(errorMessage);
+        return paymentEvent(payment, PaymentStatus.FAILED);
     }
 
     /**
-     * Publish payment failed event to donation-service
+     * Build the donation-service event for a payment outcome
      */
-    private void publishPaymentFailedEvent(Payment payment) {
-        PaymentEvent event = new PaymentEvent(
+    private PaymentEvent paymentEvent(Payment payment, PaymentStatus status) {
+        return new PaymentEvent(
             payment.getPaymentId(),
             payment.getDonationId(),
             payment.getUserId(),
             payment.getAmount(),
-            PaymentStatus.FAILED.name(),
+            status.name(),
             LocalDateTime.now()
         );
+    }
+
+    /**
+     * Queue payment completed/failed event to donation-service in the current transaction
+     * OutboxPublisher relays it to payment.exchange after commit
+     */
+    private void publishPaymentEvent(PaymentEvent event) {
+        String eventType = PaymentStatus.CAPTURED.name().equals(event.getStatus())
+            ? OutboxEvent.PAYMENT_COMPLETED
+            : OutboxEvent.PAYMENT_FAILED;
 
-        rabbitTemplate.convertAndSend(PAYMENT_EXCHANGE, PAYMENT_FAILED_ROUTING_KEY, event);
+        outboxWriter.enqueue(eventType, event.getPaymentId(), event);
 
-        logger.info("Published PAYMENT_FAILED event for payment: {} to donation-service",
-            payment.getPaymentId());
+        logger.info("Queued {} event for payment: {} to donation-service", eventType, event.getPaymentId());
     }
 }
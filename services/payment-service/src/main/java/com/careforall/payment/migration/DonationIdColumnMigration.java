@@ -0,0 +1,35 @@
+package com.careforall.payment.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Donation ID Column Migration
+ *
+ * Donations are identified by UUID, but payments.donation_id was created as a bigint,
+ * and ddl-auto=update never changes the type of an existing column. Converts it to
+ * varchar on databases created before that change; on an already-varchar column the
+ * statement is a no-op.
+ */
+@Component
+public class DonationIdColumnMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DonationIdColumnMigration.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            jdbcTemplate.execute("ALTER TABLE payments ALTER COLUMN donation_id TYPE VARCHAR(36) USING donation_id::text");
+        } catch (Exception e) {
+            logger.warn("Could not convert payments.donation_id to varchar: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.careforall.payment.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Idempotency Columns Migration
+ *
+ * Expired idempotency keys are now cleared to NULL, but ddl-auto=update never relaxes
+ * an existing NOT NULL constraint. Drops it on databases created before that change;
+ * on already-nullable columns the statements are no-ops.
+ */
+@Component
+public class IdempotencyColumnsMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyColumnsMigration.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String column : new String[]{"idempotency_key", "idempotency_expires_at"}) {
+            try {
+                jdbcTemplate.execute("ALTER TABLE payments ALTER COLUMN " + column + " DROP NOT NULL");
+            } catch (Exception e) {
+                logger.warn("Could not make payments.{} nullable: {}", column, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.careforall.payment.migration;
+
+import com.careforall.payment.entity.Payment;
+import com.careforall.payment.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payment Metadata Migration
+ *
+ * One-time move of the legacy payment_metadata element-collection table into the
+ * payments.metadata JSON column. Copies rows in chunks of payments, merging them into
+ * whatever the JSON column already holds (keys already there win), and finally renames
+ * the old table to payment_metadata_migrated so it never runs twice.
+ *
+ * Runs once all singletons exist but before the context is refreshed, so before the
+ * RabbitMQ listeners, the outbox relay and the web server start: nothing reads or
+ * writes payment metadata until the copy is complete.
+ */
+@Component
+public class PaymentMetadataMigration implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentMetadataMigration.class);
+    private static final String LEGACY_TABLE = "payment_metadata";
+    private static final int CHUNK_SIZE = 500;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrate();
+    }
+
+    /**
+     * Copy legacy metadata rows into the JSON column
+     *
+     * @return number of payments migrated
+     */
+    public int migrate() {
+        if (!legacyTableExists()) {
+            return 0;
+        }
+
+        logger.info("Migrating {} rows into payments.metadata", LEGACY_TABLE);
+
+        int migrated = 0;
+        long lastPaymentId = 0;
+        while (true) {
+            List<Long> paymentIds = jdbcTemplate.queryForList(
+                "SELECT DISTINCT payment_id FROM " + LEGACY_TABLE +
+                " WHERE payment_id > ? ORDER BY payment_id LIMIT " + CHUNK_SIZE,
+                Long.class, lastPaymentId);
+            if (paymentIds.isEmpty()) {
+                break;
+            }
+
+            Integer chunk = transactionTemplate.execute(status -> migrateChunk(paymentIds));
+            migrated += chunk != null ? chunk : 0;
+            lastPaymentId = paymentIds.get(paymentIds.size() - 1);
+        }
+
+        jdbcTemplate.execute("ALTER TABLE " + LEGACY_TABLE + " RENAME TO " + LEGACY_TABLE + "_migrated");
+        logger.info("Migrated metadata for {} payments; legacy table renamed to {}_migrated", migrated, LEGACY_TABLE);
+        return migrated;
+    }
+
+    private int migrateChunk(List<Long> paymentIds) {
+        Map<Long, Map<String, String>> metadataByPayment = new HashMap<>();
+        String placeholders = String.join(",", paymentIds.stream().map(id -> "?").toList());
+        jdbcTemplate.query(
+            "SELECT payment_id, metadata_key, metadata_value FROM " + LEGACY_TABLE +
+            " WHERE payment_id IN (" + placeholders + ")",
+            rs -> {
+                metadataByPayment
+                    .computeIfAbsent(rs.getLong("payment_id"), id -> new HashMap<>())
+                    .put(rs.getString("metadata_key"), rs.getString("metadata_value"));
+            },
+            paymentIds.toArray());
+
+        int migrated = 0;
+        for (Payment payment : paymentRepository.findAllById(paymentIds)) {
+            Map<String, String> merged = payment.getMetadata() != null
+                ? new HashMap<>(payment.getMetadata())
+                : new HashMap<>();
+            metadataByPayment.getOrDefault(payment.getId(), Map.of()).forEach(merged::putIfAbsent);
+            payment.setMetadata(merged);
+            migrated++;
+        }
+        return migrated;
+    }
+
+    private boolean legacyTableExists() {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : new String[]{LEGACY_TABLE, LEGACY_TABLE.toUpperCase()}) {
+                try (ResultSet tables = metaData.getTables(null, null, name, new String[]{"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } catch (SQLException e) {
+            logger.warn("Could not check for legacy {} table: {}", LEGACY_TABLE, e.getMessage());
+            return false;
+        }
+    }
+}
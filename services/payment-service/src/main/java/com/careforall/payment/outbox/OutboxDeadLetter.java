@@ -0,0 +1,108 @@
+package com.careforall.payment.outbox;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox Dead Letter Entity
+ *
+ * Holds outbox events that exhausted their publish retries. Rows are kept
+ * for auditing and can be replayed back into the outbox by an operator.
+ */
+@Entity
+@Table(name = "outbox_dead_letters", indexes = {
+    @Index(name = "idx_dead_letter_replayed", columnList = "replayed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * ID of the outbox row this dead letter was created from
+     */
+    @Column(nullable = false)
+    private Long originalEventId;
+
+    @Column(nullable = false, length = 255)
+    private String aggregateId;
+
+    @Column(nullable = false, length = 50)
+    private String aggregateType;
+
+    @Column(nullable = false, length = 50)
+    private String eventType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    /**
+     * Number of publish attempts made before giving up
+     */
+    @Column(nullable = false)
+    private Integer retryCount;
+
+    /**
+     * Last error seen while publishing
+     */
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+
+    /**
+     * When the original outbox event was created
+     */
+    @Column(nullable = false)
+    private LocalDateTime originalCreatedAt;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime deadLetteredAt;
+
+    /**
+     * Set when the dead letter has been replayed into the outbox
+     */
+    private LocalDateTime replayedAt;
+
+    /**
+     * Factory method to create a dead letter from an exhausted outbox event
+     */
+    public static OutboxDeadLetter from(OutboxEvent event) {
+        OutboxDeadLetter deadLetter = new OutboxDeadLetter();
+        deadLetter.setOriginalEventId(event.getId());
+        deadLetter.setAggregateId(event.getAggregateId());
+        deadLetter.setAggregateType(event.getAggregateType());
+        deadLetter.setEventType(event.getEventType());
+        deadLetter.setPayload(event.getPayload());
+        deadLetter.setRetryCount(event.getRetryCount());
+        deadLetter.setErrorMessage(event.getErrorMessage());
+        deadLetter.setOriginalCreatedAt(event.getCreatedAt());
+        return deadLetter;
+    }
+
+    /**
+     * Create a fresh PENDING outbox event carrying the same payload
+     */
+    public OutboxEvent toOutboxEvent() {
+        return OutboxEvent.create(aggregateId, aggregateType, eventType, payload);
+    }
+
+    /**
+     * Mark dead letter as replayed
+     */
+    public void markAsReplayed() {
+        this.replayedAt = LocalDateTime.now();
+    }
+
+    public boolean isReplayed() {
+        return replayedAt != null;
+    }
+}
@@ -0,0 +1,148 @@
+package com.careforall.payment.outbox;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox Event Entity
+ *
+ * Implements the Transactional Outbox Pattern for reliable event publishing.
+ * Payment events and banking requests are stored in the same transaction as the
+ * payment change, then published to the broker by OutboxPublisher.
+ *
+ * IDs come from a pooled sequence rather than IDENTITY so that the inserts of a
+ * batch listener transaction can be sent as one JDBC batch.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    // Event types (each maps to one exchange / routing key in OutboxPublisher)
+    public static final String PAYMENT_COMPLETED = "PAYMENT_COMPLETED";
+    public static final String PAYMENT_FAILED = "PAYMENT_FAILED";
+    public static final String BANKING_AUTHORIZE = "BANKING_AUTHORIZE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * ID of the aggregate (payment ID)
+     */
+    @Column(nullable = false, length = 255)
+    private String aggregateId;
+
+    /**
+     * Type of aggregate (e.g., "PAYMENT")
+     */
+    @Column(nullable = false, length = 50)
+    private String aggregateType;
+
+    /**
+     * Type of event (e.g., "PAYMENT_COMPLETED", "BANKING_AUTHORIZE")
+     */
+    @Column(nullable = false, length = 50)
+    private String eventType;
+
+    /**
+     * Event payload as JSON string
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    /**
+     * Processing status of the event
+     */
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private EventStatus status;
+
+    /**
+     * Timestamp when the event was created
+     */
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Timestamp when the event was processed
+     */
+    private LocalDateTime processedAt;
+
+    /**
+     * Number of retry attempts
+     */
+    @Column(nullable = false)
+    private Integer retryCount = 0;
+
+    /**
+     * Earliest time the event may be picked up again after a failed publish.
+     * NULL means the event is eligible immediately.
+     */
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * Error message if processing failed
+     */
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+
+    /**
+     * Event status enum
+     */
+    public enum EventStatus {
+        PENDING,
+        PUBLISHED,
+        FAILED
+    }
+
+    /**
+     * Factory method to create a new outbox event
+     */
+    public static OutboxEvent create(String aggregateId, String aggregateType, String eventType, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateId(aggregateId);
+        event.setAggregateType(aggregateType);
+        event.setEventType(eventType);
+        event.setPayload(payload);
+        event.setStatus(EventStatus.PENDING);
+        event.setRetryCount(0);
+        return event;
+    }
+
+    /**
+     * Mark event as failed
+     */
+    public void markAsFailed(String errorMessage) {
+        this.status = EventStatus.FAILED;
+        this.errorMessage = errorMessage;
+        this.processedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Put the event back into the queue, not to be retried before the given time
+     */
+    public void scheduleRetry(LocalDateTime nextAttemptAt, String errorMessage) {
+        this.status = EventStatus.PENDING;
+        this.nextAttemptAt = nextAttemptAt;
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * Increment retry count
+     */
+    public void incrementRetryCount() {
+        this.retryCount++;
+    }
+}
@@ -0,0 +1,54 @@
+package com.careforall.payment.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Outbox Event Repository
+ *
+ * Data access layer for OutboxEvent entity.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Find the next batch of pending events to publish, in insertion order
+     * Events waiting out a retry backoff are skipped until nextAttemptAt has passed
+     */
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = 'PENDING' " +
+           "AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) ORDER BY e.id ASC")
+    List<OutboxEvent> findPendingEvents(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Mark a published batch in one statement
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.status = 'PUBLISHED', e.processedAt = :now WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Find events for one aggregate (payment), oldest first
+     */
+    List<OutboxEvent> findByAggregateIdOrderByIdAsc(String aggregateId);
+
+    /**
+     * Find the oldest event still waiting to be published (for outbox age monitoring)
+     */
+    Optional<OutboxEvent> findFirstByStatusOrderByCreatedAtAsc(OutboxEvent.EventStatus status);
+
+    /**
+     * Count events by status
+     */
+    long countByStatus(OutboxEvent.EventStatus status);
+}
@@ -0,0 +1,365 @@
+package com.careforall.payment.outbox;
+
+import com.careforall.payment.config.RabbitMQConfig;
+import com.careforall.payment.dto.PaymentAuthorizationRequest;
+import com.careforall.payment.event.PaymentEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbox Publisher
+ *
+ * Relays outbox events to RabbitMQ off the request path. Runs after every committed
+ * outbox write (see OutboxWriter) and on a short poll as a safety net.
+ *
+ * Pending events are read in batches; each batch is sent on one channel and the relay
+ * waits once for all publisher confirms before marking the batch published with a
+ * single UPDATE. Delivery is at-least-once: a crash between confirm and UPDATE
+ * republishes the batch. Failed publishes are retried with jittered exponential
+ * backoff, and events that exhaust their retries move to the dead-letter table.
+ */
+@Service
+public class OutboxPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxPublisher.class);
+
+    @Value("${payment.outbox.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${payment.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun = 20;
+
+    @Value("${payment.outbox.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs = 5000;
+
+    @Value("${payment.outbox.retry.max-attempts:5}")
+    private int maxRetries = 5;
+
+    @Value("${payment.outbox.retry.base-delay-ms:5000}")
+    private long baseDelayMs = 5000;
+
+    @Value("${payment.outbox.retry.max-delay-ms:300000}")
+    private long maxDelayMs = 300000;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxDeadLetterRepository deadLetterRepository;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ExecutorService relayExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "payment-outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean publishRequested = new AtomicBoolean();
+
+    private Counter publishedCounter;
+    private Counter retryCounter;
+    private Counter deadLetterCounter;
+    private Timer publishLagTimer;
+    private Timer batchTimer;
+    private final AtomicLong pendingGauge = new AtomicLong();
+    private final AtomicLong oldestPendingAgeSeconds = new AtomicLong();
+
+    /**
+     * Register outbox metrics
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        publishedCounter = Counter.builder("outbox.events.published")
+            .description("Outbox events successfully published to the broker")
+            .register(meterRegistry);
+        retryCounter = Counter.builder("outbox.events.retries")
+            .description("Failed publish attempts that were scheduled for retry")
+            .register(meterRegistry);
+        deadLetterCounter = Counter.builder("outbox.events.dead_lettered")
+            .description("Outbox events moved to the dead-letter table")
+            .register(meterRegistry);
+        publishLagTimer = Timer.builder("outbox.events.publish.lag")
+            .description("Time between outbox event creation and successful publish")
+            .register(meterRegistry);
+        batchTimer = Timer.builder("outbox.events.publish.batch")
+            .description("Time to publish and confirm one outbox batch")
+            .register(meterRegistry);
+        Gauge.builder("outbox.events.pending", pendingGauge, AtomicLong::get)
+            .description("Outbox events waiting to be published")
+            .register(meterRegistry);
+        Gauge.builder("outbox.events.oldest.age.seconds", oldestPendingAgeSeconds, AtomicLong::get)
+            .description("Age of the oldest pending outbox event")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relayExecutor.shutdown();
+    }
+
+    /**
+     * Ask for a relay run on the background thread
+     * Requests arriving while one is already queued are coalesced into it
+     */
+    public void requestPublish() {
+        if (publishRequested.compareAndSet(false, true)) {
+            relayExecutor.execute(() -> {
+                publishRequested.set(false);
+                try {
+                    publishPendingEvents();
+                } catch (Exception e) {
+                    logger.error("Outbox relay run failed: {}", e.getMessage(), e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Safety-net poll for events whose after-commit run was missed or that wait on a retry
+     */
+    @Scheduled(fixedDelayString = "${payment.outbox.poll-interval-ms:1000}",
+               initialDelayString = "${payment.outbox.initial-delay-ms:5000}")
+    public void poll() {
+        publishPendingEvents();
+    }
+
+    /**
+     * Publish pending events batch by batch until none are left or the batch cap is hit
+     * Synchronized so the poll and after-commit runs never publish the same rows twice
+     *
+     * @return number of events published
+     */
+    public synchronized int publishPendingEvents() {
+        LocalDateTime now = LocalDateTime.now();
+        int published = 0;
+
+        for (int batchNumber = 0; batchNumber < maxBatchesPerRun; batchNumber++) {
+            List<OutboxEvent> batch = outboxEventRepository.findPendingEvents(now, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            published += publishBatch(batch);
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        updateBacklogGauges(LocalDateTime.now());
+        if (published > 0) {
+            logger.info("Published {} outbox events", published);
+        }
+        return published;
+    }
+
+    /**
+     * Publish one batch on a single channel and wait once for all confirms
+     */
+    private int publishBatch(List<OutboxEvent> batch) {
+        List<OutboxEvent> sendable = new ArrayList<>(batch.size());
+        List<Object> payloads = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            try {
+                payloads.add(objectMapper.readValue(event.getPayload(), payloadType(event.getEventType())));
+                sendable.add(event);
+            } catch (Exception e) {
+                logger.error("Cannot publish outbox event {}: {}", event.getId(), e.getMessage());
+                transactionTemplate.executeWithoutResult(status -> handlePublishFailure(event, e));
+            }
+        }
+
+        if (sendable.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            batchTimer.record(() -> rabbitTemplate.invoke(operations -> {
+                for (int i = 0; i < sendable.size(); i++) {
+                    String eventType = sendable.get(i).getEventType();
+                    operations.convertAndSend(exchange(eventType), routingKey(eventType), payloads.get(i));
+                }
+                operations.waitForConfirmsOrDie(confirmTimeoutMs);
+                return null;
+            }));
+        } catch (Exception e) {
+            logger.error("Failed to publish outbox batch of {} events: {}", sendable.size(), e.getMessage());
+            transactionTemplate.executeWithoutResult(status ->
+                sendable.forEach(event -> handlePublishFailure(event, e)));
+            return 0;
+        }
+
+        LocalDateTime publishedAt = LocalDateTime.now();
+        outboxEventRepository.markPublished(sendable.stream().map(OutboxEvent::getId).toList(), publishedAt);
+
+        publishedCounter.increment(sendable.size());
+        for (OutboxEvent event : sendable) {
+            if (event.getCreatedAt() != null) {
+                publishLagTimer.record(Duration.between(event.getCreatedAt(), publishedAt));
+            }
+        }
+        return sendable.size();
+    }
+
+    /**
+     * Handle event publishing failure
+     * Schedules a backed-off retry, or dead-letters the event once retries are exhausted
+     */
+    private void handlePublishFailure(OutboxEvent event, Exception e) {
+        event.incrementRetryCount();
+        String errorMessage = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+
+        if (event.getRetryCount() >= maxRetries) {
+            event.markAsFailed(errorMessage);
+            deadLetterRepository.save(OutboxDeadLetter.from(event));
+            outboxEventRepository.deleteById(event.getId());
+            deadLetterCounter.increment();
+            logger.error("Event {} failed after {} retries. Moved to dead-letter table.",
+                event.getId(), event.getRetryCount());
+            return;
+        }
+
+        Duration delay = calculateBackoff(event.getRetryCount());
+        event.scheduleRetry(LocalDateTime.now().plus(delay), errorMessage);
+        outboxEventRepository.save(event);
+        retryCounter.increment();
+
+        logger.warn("Event {} failed, retry count: {}, next attempt in {} ms",
+            event.getId(), event.getRetryCount(), delay.toMillis());
+    }
+
+    /**
+     * Exponential backoff with jitter: random delay in [base/2, min(max, base * 2^(attempt-1))]
+     * Jitter spreads retries from a broker outage instead of firing them all on one tick.
+     */
+    Duration calculateBackoff(int attempt) {
+        int exponent = Math.min(Math.max(attempt - 1, 0), 20);
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << exponent);
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        return Duration.ofMillis(Math.max(delay, baseDelayMs / 2));
+    }
+
+    /**
+     * Refresh the backlog gauges (pending count and age of the oldest pending event)
+     */
+    private void updateBacklogGauges(LocalDateTime now) {
+        pendingGauge.set(outboxEventRepository.countByStatus(OutboxEvent.EventStatus.PENDING));
+        oldestPendingAgeSeconds.set(outboxEventRepository
+            .findFirstByStatusOrderByCreatedAtAsc(OutboxEvent.EventStatus.PENDING)
+            .map(oldest -> Duration.between(oldest.getCreatedAt(), now).getSeconds())
+            .orElse(0L));
+    }
+
+    /**
+     * Determine exchange based on event type
+     */
+    private String exchange(String eventType) {
+        return switch (eventType) {
+            case OutboxEvent.PAYMENT_COMPLETED, OutboxEvent.PAYMENT_FAILED -> RabbitMQConfig.PAYMENT_EXCHANGE;
+            case OutboxEvent.BANKING_AUTHORIZE -> RabbitMQConfig.BANKING_EXCHANGE;
+            default -> throw new IllegalArgumentException("Unknown outbox event type: " + eventType);
+        };
+    }
+
+    /**
+     * Determine routing key based on event type
+     */
+    private String routingKey(String eventType) {
+        return switch (eventType) {
+            case OutboxEvent.PAYMENT_COMPLETED -> RabbitMQConfig.PAYMENT_COMPLETED_ROUTING_KEY;
+            case OutboxEvent.PAYMENT_FAILED -> RabbitMQConfig.PAYMENT_FAILED_ROUTING_KEY;
+            case OutboxEvent.BANKING_AUTHORIZE -> RabbitMQConfig.BANKING_AUTHORIZE_ROUTING_KEY;
+            default -> throw new IllegalArgumentException("Unknown outbox event type: " + eventType);
+        };
+    }
+
+    /**
+     * Payload class per event type, so messages keep the same JSON type header as before
+     */
+    private Class<?> payloadType(String eventType) {
+        return switch (eventType) {
+            case OutboxEvent.PAYMENT_COMPLETED, OutboxEvent.PAYMENT_FAILED -> PaymentEvent.class;
+            case OutboxEvent.BANKING_AUTHORIZE -> PaymentAuthorizationRequest.class;
+            default -> throw new IllegalArgumentException("Unknown outbox event type: " + eventType);
+        };
+    }
+
+    /**
+     * List dead letters that have not been replayed yet
+     */
+    @Transactional(readOnly = true)
+    public List<OutboxDeadLetter> getDeadLetters() {
+        return deadLetterRepository.findByReplayedAtIsNullOrderByDeadLetteredAtAsc();
+    }
+
+    /**
+     * Replay a dead letter: re-enqueue its payload as a fresh PENDING outbox event
+     *
+     * @return the new outbox event
+     */
+    @Transactional
+    public OutboxEvent replayDeadLetter(Long deadLetterId) {
+        OutboxDeadLetter deadLetter = deadLetterRepository.findById(deadLetterId)
+            .orElseThrow(() -> new RuntimeException("Dead letter not found with ID: " + deadLetterId));
+
+        if (deadLetter.isReplayed()) {
+            throw new IllegalStateException("Dead letter " + deadLetterId + " was already replayed at " + deadLetter.getReplayedAt());
+        }
+
+        OutboxEvent replayed = outboxEventRepository.save(deadLetter.toOutboxEvent());
+        deadLetter.markAsReplayed();
+        deadLetterRepository.save(deadLetter);
+
+        logger.info("Replayed dead letter {} as outbox event {} ({})",
+            deadLetterId, replayed.getId(), deadLetter.getEventType());
+        return replayed;
+    }
+
+    /**
+     * Get pending events count for monitoring
+     */
+    public long getPendingEventsCount() {
+        return outboxEventRepository.countByStatus(OutboxEvent.EventStatus.PENDING);
+    }
+
+    /**
+     * Get failed events count for monitoring
+     * Failed events live in the dead-letter table until replayed
+     */
+    public long getFailedEventsCount() {
+        return deadLetterRepository.countByReplayedAtIsNull();
+    }
+}
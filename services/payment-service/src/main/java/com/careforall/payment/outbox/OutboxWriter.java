@@ -0,0 +1,73 @@
+package com.careforall.payment.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Outbox Writer
+ *
+ * Records outbound messages in the outbox within the caller's transaction, so a
+ * message exists if and only if the payment change that produced it commits.
+ * After commit the publisher is nudged, so delivery does not wait for the next poll.
+ */
+@Component
+public class OutboxWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxWriter.class);
+    private static final String AGGREGATE_TYPE = "PAYMENT";
+
+    @Value("${payment.outbox.publish-after-commit:true}")
+    private boolean publishAfterCommit = true;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Save an outbox event in the current transaction
+     *
+     * @param eventType one of the OutboxEvent event type constants
+     * @param paymentId payment the message belongs to
+     * @param payload message body, serialized as JSON
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String eventType, String paymentId, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize " + eventType + " for payment " + paymentId, e);
+        }
+
+        outboxEventRepository.save(OutboxEvent.create(paymentId, AGGREGATE_TYPE, eventType, json));
+        logger.debug("Outbox event {} saved for payment {}", eventType, paymentId);
+
+        // One nudge per transaction, however many events it writes
+        if (publishAfterCommit && !TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OutboxWriter.this);
+                    if (status == STATUS_COMMITTED) {
+                        outboxPublisher.requestPublish();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.careforall.payment.repository;
 
+import com.careforall.payment.dto.PaymentView;
 import com.careforall.payment.entity.Payment;
 import com.careforall.payment.enums.PaymentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,15 +35,44 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
      */
     Optional<Payment> findByPaymentId(String paymentId);
 
+    /**
+     * Find payments by payment ID in one IN query
+     * Used by the batch banking-event listener
+     */
+    List<Payment> findByPaymentIdIn(Collection<String> paymentIds);
+
     /**
      * Find payment by donation ID
      */
-    Optional<Payment> findByDonationId(Long donationId);
+    Optional<Payment> findByDonationId(String donationId);
+
+    /**
+     * Read the response columns of a payment without loading the entity or its metadata
+     */
+    @Query("SELECT new com.careforall.payment.dto.PaymentView(p.paymentId, p.idempotencyKey, p.donationId, " +
+           "p.userId, p.amount, p.paymentMethod, p.status, p.attemptCount, p.errorMessage, " +
+           "p.createdAt, p.updatedAt, p.idempotencyExpiresAt) FROM Payment p WHERE p.paymentId = :paymentId")
+    Optional<PaymentView> findViewByPaymentId(@Param("paymentId") String paymentId);
+
+    /**
+     * Read the response columns of a donation's payments, newest first
+     * Served by idx_donation_created_at (lookup and sort from the index)
+     */
+    @Query("SELECT new com.careforall.payment.dto.PaymentView(p.paymentId, p.idempotencyKey, p.donationId, " +
+           "p.userId, p.amount, p.paymentMethod, p.status, p.attemptCount, p.errorMessage, " +
+           "p.createdAt, p.updatedAt, p.idempotencyExpiresAt) FROM Payment p WHERE p.donationId = :donationId " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentView> findViewsByDonationId(@Param("donationId") String donationId, Pageable pageable);
+
+    /**
+     * Find the newest payment of a donation (a donation can be retried with a new payment)
+     */
+    Optional<Payment> findFirstByDonationIdOrderByCreatedAtDescIdDesc(String donationId);
 
     /**
      * Find all payments by donation ID
      */
-    List<Payment> findAllByDonationId(Long donationId);
+    List<Payment> findAllByDonationId(String donationId);
 
     /**
      * Find payments by status
@@ -61,18 +95,58 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     );
 
     /**
-     * Find expired idempotency records for cleanup
+     * Count payments whose idempotency key has expired but not been cleared yet
+     * Served by idx_idempotency_expires_at
+     */
+    long countByIdempotencyExpiresAtBefore(LocalDateTime now);
+
+    /**
+     * Clear up to :limit expired idempotency keys, oldest first, in one statement
+     * Each call is its own short transaction, so locks are held for one chunk only
+     *
+     * @return number of keys cleared
      */
-    @Query("SELECT p FROM Payment p WHERE p.idempotencyExpiresAt < :now")
-    List<Payment> findExpiredIdempotencyRecords(@Param("now") LocalDateTime now);
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE payments SET idempotency_key = NULL, idempotency_expires_at = NULL " +
+                   "WHERE id IN (SELECT id FROM payments WHERE idempotency_expires_at < :now " +
+                   "ORDER BY idempotency_expires_at LIMIT :limit)",
+           nativeQuery = true)
+    int clearExpiredIdempotencyKeys(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Clear a single payment's idempotency key if it has expired
+     * Lets a new request reuse the key without waiting for the cleanup job
+     *
+     * @return 1 if the key was cleared
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.idempotencyKey = NULL, p.idempotencyExpiresAt = NULL " +
+           "WHERE p.id = :id AND p.idempotencyExpiresAt < :now")
+    int clearExpiredIdempotencyKey(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Keyset page of payments stuck in one of the given statuses since before :threshold
+     * Ordered by (createdAt, id) and resumed after the last row of the previous page;
+     * served by idx_status_created_at
+     */
+    @Query("SELECT p FROM Payment p WHERE p.status IN :statuses AND p.createdAt < :threshold " +
+           "AND (p.createdAt > :afterCreatedAt OR (p.createdAt = :afterCreatedAt AND p.id > :afterId)) " +
+           "ORDER BY p.createdAt, p.id")
+    List<Payment> findStalePayments(
+        @Param("statuses") Collection<PaymentStatus> statuses,
+        @Param("threshold") LocalDateTime threshold,
+        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
 
     /**
-     * Find pending or processing payments older than a certain time
-     * Useful for identifying stuck payments
+     * Creation time of the oldest payment still stuck in one of the given statuses
      */
-    @Query("SELECT p FROM Payment p WHERE p.status IN ('PENDING', 'PROCESSING') " +
-           "AND p.createdAt < :threshold")
-    List<Payment> findStuckPayments(@Param("threshold") LocalDateTime threshold);
+    @Query("SELECT MIN(p.createdAt) FROM Payment p WHERE p.status IN :statuses")
+    Optional<LocalDateTime> findOldestCreatedAtByStatusIn(@Param("statuses") Collection<PaymentStatus> statuses);
 
     /**
      * Count payments by status
@@ -82,5 +156,5 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     /**
      * Check if a payment exists for a donation
      */
-    boolean existsByDonationId(Long donationId);
+    boolean existsByDonationId(String donationId);
 }
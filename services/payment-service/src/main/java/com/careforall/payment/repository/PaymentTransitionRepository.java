@@ -0,0 +1,21 @@
+package com.careforall.payment.repository;
+
+import com.careforall.payment.entity.PaymentTransition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Payment Transition Repository
+ *
+ * Data access layer for the append-only payment_transitions audit table.
+ */
+@Repository
+public interface PaymentTransitionRepository extends JpaRepository<PaymentTransition, Long> {
+
+    /**
+     * Transition history of one payment, oldest first
+     */
+    List<PaymentTransition> findByPaymentIdOrderByIdAsc(String paymentId);
+}
@@ -0,0 +1,227 @@
+package com.careforall.payment.service;
+
+import com.careforall.payment.dto.PaymentResponse;
+import com.careforall.payment.entity.Payment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency Cache
+ *
+ * In-memory front cache of idempotency key -> payment snapshot, so retried requests
+ * for a known key are answered without touching the database.
+ *
+ * - Bounded: least-recently-used entries are evicted beyond max-size
+ * - TTL-aware: an entry never outlives its payment's idempotency window
+ * - Single-flight: concurrent requests with the same key wait for the one
+ *   in-flight computation instead of racing to the database
+ *
+ * The cache is per instance and best-effort; the unique index on idempotency_key
+ * remains the final guard against duplicate payments.
+ */
+@Component
+public class IdempotencyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyCache.class);
+
+    @Value("${payment.idempotency-cache.max-size:10000}")
+    private int maxSize = 10000;
+
+    @Value("${payment.idempotency-cache.ttl-seconds:600}")
+    private long ttlSeconds = 600;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<String, CompletableFuture<PaymentResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter coalescedCounter;
+
+    /**
+     * Register cache metrics
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        hitCounter = Counter.builder("payment.idempotency.cache.hits")
+            .description("Idempotency lookups answered from the in-memory cache")
+            .register(meterRegistry);
+        missCounter = Counter.builder("payment.idempotency.cache.misses")
+            .description("Idempotency lookups that had to be computed")
+            .register(meterRegistry);
+        coalescedCounter = Counter.builder("payment.idempotency.cache.coalesced")
+            .description("Concurrent duplicate requests that waited on an in-flight computation")
+            .register(meterRegistry);
+        Gauge.builder("payment.idempotency.cache.size", this, IdempotencyCache::size)
+            .description("Entries held in the idempotency cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Return the cached result for the key, or compute it exactly once
+     *
+     * The caller that starts the computation gets its result as-is; callers that
+     * find a cached entry or join an in-flight computation get a copy marked fromCache.
+     * If the computation fails, everyone waiting on it receives the same exception.
+     */
+    public PaymentResponse getOrCompute(String idempotencyKey, Supplier<PaymentResponse> loader) {
+        PaymentResponse cached = get(idempotencyKey);
+        if (cached != null) {
+            hitCounter.increment();
+            return asCachedResult(cached);
+        }
+
+        CompletableFuture<PaymentResponse> mine = new CompletableFuture<>();
+        CompletableFuture<PaymentResponse> running = inFlight.putIfAbsent(idempotencyKey, mine);
+        if (running != null) {
+            coalescedCounter.increment();
+            logger.debug("Joining in-flight computation for idempotency key {}", idempotencyKey);
+            return asCachedResult(await(running));
+        }
+
+        try {
+            // A computation may have finished between the lookup and claiming the key
+            cached = get(idempotencyKey);
+            if (cached != null) {
+                hitCounter.increment();
+                mine.complete(cached);
+                return asCachedResult(cached);
+            }
+
+            missCounter.increment();
+            PaymentResponse result = loader.get();
+            put(idempotencyKey, result);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, mine);
+        }
+    }
+
+    /**
+     * Cache a fresh snapshot of the payment once the current transaction commits
+     * Called on every status transition so cached responses follow the payment's state
+     */
+    public void refresh(Payment payment) {
+        PaymentResponse snapshot = PaymentResponse.fromEntity(payment);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(snapshot.getIdempotencyKey(), snapshot);
+                }
+            });
+        } else {
+            put(snapshot.getIdempotencyKey(), snapshot);
+        }
+    }
+
+    /**
+     * Get an unexpired snapshot for the key, or null
+     */
+    public PaymentResponse get(String idempotencyKey) {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (entries) {
+            Entry entry = entries.get(idempotencyKey);
+            if (entry == null) {
+                return null;
+            }
+            if (!entry.expiresAt().isAfter(now)) {
+                entries.remove(idempotencyKey);
+                return null;
+            }
+            return entry.response();
+        }
+    }
+
+    /**
+     * Store a snapshot, expiring at the earlier of the cache TTL and the idempotency window
+     */
+    public void put(String idempotencyKey, PaymentResponse response) {
+        if (idempotencyKey == null || response == null) {
+            return;
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(ttlSeconds);
+        if (response.getIdempotencyExpiresAt() != null && response.getIdempotencyExpiresAt().isBefore(expiresAt)) {
+            expiresAt = response.getIdempotencyExpiresAt();
+        }
+
+        PaymentResponse snapshot = response.toBuilder()
+            .metadata(response.getMetadata() != null
+                ? Collections.unmodifiableMap(new HashMap<>(response.getMetadata()))
+                : null)
+            .fromCache(false)
+            .build();
+
+        synchronized (entries) {
+            entries.put(idempotencyKey, new Entry(snapshot, expiresAt));
+            if (entries.size() > maxSize) {
+                var eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Drop a key, e.g. when its idempotency record is removed
+     */
+    public void evict(String idempotencyKey) {
+        synchronized (entries) {
+            entries.remove(idempotencyKey);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private PaymentResponse asCachedResult(PaymentResponse response) {
+        return response.toBuilder()
+            .fromCache(true)
+            .message("Idempotent request - returning cached result")
+            .build();
+    }
+
+    private PaymentResponse await(CompletableFuture<PaymentResponse> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry(PaymentResponse response, LocalDateTime expiresAt) {
+    }
+}
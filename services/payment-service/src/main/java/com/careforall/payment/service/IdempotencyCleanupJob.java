@@ -0,0 +1,116 @@
+package com.careforall.payment.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Idempotency Cleanup Job
+ *
+ * Periodically clears expired idempotency keys in bounded chunks. Each chunk is one
+ * short UPDATE transaction driven by idx_idempotency_expires_at, with a pause between
+ * chunks and a per-run chunk cap, so a large backlog drains gradually instead of
+ * locking the payments table or saturating the database.
+ */
+@Component
+public class IdempotencyCleanupJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyCleanupJob.class);
+    private static final int PROGRESS_LOG_INTERVAL = 50;
+
+    @Value("${payment.idempotency-cleanup.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${payment.idempotency-cleanup.pause-ms:50}")
+    private long pauseMs = 50;
+
+    @Value("${payment.idempotency-cleanup.max-chunks-per-run:500}")
+    private int maxChunksPerRun = 500;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter clearedCounter;
+    private Timer chunkTimer;
+    private final AtomicLong backlogGauge = new AtomicLong();
+
+    /**
+     * Register cleanup metrics
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        clearedCounter = Counter.builder("payment.idempotency.cleanup.cleared")
+            .description("Expired idempotency keys cleared")
+            .register(meterRegistry);
+        chunkTimer = Timer.builder("payment.idempotency.cleanup.chunk")
+            .description("Time to clear one chunk of expired idempotency keys")
+            .register(meterRegistry);
+        Gauge.builder("payment.idempotency.cleanup.backlog", backlogGauge, AtomicLong::get)
+            .description("Expired idempotency keys still waiting to be cleared")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Clear expired idempotency keys until the backlog is empty or the chunk cap is hit
+     *
+     * @return number of keys cleared in this run
+     */
+    @Scheduled(fixedDelayString = "${payment.idempotency-cleanup.interval-ms:300000}",
+               initialDelayString = "${payment.idempotency-cleanup.initial-delay-ms:60000}")
+    public long runCleanup() {
+        long backlog = idempotencyService.countExpiredRecords();
+        backlogGauge.set(backlog);
+        if (backlog == 0) {
+            return 0;
+        }
+
+        logger.info("Clearing {} expired idempotency keys (chunk size {})", backlog, chunkSize);
+
+        long cleared = 0;
+        for (int chunk = 1; chunk <= maxChunksPerRun; chunk++) {
+            int clearedInChunk = chunkTimer.record(() -> idempotencyService.cleanupExpiredRecords(chunkSize));
+            cleared += clearedInChunk;
+            clearedCounter.increment(clearedInChunk);
+            backlogGauge.set(Math.max(backlog - cleared, 0));
+
+            if (clearedInChunk < chunkSize) {
+                break;
+            }
+            if (chunk % PROGRESS_LOG_INTERVAL == 0) {
+                logger.info("Idempotency cleanup progress: {} of {} keys cleared", cleared, backlog);
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+
+        logger.info("Idempotency cleanup finished: {} keys cleared, ~{} remaining", cleared, backlogGauge.get());
+        return cleared;
+    }
+
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import java.util.Optional;
  * - Returns existing results within the 24-hour window
  * - Allows new processing after the idempotency window expires
  * - Thread-safe with database-level uniqueness constraints
+ * - Expired keys are cleared in chunks by IdempotencyCleanupJob
  */
 @Service
 public class IdempotencyService {
@@ -98,26 +99,22 @@ public class IdempotencyService {
     }
 
     /**
-     * Clean up expired idempotency records
-     * This can be called periodically to maintain database cleanliness
+     * Clear one chunk of expired idempotency keys
+     * Payments are kept; only the key and its expiry are cleared, so the key can be reused.
+     * Called repeatedly by IdempotencyCleanupJob.
      *
-     * @return Number of records cleaned up
+     * @param chunkSize maximum number of keys to clear
+     * @return Number of keys cleared
      */
-    @Transactional
-    public int cleanupExpiredRecords() {
-        logger.info("Starting cleanup of expired idempotency records");
-
-        var expiredRecords = paymentRepository
-            .findExpiredIdempotencyRecords(LocalDateTime.now());
-
-        int count = expiredRecords.size();
-        logger.info("Found {} expired idempotency records (older than {} hours)",
-            count, IDEMPOTENCY_WINDOW_HOURS);
-
-        // Note: We typically don't delete payment records, but we could update them
-        // or move them to an archive table. For now, we just log them.
+    public int cleanupExpiredRecords(int chunkSize) {
+        return paymentRepository.clearExpiredIdempotencyKeys(LocalDateTime.now(), chunkSize);
+    }
 
-        return count;
+    /**
+     * Number of expired idempotency keys waiting to be cleared
+     */
+    public long countExpiredRecords() {
+        return paymentRepository.countByIdempotencyExpiresAtBefore(LocalDateTime.now());
     }
 
     /**
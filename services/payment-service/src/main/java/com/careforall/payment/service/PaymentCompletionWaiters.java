@@ -0,0 +1,140 @@
+package com.careforall.payment.service;
+
+import com.careforall.payment.dto.PaymentResponse;
+import com.careforall.payment.entity.Payment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Payment Completion Waiters
+ *
+ * Holds the pending long-poll requests of GET /api/payments/{id}/result, keyed by
+ * paymentId. Each waiter is a future completed by BankingEventListener once the
+ * payment reaches a terminal status and that change has committed; no thread waits
+ * on it (the HTTP side is a DeferredResult with its own timeout).
+ *
+ * Waiters are per instance: a result consumed by another instance is not pushed
+ * here, and the long poll falls back to returning the current state at timeout.
+ */
+@Component
+public class PaymentCompletionWaiters {
+
+    @Value("${payment.long-poll.max-waiters:10000}")
+    private int maxWaiters = 10000;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, List<CompletableFuture<PaymentResponse>>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger waiterCount = new AtomicInteger();
+
+    private Counter completedCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void registerMetrics() {
+        completedCounter = Counter.builder("payment.long-poll.completed")
+            .description("Long-poll waiters completed by a payment result")
+            .register(meterRegistry);
+        rejectedCounter = Counter.builder("payment.long-poll.rejected")
+            .description("Long-poll requests rejected because max-waiters was reached")
+            .register(meterRegistry);
+        Gauge.builder("payment.long-poll.waiters", waiterCount, AtomicInteger::get)
+            .description("Long-poll requests currently waiting for a payment result")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Register a waiter for the payment's final result
+     *
+     * @throws IllegalStateException if max-waiters requests are already waiting
+     */
+    public CompletableFuture<PaymentResponse> await(String paymentId) {
+        if (waiterCount.incrementAndGet() > maxWaiters) {
+            waiterCount.decrementAndGet();
+            rejectedCounter.increment();
+            throw new IllegalStateException("Too many requests waiting for payment results");
+        }
+
+        CompletableFuture<PaymentResponse> waiter = new CompletableFuture<>();
+        waiters.compute(paymentId, (id, list) -> {
+            List<CompletableFuture<PaymentResponse>> updated = list != null ? list : new ArrayList<>(1);
+            updated.add(waiter);
+            return updated;
+        });
+        return waiter;
+    }
+
+    /**
+     * Remove a waiter that timed out or whose request finished
+     */
+    public void cancel(String paymentId, CompletableFuture<PaymentResponse> waiter) {
+        waiters.computeIfPresent(paymentId, (id, list) -> {
+            if (list.remove(waiter)) {
+                waiterCount.decrementAndGet();
+            }
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * Complete all waiters of a payment with its result
+     */
+    public void complete(String paymentId, PaymentResponse response) {
+        List<CompletableFuture<PaymentResponse>> completed = waiters.remove(paymentId);
+        if (completed == null) {
+            return;
+        }
+        waiterCount.addAndGet(-completed.size());
+        completedCounter.increment(completed.size());
+        completed.forEach(waiter -> waiter.complete(response));
+    }
+
+    /**
+     * Notify waiters of a payment that reached a terminal status
+     * Inside a transaction this happens after commit, so waiters never see a rolled-back result
+     */
+    public void paymentUpdated(Payment payment) {
+        if (payment.getStatus() == null || !payment.getStatus().isTerminal()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    completeIfWaiting(payment);
+                }
+            });
+        } else {
+            completeIfWaiting(payment);
+        }
+    }
+
+    private void completeIfWaiting(Payment payment) {
+        // Most payments finish with nobody long-polling; skip building the response for them
+        if (waiters.containsKey(payment.getPaymentId())) {
+            complete(payment.getPaymentId(), PaymentResponse.fromEntity(payment).toBuilder().metadata(null).build());
+        }
+    }
+
+    /**
+     * Number of requests currently waiting
+     */
+    public int getWaiterCount() {
+        return waiterCount.get();
+    }
+}
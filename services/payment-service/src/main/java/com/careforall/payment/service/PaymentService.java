@@ -3,35 +3,41 @@ package com.careforall.payment.service;
 import com.careforall.payment.dto.PaymentAuthorizationRequest;
 import com.careforall.payment.dto.PaymentRequest;
 import com.careforall.payment.dto.PaymentResponse;
+import com.careforall.payment.dto.PaymentView;
 import com.careforall.payment.entity.Payment;
 import com.careforall.payment.enums.PaymentStatus;
-import com.careforall.payment.event.PaymentEvent;
+import com.careforall.payment.outbox.OutboxEvent;
+import com.careforall.payment.outbox.OutboxWriter;
 import com.careforall.payment.repository.PaymentRepository;
 import com.careforall.payment.statemachine.PaymentStateMachine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Payment Service
  *
  * Enhanced payment processing with:
- * - Idempotency support (24-hour window)
+ * - Idempotency support (24-hour window), fronted by an in-memory single-flight cache
  * - State machine for payment status transitions
- * - Integration with Banking Service via RabbitMQ
- * - Event publishing for donation payment lifecycle
+ * - Integration with Banking Service via RabbitMQ, through the transactional outbox
  */
 @Service
 public class PaymentService {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
+    private static final int CONFLICT_LOOKUP_ATTEMPTS = 5;
+    private static final long CONFLICT_LOOKUP_DELAY_MS = 20;
 
     // Payment events (to donation-service)
     public static final String PAYMENT_EXCHANGE = "payment.exchange";
@@ -48,11 +54,20 @@ public class PaymentService {
     @Autowired
     private IdempotencyService idempotencyService;
 
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Autowired
     private PaymentStateMachine stateMachine;
 
     @Autowired
-    private RabbitTemplate rabbitTemplate;
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private PaymentCompletionWaiters completionWaiters;
 
     /**
      * Process payment with idempotency and Banking Service integration
@@ -60,34 +75,92 @@ public class PaymentService {
      * Flow: Creates payment → Sends authorization request to Banking Service →
      * BankingEventListener handles response → Updates donation-service
      *
+     * Known keys are answered from IdempotencyCache; concurrent requests with the same
+     * key share one computation. Across instances, createOrGetExisting settles races on
+     * the idempotency_key unique index.
+     *
      * @param request Payment request
      * @return Payment response
      */
-    @Transactional
     public PaymentResponse processPayment(PaymentRequest request) {
         logger.info("Processing payment for donation: {} with idempotency key: {}",
             request.getDonationId(), request.getIdempotencyKey());
 
-        // Step 1: Check idempotency - return existing result if found
-        Optional<Payment> existingPayment = idempotencyService.checkIdempotency(request.getIdempotencyKey());
-        if (existingPayment.isPresent()) {
-            logger.info("Idempotent request detected - returning existing payment result");
-            return toResponseWithCache(existingPayment.get());
+        if (!idempotencyService.isValidIdempotencyKey(request.getIdempotencyKey())) {
+            throw new IllegalArgumentException("Invalid idempotency key: " + request.getIdempotencyKey());
+        }
+
+        return idempotencyCache.getOrCompute(request.getIdempotencyKey(), () -> createOrGetExisting(request));
+    }
+
+    /**
+     * Insert-first idempotent payment creation
+     *
+     * The payment row is inserted straight away (no SELECT beforehand) in its own
+     * transaction. If another request already owns the idempotency key, the insert
+     * hits the unique index, the transaction rolls back before anything is sent to
+     * Banking Service, and the winner's stored result is returned instead of an error.
+     * A winner whose idempotency window has expired gives up its key and the insert is retried.
+     *
+     * @return the new payment, or the existing one marked fromCache
+     */
+    public PaymentResponse createOrGetExisting(PaymentRequest request) {
+        try {
+            return transactionTemplate.execute(status -> insertPayment(request));
+        } catch (DataIntegrityViolationException e) {
+            Optional<Payment> winner = findCommittedPayment(request.getIdempotencyKey());
+            if (winner.isEmpty()) {
+                throw e;
+            }
+
+            // Key is held by a payment whose window has passed but was not cleaned up yet
+            if (winner.get().isIdempotencyExpired()
+                    && paymentRepository.clearExpiredIdempotencyKey(winner.get().getId(), LocalDateTime.now()) == 1) {
+                logger.info("Released expired idempotency key {} from payment {} - creating new payment",
+                    request.getIdempotencyKey(), winner.get().getPaymentId());
+                return createOrGetExisting(request);
+            }
+
+            logger.info("Idempotency key {} already used by payment {} - returning stored result",
+                request.getIdempotencyKey(), winner.get().getPaymentId());
+            return toResponseWithCache(winner.get());
         }
+    }
 
-        // Step 2: Create new payment in CREATED state
+    private PaymentResponse insertPayment(PaymentRequest request) {
+        // Step 1: Insert new payment in CREATED state (fails on a duplicate idempotency key)
         Payment payment = createPayment(request);
-        payment = paymentRepository.save(payment);
+        payment = paymentRepository.saveAndFlush(payment);
 
-        // Step 3: Send authorization request to Banking Service
+        // Step 2: Send authorization request to Banking Service
         sendAuthorizationRequestToBankingService(payment, request);
 
-        // Step 4: Return response with CREATED status
+        // Step 3: Return response with CREATED status
         // Note: Actual authorization/capture happens asynchronously via Banking Service
         // BankingEventListener will handle the response and update status
         return toResponse(payment);
     }
 
+    /**
+     * Load the payment that owns an idempotency key
+     * The conflicting insert can surface before the winner commits, so retry briefly
+     */
+    private Optional<Payment> findCommittedPayment(String idempotencyKey) {
+        for (int attempt = 1; attempt <= CONFLICT_LOOKUP_ATTEMPTS; attempt++) {
+            Optional<Payment> payment = paymentRepository.findByIdempotencyKey(idempotencyKey);
+            if (payment.isPresent()) {
+                return payment;
+            }
+            try {
+                Thread.sleep(CONFLICT_LOOKUP_DELAY_MS * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return Optional.empty();
+    }
+
     /**
      * Create payment entity from request
      */
@@ -118,7 +191,11 @@ public class PaymentService {
     }
 
     /**
-     * Send authorization request to Banking Service via RabbitMQ
+     * Queue authorization request to Banking Service via the outbox
+     *
+     * The request is written in the payment's transaction and relayed by
+     * OutboxPublisher after commit, so a rolled-back payment never reaches the
+     * bank and the HTTP request does not wait on the broker.
      *
      * Banking Service will:
      * 1. Check user balance
@@ -127,95 +204,31 @@ public class PaymentService {
      * 4. Auto-capture after authorization
      */
     private void sendAuthorizationRequestToBankingService(Payment payment, PaymentRequest request) {
-        logger.info("Sending authorization request to Banking Service for payment: {}",
+        logger.info("Queueing authorization request to Banking Service for payment: {}",
             payment.getPaymentId());
 
-        try {
-            // Build authorization request
-            PaymentAuthorizationRequest authRequest = PaymentAuthorizationRequest.builder()
-                .paymentId(payment.getPaymentId())
-                .donorEmail(request.getPaymentMethod()) // Using payment method as email for now
-                .userId(request.getUserId())
-                .amount(request.getAmount())
-                .idempotencyKey(request.getIdempotencyKey())
-                .build();
-
-            // Send to Banking Service via RabbitMQ
-            rabbitTemplate.convertAndSend(
-                BANKING_EXCHANGE,
-                BANKING_REQUEST_ROUTING_KEY,
-                authRequest
-            );
-
-            logger.info("Authorization request sent to Banking Service for payment: {}",
-                payment.getPaymentId());
-
-            // Add metadata
-            payment.addMetadata("authorization_sent_at", LocalDateTime.now().toString());
-            payment.addMetadata("banking_service_request", "AUTHORIZE");
-            paymentRepository.save(payment);
-
-        } catch (Exception e) {
-            logger.error("Failed to send authorization request to Banking Service for payment {}: {}",
-                payment.getPaymentId(), e.getMessage(), e);
-
-            // Mark payment as failed if we can't even send the request
-            payment.setStatus(PaymentStatus.FAILED);
-            payment.setErrorMessage("Failed to communicate with Banking Service: " + e.getMessage());
-            paymentRepository.save(payment);
-
-            // Publish failure event to donation-service
-            publishPaymentEvent(payment);
-        }
-    }
+        // Build authorization request
+        PaymentAuthorizationRequest authRequest = PaymentAuthorizationRequest.builder()
+            .paymentId(payment.getPaymentId())
+            .donorEmail(request.getPaymentMethod()) // Using payment method as email for now
+            .userId(request.getUserId())
+            .amount(request.getAmount())
+            .idempotencyKey(request.getIdempotencyKey())
+            .build();
 
-    /**
-     * Publish payment event to RabbitMQ
-     */
-    private void publishPaymentEvent(Payment payment) {
-        PaymentEvent event = new PaymentEvent(
-            payment.getPaymentId(),
-            payment.getDonationId(),
-            payment.getUserId(),
-            payment.getAmount(),
-            payment.getStatus().name(),
-            LocalDateTime.now()
-        );
-
-        String routingKey = payment.getStatus() == PaymentStatus.CAPTURED
-            ? PAYMENT_COMPLETED_ROUTING_KEY
-            : PAYMENT_FAILED_ROUTING_KEY;
-
-        rabbitTemplate.convertAndSend(PAYMENT_EXCHANGE, routingKey, event);
-
-        logger.info("Published payment event: {} with status {} to routing key: {}",
-            payment.getPaymentId(), payment.getStatus(), routingKey);
+        outboxWriter.enqueue(OutboxEvent.BANKING_AUTHORIZE, payment.getPaymentId(), authRequest);
+
+        // Add metadata
+        payment.addMetadata("authorization_sent_at", LocalDateTime.now().toString());
+        payment.addMetadata("banking_service_request", "AUTHORIZE");
+        paymentRepository.save(payment);
     }
 
     /**
      * Convert Payment entity to PaymentResponse
      */
     private PaymentResponse toResponse(Payment payment) {
-        return PaymentResponse.builder()
-            .paymentId(payment.getPaymentId())
-            .idempotencyKey(payment.getIdempotencyKey())
-            .donationId(payment.getDonationId())
-            .userId(payment.getUserId())
-            .amount(payment.getAmount())
-            .paymentMethod(payment.getPaymentMethod())
-            .status(payment.getStatus())
-            .message(payment.getStatus() == PaymentStatus.CAPTURED
-                ? "Payment processed successfully"
-                : payment.getStatus() == PaymentStatus.AUTHORIZED
-                ? "Payment authorized, pending capture"
-                : "Payment created: " + (payment.getErrorMessage() != null ? payment.getErrorMessage() : "Processing"))
-            .metadata(payment.getMetadata())
-            .attemptCount(payment.getAttemptCount())
-            .errorMessage(payment.getErrorMessage())
-            .createdAt(payment.getCreatedAt())
-            .updatedAt(payment.getUpdatedAt())
-            .fromCache(false)
-            .build();
+        return PaymentResponse.fromEntity(payment);
     }
 
     /**
@@ -230,19 +243,62 @@ public class PaymentService {
 
     /**
      * Get payment by ID
+     * Reads a column projection unless metadata is requested
      */
     @Transactional(readOnly = true)
-    public Optional<PaymentResponse> getPaymentById(String paymentId) {
-        return paymentRepository.findByPaymentId(paymentId)
-            .map(this::toResponse);
+    public Optional<PaymentResponse> getPaymentById(String paymentId, boolean includeMetadata) {
+        if (includeMetadata) {
+            return paymentRepository.findByPaymentId(paymentId)
+                .map(this::toResponse);
+        }
+        return paymentRepository.findViewByPaymentId(paymentId)
+            .map(PaymentView::toResponse);
     }
 
     /**
-     * Get payment by donation ID
+     * Get the latest payment of a donation
+     * Reads a column projection unless metadata is requested
      */
     @Transactional(readOnly = true)
-    public Optional<PaymentResponse> getPaymentByDonationId(Long donationId) {
-        return paymentRepository.findByDonationId(donationId)
-            .map(this::toResponse);
+    public Optional<PaymentResponse> getPaymentByDonationId(String donationId, boolean includeMetadata) {
+        if (includeMetadata) {
+            return paymentRepository.findFirstByDonationIdOrderByCreatedAtDescIdDesc(donationId)
+                .map(this::toResponse);
+        }
+        return paymentRepository.findViewsByDonationId(donationId, PageRequest.of(0, 1)).stream()
+            .findFirst()
+            .map(PaymentView::toResponse);
+    }
+
+    /**
+     * Wait for the final (terminal) result of a payment without holding a thread
+     *
+     * The waiter is registered before the current status is read, so a result that
+     * commits in between is either seen by the read or delivered to the waiter.
+     *
+     * @return empty if the payment does not exist; otherwise a future completed with
+     *         the terminal result (already completed if the payment has finished)
+     * @throws IllegalStateException if too many requests are already waiting
+     */
+    public Optional<CompletableFuture<PaymentResponse>> awaitFinalResult(String paymentId) {
+        CompletableFuture<PaymentResponse> waiter = completionWaiters.await(paymentId);
+
+        Optional<PaymentResponse> current = getPaymentById(paymentId, false);
+        if (current.isEmpty()) {
+            completionWaiters.cancel(paymentId, waiter);
+            return Optional.empty();
+        }
+        if (current.get().getStatus().isTerminal()) {
+            completionWaiters.cancel(paymentId, waiter);
+            waiter.complete(current.get());
+        }
+        return Optional.of(waiter);
+    }
+
+    /**
+     * Stop waiting for a payment result (long poll timed out or finished)
+     */
+    public void cancelWait(String paymentId, CompletableFuture<PaymentResponse> waiter) {
+        completionWaiters.cancel(paymentId, waiter);
     }
 }
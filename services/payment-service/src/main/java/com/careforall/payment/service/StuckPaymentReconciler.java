@@ -0,0 +1,260 @@
+package com.careforall.payment.service;
+
+import com.careforall.payment.client.BankingLedgerClient;
+import com.careforall.payment.dto.LedgerStatus;
+import com.careforall.payment.dto.PaymentAuthorizationRequest;
+import com.careforall.payment.entity.Payment;
+import com.careforall.payment.enums.PaymentStatus;
+import com.careforall.payment.event.BankingEvent;
+import com.careforall.payment.listener.BankingEventListener;
+import com.careforall.payment.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stuck Payment Reconciler
+ *
+ * Repairs payments left in CREATED/AUTHORIZED because a banking response was lost.
+ * Pages through stale payments by (status, created_at), asks banking-service for the
+ * ledger state of each page in one bulk request, and replays the missing banking
+ * events through BankingEventListener, so every repair goes through the same
+ * PaymentStateMachine transitions, metadata and donation-service events as the
+ * normal flow.
+ *
+ * Ledger state -> action:
+ * - CAPTURED: AUTHORIZED (if still CREATED) then CAPTURED
+ * - AUTHORIZED: AUTHORIZED (if still CREATED)
+ * - CANCELLED / REFUNDED: FAILED
+ * - NONE: left for the next run until older than fail-after-seconds, then voided
+ *
+ * A payment is never failed on NONE alone: banking may still process its request
+ * later (it is requeued while banking is unavailable). The reconciler first asks
+ * banking to void it, which records a tombstone that makes any late authorization
+ * decline, and applies the status banking answers with: CANCELLED fails the payment,
+ * while a payment that reached the ledger in the meantime is repaired as above.
+ * If the void call fails the payment stays as it is for the next run.
+ */
+@Component
+public class StuckPaymentReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StuckPaymentReconciler.class);
+
+    static final Set<PaymentStatus> STUCK_STATUSES = EnumSet.of(PaymentStatus.CREATED, PaymentStatus.AUTHORIZED);
+    private static final LocalDateTime CURSOR_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Value("${payment.reconciler.stale-after-seconds:300}")
+    private long staleAfterSeconds = 300;
+
+    @Value("${payment.reconciler.fail-after-seconds:3600}")
+    private long failAfterSeconds = 3600;
+
+    @Value("${payment.reconciler.page-size:200}")
+    private int pageSize = 200;
+
+    @Value("${payment.reconciler.max-pages-per-run:50}")
+    private int maxPagesPerRun = 50;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private BankingLedgerClient bankingLedgerClient;
+
+    @Autowired
+    private BankingEventListener bankingEventListener;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer lookupTimer;
+    private Counter lookupErrors;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    /**
+     * Register reconciler metrics
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        lookupTimer = Timer.builder("payment.reconciler.lookup")
+            .description("Time for one bulk ledger lookup against banking-service")
+            .register(meterRegistry);
+        lookupErrors = Counter.builder("payment.reconciler.lookup.errors")
+            .description("Bulk ledger lookups that failed")
+            .register(meterRegistry);
+        Gauge.builder("payment.reconciler.lag.seconds", lagSeconds, AtomicLong::get)
+            .description("Age of the oldest payment still in CREATED or AUTHORIZED")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Reconcile stale payments page by page until none are left or the page cap is hit
+     *
+     * @return number of payments whose status was repaired
+     */
+    @Scheduled(fixedDelayString = "${payment.reconciler.interval-ms:60000}",
+               initialDelayString = "${payment.reconciler.initial-delay-ms:120000}")
+    public int runReconciliation() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime threshold = now.minusSeconds(staleAfterSeconds);
+        LocalDateTime cursorCreatedAt = CURSOR_START;
+        long cursorId = 0;
+        int checked = 0;
+        int repaired = 0;
+        long start = System.nanoTime();
+
+        for (int page = 0; page < maxPagesPerRun; page++) {
+            List<Payment> payments = paymentRepository.findStalePayments(
+                STUCK_STATUSES, threshold, cursorCreatedAt, cursorId, PageRequest.of(0, pageSize));
+            if (payments.isEmpty()) {
+                break;
+            }
+
+            Map<String, LedgerStatus> ledger;
+            try {
+                ledger = lookupTimer.recordCallable(() ->
+                    bankingLedgerClient.getLedgerStatuses(payments.stream().map(Payment::getPaymentId).toList()));
+            } catch (RestClientException e) {
+                lookupErrors.increment();
+                logger.warn("Ledger lookup failed, stopping reconciliation run: {}", e.getMessage());
+                break;
+            } catch (Exception e) {
+                throw new IllegalStateException("Ledger lookup failed", e);
+            }
+
+            ledger = voidAbandoned(payments, ledger, now);
+
+            for (Payment payment : payments) {
+                String outcome = reconcile(payment, ledger.get(payment.getPaymentId()));
+                meterRegistry.counter("payment.reconciler.payments", "outcome", outcome).increment();
+                if (!"pending".equals(outcome)) {
+                    repaired++;
+                }
+            }
+            checked += payments.size();
+
+            Payment last = payments.get(payments.size() - 1);
+            cursorCreatedAt = last.getCreatedAt();
+            cursorId = last.getId();
+            if (payments.size() < pageSize) {
+                break;
+            }
+        }
+
+        lagSeconds.set(paymentRepository.findOldestCreatedAtByStatusIn(STUCK_STATUSES)
+            .map(oldest -> Duration.between(oldest, LocalDateTime.now()).toSeconds())
+            .orElse(0L));
+
+        if (checked > 0) {
+            double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            logger.info("Reconciled {} stale payments ({} repaired) at {} payments/s, lag {}s",
+                checked, repaired, String.format("%.0f", checked / elapsedSeconds), lagSeconds.get());
+        }
+        return repaired;
+    }
+
+    /**
+     * Void the payments that still have no ledger entry after fail-after-seconds
+     *
+     * @return the ledger statuses with the voided payments' statuses after the void
+     */
+    private Map<String, LedgerStatus> voidAbandoned(List<Payment> payments, Map<String, LedgerStatus> ledger,
+                                                    LocalDateTime now) {
+        List<PaymentAuthorizationRequest> abandoned = payments.stream()
+            .filter(payment -> {
+                LedgerStatus status = ledger.get(payment.getPaymentId());
+                return (status == null || LedgerStatus.NONE.equals(status.getStatus()))
+                    && payment.getCreatedAt().isBefore(now.minusSeconds(failAfterSeconds));
+            })
+            .map(payment -> PaymentAuthorizationRequest.builder()
+                .paymentId(payment.getPaymentId())
+                .donorEmail(payment.getPaymentMethod()) // the email the authorization was sent with
+                .userId(payment.getUserId())
+                .amount(payment.getAmount())
+                .idempotencyKey(payment.getIdempotencyKey())
+                .build())
+            .toList();
+        if (abandoned.isEmpty()) {
+            return ledger;
+        }
+
+        Map<String, LedgerStatus> merged = new HashMap<>(ledger);
+        try {
+            merged.putAll(bankingLedgerClient.voidPayments(abandoned));
+        } catch (RestClientException e) {
+            lookupErrors.increment();
+            logger.warn("Voiding {} abandoned payments failed, leaving them for the next run: {}",
+                abandoned.size(), e.getMessage());
+        }
+        return merged;
+    }
+
+    /**
+     * Replay whatever banking events the payment missed
+     *
+     * @return outcome tag: captured, authorized, failed or pending
+     */
+    private String reconcile(Payment payment, LedgerStatus ledger) {
+        String ledgerStatus = ledger != null ? ledger.getStatus() : LedgerStatus.NONE;
+
+        switch (ledgerStatus) {
+            case LedgerStatus.CAPTURED:
+                if (payment.getStatus() == PaymentStatus.CREATED) {
+                    replay("PAYMENT_AUTHORIZED", payment, ledger, null);
+                }
+                replay("PAYMENT_CAPTURED", payment, ledger, null);
+                return "captured";
+
+            case LedgerStatus.AUTHORIZED:
+                if (payment.getStatus() == PaymentStatus.CREATED) {
+                    replay("PAYMENT_AUTHORIZED", payment, ledger, null);
+                    return "authorized";
+                }
+                return "pending";
+
+            case LedgerStatus.CANCELLED:
+            case LedgerStatus.REFUNDED:
+                replay("PAYMENT_FAILED", payment, ledger, "Reconciled: banking ledger shows " + ledgerStatus);
+                return "failed";
+
+            default:
+                // Abandoned payments were voided above; failing one without a void could
+                // race a late authorization
+                return "pending";
+        }
+    }
+
+    private void replay(String eventType, Payment payment, LedgerStatus ledger, String failureReason) {
+        logger.info("Reconciler replaying {} for stuck payment {} (status {})",
+            eventType, payment.getPaymentId(), payment.getStatus());
+
+        bankingEventListener.handleBankingEvent(BankingEvent.builder()
+            .eventType(eventType)
+            .paymentId(payment.getPaymentId())
+            .transactionId(ledger != null ? ledger.getTransactionId() : null)
+            .amount(ledger != null && ledger.getAmount() != null ? ledger.getAmount() : payment.getAmount())
+            .status(failureReason == null ? "SUCCESS" : "FAILED")
+            .failureReason(failureReason)
+            .timestamp(ledger != null && ledger.getUpdatedAt() != null ? ledger.getUpdatedAt() : LocalDateTime.now())
+            .build());
+    }
+}
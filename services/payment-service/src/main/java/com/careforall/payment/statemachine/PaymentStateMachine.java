@@ -4,8 +4,10 @@ import com.careforall.payment.entity.Payment;
 import com.careforall.payment.enums.PaymentStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.Map;
@@ -20,6 +22,7 @@ import java.util.Set;
  * Valid transitions:
  * - CREATED -> AUTHORIZED (payment gateway approves)
  * - AUTHORIZED -> CAPTURED (money transferred)
+ * - Any state -> FAILED (via transitionToFailed)
  *
  * REJECTED transitions (prevents the "CAPTURED becomes AUTHORIZED" glitch):
  * - CAPTURED -> AUTHORIZED ❌ (backward move)
@@ -31,61 +34,109 @@ import java.util.Set;
  * Then: Delayed AUTHORIZED webhook arrives
  * Without State Machine: CAPTURED overwrites to AUTHORIZED (BUG!)
  * With State Machine: AUTHORIZED rejected because current state is CAPTURED (FIXED!)
+ *
+ * Every (current, target) pair is resolved once at class load into a flat table
+ * indexed by enum ordinals, so a check is one array read: no map lookups, no
+ * string formatting and no allocation. tryTransition returns a TransitionResult;
+ * transition keeps the throwing contract for callers that want it. Applied
+ * transitions are appended to the payment_transitions audit log asynchronously.
  */
 @Component
 public class PaymentStateMachine {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentStateMachine.class);
 
-    // Define valid state transitions
-    private static final Map<PaymentStatus, Set<PaymentStatus>> VALID_TRANSITIONS = new EnumMap<>(PaymentStatus.class);
+    // Cached because values() clones the array on every call
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+    private static final int STATUS_COUNT = STATUSES.length;
+
+    // TRANSITIONS[current.ordinal() * STATUS_COUNT + target.ordinal()]
+    private static final TransitionResult[] TRANSITIONS = new TransitionResult[STATUS_COUNT * STATUS_COUNT];
+
+    private static final Map<PaymentStatus, Set<PaymentStatus>> VALID_NEXT_STATES = new EnumMap<>(PaymentStatus.class);
 
     static {
+        boolean[] forward = new boolean[STATUS_COUNT * STATUS_COUNT];
+
         // CREATED can only transition to AUTHORIZED
-        VALID_TRANSITIONS.put(PaymentStatus.CREATED, EnumSet.of(PaymentStatus.AUTHORIZED));
+        forward[index(PaymentStatus.CREATED, PaymentStatus.AUTHORIZED)] = true;
 
         // AUTHORIZED can only transition to CAPTURED
-        VALID_TRANSITIONS.put(PaymentStatus.AUTHORIZED, EnumSet.of(PaymentStatus.CAPTURED));
+        forward[index(PaymentStatus.AUTHORIZED, PaymentStatus.CAPTURED)] = true;
 
         // CAPTURED is terminal - no further transitions allowed
-        VALID_TRANSITIONS.put(PaymentStatus.CAPTURED, EnumSet.noneOf(PaymentStatus.class));
+
+        for (PaymentStatus current : STATUSES) {
+            Set<PaymentStatus> next = EnumSet.noneOf(PaymentStatus.class);
+            for (PaymentStatus target : STATUSES) {
+                int index = index(current, target);
+                if (current == target) {
+                    TRANSITIONS[index] = TransitionResult.ALREADY_IN_STATE;
+                } else if (target.getRank() < current.getRank()) {
+                    TRANSITIONS[index] = TransitionResult.REJECTED_BACKWARD;
+                } else if (forward[index]) {
+                    TRANSITIONS[index] = TransitionResult.APPLIED;
+                    next.add(target);
+                } else {
+                    TRANSITIONS[index] = TransitionResult.REJECTED_INVALID;
+                }
+            }
+            VALID_NEXT_STATES.put(current, Collections.unmodifiableSet(next));
+        }
+    }
+
+    @Autowired(required = false)
+    private PaymentTransitionAuditLog auditLog;
+
+    private static int index(PaymentStatus current, PaymentStatus target) {
+        return current.ordinal() * STATUS_COUNT + target.ordinal();
     }
 
     /**
-     * Check if a state transition is valid
+     * Look up the outcome of moving from one status to another without changing anything
      *
      * @param currentStatus Current payment status
      * @param targetStatus Target payment status
-     * @return true if transition is valid, false otherwise
+     * @return transition result code
      */
-    public boolean canTransition(PaymentStatus currentStatus, PaymentStatus targetStatus) {
+    public TransitionResult evaluate(PaymentStatus currentStatus, PaymentStatus targetStatus) {
         if (currentStatus == null || targetStatus == null) {
-            logger.warn("Invalid state transition attempt: null status provided");
-            return false;
-        }
-
-        // If already in target state, it's valid (idempotent webhook)
-        if (currentStatus == targetStatus) {
-            logger.debug("Payment already in target state {}, allowing idempotent transition", targetStatus);
-            return true;
-        }
-
-        // Check if this is a backward transition (CRITICAL CHECK)
-        if (targetStatus.getRank() < currentStatus.getRank()) {
-            logger.warn("REJECTED backward transition: {} -> {} (rank {} -> {})",
-                currentStatus, targetStatus, currentStatus.getRank(), targetStatus.getRank());
-            return false;
+            return TransitionResult.REJECTED_NULL;
         }
+        return TRANSITIONS[index(currentStatus, targetStatus)];
+    }
 
-        Set<PaymentStatus> allowedTransitions = VALID_TRANSITIONS.get(currentStatus);
-        boolean isAllowed = allowedTransitions != null && allowedTransitions.contains(targetStatus);
+    /**
+     * Check if a state transition is valid
+     * Same-state transitions are valid (idempotent webhook)
+     *
+     * @param currentStatus Current payment status
+     * @param targetStatus Target payment status
+     * @return true if transition is valid, false otherwise
+     */
+    public boolean canTransition(PaymentStatus currentStatus, PaymentStatus targetStatus) {
+        return evaluate(currentStatus, targetStatus).isAllowed();
+    }
 
-        if (!isAllowed) {
-            logger.warn("Invalid state transition: {} -> {} not in allowed transitions: {}",
-                currentStatus, targetStatus, allowedTransitions);
+    /**
+     * Move the payment to a new status if the table allows it
+     *
+     * @param payment Payment entity
+     * @param targetStatus Target status
+     * @return APPLIED or ALREADY_IN_STATE on success, a REJECTED_* code otherwise
+     */
+    public TransitionResult tryTransition(Payment payment, PaymentStatus targetStatus) {
+        PaymentStatus currentStatus = payment.getStatus();
+        TransitionResult result = evaluate(currentStatus, targetStatus);
+
+        if (result == TransitionResult.APPLIED) {
+            payment.setStatus(targetStatus);
+            audit(payment, currentStatus, targetStatus);
+        } else if (!result.isAllowed()) {
+            logger.warn("{} state transition for payment {}: {} -> {}",
+                result, payment.getPaymentId(), currentStatus, targetStatus);
         }
-
-        return isAllowed;
+        return result;
     }
 
     /**
@@ -98,26 +149,13 @@ public class PaymentStateMachine {
      */
     public boolean transition(Payment payment, PaymentStatus targetStatus) {
         PaymentStatus currentStatus = payment.getStatus();
+        TransitionResult result = tryTransition(payment, targetStatus);
 
-        if (currentStatus == targetStatus) {
-            logger.debug("Payment {} already in status {} (idempotent webhook)",
-                payment.getPaymentId(), targetStatus);
-            return true;
+        if (!result.isAllowed()) {
+            throw new IllegalStateException(String.format(
+                "REJECTED invalid state transition for payment %s: %s -> %s (%s)",
+                payment.getPaymentId(), currentStatus, targetStatus, result));
         }
-
-        if (!canTransition(currentStatus, targetStatus)) {
-            String errorMessage = String.format(
-                "REJECTED invalid state transition for payment %s: %s -> %s (backward or invalid move)",
-                payment.getPaymentId(), currentStatus, targetStatus
-            );
-            logger.error(errorMessage);
-            throw new IllegalStateException(errorMessage);
-        }
-
-        logger.info("✅ Valid transition for payment {}: {} -> {}",
-            payment.getPaymentId(), currentStatus, targetStatus);
-
-        payment.setStatus(targetStatus);
         return true;
     }
 
@@ -139,14 +177,31 @@ public class PaymentStateMachine {
         transition(payment, PaymentStatus.CAPTURED);
     }
 
+    /**
+     * Transition to FAILED status
+     * Failure is accepted from any status, so a bank decline is never lost
+     *
+     * @param payment Payment entity
+     * @return APPLIED, or ALREADY_IN_STATE if the payment had already failed
+     */
+    public TransitionResult transitionToFailed(Payment payment) {
+        PaymentStatus currentStatus = payment.getStatus();
+        if (currentStatus == PaymentStatus.FAILED) {
+            return TransitionResult.ALREADY_IN_STATE;
+        }
+        payment.setStatus(PaymentStatus.FAILED);
+        audit(payment, currentStatus, PaymentStatus.FAILED);
+        return TransitionResult.APPLIED;
+    }
+
     /**
      * Get all valid next states for a given status
      *
      * @param currentStatus Current payment status
-     * @return Set of valid next states
+     * @return Set of valid next states (unmodifiable)
      */
     public Set<PaymentStatus> getValidNextStates(PaymentStatus currentStatus) {
-        return VALID_TRANSITIONS.getOrDefault(currentStatus, EnumSet.noneOf(PaymentStatus.class));
+        return currentStatus == null ? Collections.emptySet() : VALID_NEXT_STATES.get(currentStatus);
     }
 
     /**
@@ -158,4 +213,10 @@ public class PaymentStateMachine {
     public boolean isTerminalState(PaymentStatus status) {
         return status != null && status.isTerminal();
     }
-}
\ No newline at end of file
+
+    private void audit(Payment payment, PaymentStatus fromStatus, PaymentStatus toStatus) {
+        if (auditLog != null) {
+            auditLog.record(payment.getPaymentId(), fromStatus, toStatus);
+        }
+    }
+}
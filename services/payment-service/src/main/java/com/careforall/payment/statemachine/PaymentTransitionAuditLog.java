@@ -0,0 +1,175 @@
+package com.careforall.payment.statemachine;
+
+import com.careforall.payment.entity.PaymentTransition;
+import com.careforall.payment.enums.PaymentStatus;
+import com.careforall.payment.repository.PaymentTransitionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payment Transition Audit Log
+ *
+ * Appends applied state transitions to the payment_transitions table off the
+ * request path. Transitions made inside a transaction are queued only after it
+ * commits, so rolled-back changes never reach the log. A single writer thread
+ * drains the bounded queue and inserts up to batch-size rows per transaction.
+ *
+ * The log is best effort: when the queue is full new entries are dropped and
+ * counted (payment.transitions.audit.dropped) rather than slowing payments down.
+ */
+@Component
+public class PaymentTransitionAuditLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentTransitionAuditLog.class);
+
+    @Value("${payment.transitions.audit.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${payment.transitions.audit.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    @Value("${payment.transitions.audit.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${payment.transitions.audit.flush-interval-ms:200}")
+    private long flushIntervalMs = 200;
+
+    @Autowired
+    private PaymentTransitionRepository transitionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<PaymentTransition> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private Counter writtenCounter;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        writtenCounter = Counter.builder("payment.transitions.audit.written")
+            .description("Payment transitions written to the audit table")
+            .register(meterRegistry);
+        droppedCounter = Counter.builder("payment.transitions.audit.dropped")
+            .description("Payment transitions not audited because the queue was full or the write failed")
+            .register(meterRegistry);
+        Gauge.builder("payment.transitions.audit.queued", queue, BlockingQueue::size)
+            .description("Payment transitions waiting to be written")
+            .register(meterRegistry);
+
+        if (enabled) {
+            running = true;
+            writer = new Thread(this::runWriter, "payment-transition-audit");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(flushIntervalMs * 5);
+        }
+    }
+
+    /**
+     * Record an applied transition
+     * Inside a transaction the entry is queued after commit, and dropped on rollback
+     */
+    public void record(String paymentId, PaymentStatus fromStatus, PaymentStatus toStatus) {
+        if (!enabled) {
+            return;
+        }
+        PaymentTransition transition = PaymentTransition.builder()
+            .paymentId(paymentId)
+            .fromStatus(fromStatus)
+            .toStatus(toStatus)
+            .occurredAt(LocalDateTime.now())
+            .build();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            offer(transition);
+            return;
+        }
+
+        // One synchronization per transaction, however many transitions it makes
+        @SuppressWarnings("unchecked")
+        List<PaymentTransition> pending = (List<PaymentTransition>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<PaymentTransition> transactionTransitions = new ArrayList<>();
+            pending = transactionTransitions;
+            TransactionSynchronizationManager.bindResource(this, transactionTransitions);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PaymentTransitionAuditLog.this);
+                    if (status == STATUS_COMMITTED) {
+                        transactionTransitions.forEach(PaymentTransitionAuditLog.this::offer);
+                    }
+                }
+            });
+        }
+        pending.add(transition);
+    }
+
+    private void offer(PaymentTransition transition) {
+        if (!queue.offer(transition)) {
+            droppedCounter.increment();
+        }
+    }
+
+    private void runWriter() {
+        List<PaymentTransition> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PaymentTransition first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PaymentTransition> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> transitionRepository.saveAll(batch));
+            writtenCounter.increment(batch.size());
+        } catch (Exception e) {
+            droppedCounter.increment(batch.size());
+            logger.error("Failed to write {} payment transitions to the audit log: {}", batch.size(), e.getMessage());
+        }
+    }
+}
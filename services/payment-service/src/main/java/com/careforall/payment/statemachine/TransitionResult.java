@@ -0,0 +1,33 @@
+package com.careforall.payment.statemachine;
+
+/**
+ * Outcome of a payment state transition attempt
+ *
+ * Returned by PaymentStateMachine instead of throwing, so callers on the hot path
+ * (banking event listener, reconciler) can branch on a constant.
+ */
+public enum TransitionResult {
+    /** Status changed to the target */
+    APPLIED(true),
+    /** Payment was already in the target status (idempotent webhook); nothing changed */
+    ALREADY_IN_STATE(true),
+    /** Target is behind the current status (out-of-order or redelivered webhook) */
+    REJECTED_BACKWARD(false),
+    /** Target is ahead of the current status but not reachable from it (e.g. skipping a state) */
+    REJECTED_INVALID(false),
+    /** Current or target status is null */
+    REJECTED_NULL(false);
+
+    private final boolean allowed;
+
+    TransitionResult(boolean allowed) {
+        this.allowed = allowed;
+    }
+
+    /**
+     * True if the payment is in the target status after the attempt
+     */
+    public boolean isAllowed() {
+        return allowed;
+    }
+}
@@ -0,0 +1,200 @@
+package com.careforall.payment.listener;
+
+import com.careforall.payment.config.RabbitMQConfig;
+import com.careforall.payment.entity.Payment;
+import com.careforall.payment.enums.PaymentStatus;
+import com.careforall.payment.event.BankingEvent;
+import com.careforall.payment.outbox.OutboxEvent;
+import com.careforall.payment.outbox.OutboxEventRepository;
+import com.careforall.payment.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Banking Event Listener Batch Tests
+ *
+ * Verifies the batch consumer loads payments with one query, applies events in
+ * arrival order and records outbound events in the outbox in the same transaction.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BankingEventListenerBatchTest {
+
+    @Autowired
+    private BankingEventListener bankingEventListener;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Test
+    void testBatchLoadsPaymentsWithOneQueryAndAppliesInOrder() throws Exception {
+        List<String> paymentIds = new ArrayList<>();
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String paymentId = createPayment().getPaymentId();
+            paymentIds.add(paymentId);
+            messages.add(message(event("PAYMENT_AUTHORIZED", paymentId)));
+            messages.add(message(event("PAYMENT_CAPTURED", paymentId)));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        bankingEventListener.handleBankingEvents(messages);
+
+        assertEquals(1, statistics.getQueryExecutionCount(), "payments should be loaded with one IN query");
+        assertEquals(20, statistics.getEntityUpdateCount(), "each payment should be updated once");
+        for (String paymentId : paymentIds) {
+            Payment payment = paymentRepository.findByPaymentId(paymentId).orElseThrow();
+            assertEquals(PaymentStatus.CAPTURED, payment.getStatus());
+            assertEquals("TXN-" + paymentId, payment.getMetadata().get("banking_transaction_id"));
+            assertEquals(List.of(OutboxEvent.PAYMENT_COMPLETED), outboxEventTypes(paymentId));
+        }
+        // Publishing is left to the outbox relay
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void testUnknownPaymentsAndUnreadableMessagesAreSkipped() throws Exception {
+        Payment payment = createPayment();
+        List<Message> messages = List.of(
+            new Message("not json".getBytes(), new MessageProperties()),
+            message(event("PAYMENT_CAPTURED", "PAY-does-not-exist")),
+            message(failedEvent(payment.getPaymentId()))
+        );
+
+        bankingEventListener.handleBankingEvents(messages);
+
+        assertEquals(PaymentStatus.FAILED, paymentRepository.findByPaymentId(payment.getPaymentId()).orElseThrow().getStatus());
+        assertEquals(List.of(OutboxEvent.PAYMENT_FAILED), outboxEventTypes(payment.getPaymentId()));
+        assertEquals(List.of(), outboxEventTypes("PAY-does-not-exist"));
+    }
+
+    @Test
+    void testRedeliveredBatchIsIdempotent() throws Exception {
+        Payment payment = createPayment();
+        List<Message> messages = List.of(
+            message(event("PAYMENT_AUTHORIZED", payment.getPaymentId())),
+            message(event("PAYMENT_CAPTURED", payment.getPaymentId()))
+        );
+
+        bankingEventListener.handleBankingEvents(messages);
+        bankingEventListener.handleBankingEvents(messages);
+
+        assertEquals(PaymentStatus.CAPTURED, paymentRepository.findByPaymentId(payment.getPaymentId()).orElseThrow().getStatus());
+        // The repeated capture announces the completion again; donation-service treats it as a duplicate
+        assertEquals(List.of(OutboxEvent.PAYMENT_COMPLETED, OutboxEvent.PAYMENT_COMPLETED),
+            outboxEventTypes(payment.getPaymentId()));
+    }
+
+    @Test
+    void testCaptureWithoutAuthorizationCompletesPayment() throws Exception {
+        Payment payment = createPayment();
+
+        bankingEventListener.handleBankingEvents(List.of(message(event("PAYMENT_CAPTURED", payment.getPaymentId()))));
+
+        Payment captured = paymentRepository.findByPaymentId(payment.getPaymentId()).orElseThrow();
+        assertEquals(PaymentStatus.CAPTURED, captured.getStatus());
+        assertEquals("TXN-" + payment.getPaymentId(), captured.getMetadata().get("banking_transaction_id"));
+        assertEquals(List.of(OutboxEvent.PAYMENT_COMPLETED), outboxEventTypes(payment.getPaymentId()));
+    }
+
+    @Test
+    void testPoisonEventIsDeadLetteredAndBatchCompletes() throws Exception {
+        Payment payment = createPayment();
+        Message poison = message(event(null, payment.getPaymentId()));
+
+        bankingEventListener.handleBankingEvents(List.of(
+            poison,
+            message(event("PAYMENT_CAPTURED", payment.getPaymentId()))
+        ));
+
+        // The rest of the batch is applied and the poison event parked, not requeued
+        assertEquals(PaymentStatus.CAPTURED, paymentRepository.findByPaymentId(payment.getPaymentId()).orElseThrow().getStatus());
+        verify(rabbitTemplate).send(RabbitMQConfig.BANKING_RESPONSE_DLX,
+            RabbitMQConfig.BANKING_RESPONSE_DEAD_ROUTING_KEY, poison);
+    }
+
+    @Test
+    void testTransientFaultsAreRequeued() {
+        assertTrue(BankingEventListener.isTransient(new CannotCreateTransactionException("database down")));
+        assertTrue(BankingEventListener.isTransient(new RuntimeException(new QueryTimeoutException("timeout"))));
+        assertFalse(BankingEventListener.isTransient(new NullPointerException()));
+    }
+
+    private List<String> outboxEventTypes(String paymentId) {
+        return outboxEventRepository.findByAggregateIdOrderByIdAsc(paymentId).stream()
+            .map(OutboxEvent::getEventType)
+            .toList();
+    }
+
+    private Payment createPayment() {
+        return paymentRepository.save(Payment.builder()
+            .paymentId("PAY-" + UUID.randomUUID())
+            .idempotencyKey("batch-" + UUID.randomUUID())
+            .donationId("00000000-0000-0000-0000-000000000100")
+            .userId(200L)
+            .amount(new BigDecimal("25.00"))
+            .status(PaymentStatus.CREATED)
+            .build());
+    }
+
+    private Message message(BankingEvent event) throws Exception {
+        return new Message(objectMapper.writeValueAsBytes(event), new MessageProperties());
+    }
+
+    private BankingEvent event(String eventType, String paymentId) {
+        return BankingEvent.builder()
+            .eventType(eventType)
+            .paymentId(paymentId)
+            .transactionId("TXN-" + paymentId)
+            .amount(new BigDecimal("25.00"))
+            .status("SUCCESS")
+            .timestamp(LocalDateTime.now())
+            .build();
+    }
+
+    private BankingEvent failedEvent(String paymentId) {
+        return BankingEvent.builder()
+            .eventType("PAYMENT_FAILED")
+            .paymentId(paymentId)
+            .amount(new BigDecimal("25.00"))
+            .status("FAILED")
+            .failureReason("Insufficient balance")
+            .timestamp(LocalDateTime.now())
+            .build();
+    }
+}
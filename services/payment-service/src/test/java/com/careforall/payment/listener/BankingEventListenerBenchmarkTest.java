@@ -0,0 +1,162 @@
+package com.careforall.payment.listener;
+
+import com.careforall.payment.entity.Payment;
+import com.careforall.payment.enums.PaymentStatus;
+import com.careforall.payment.event.BankingEvent;
+import com.careforall.payment.outbox.OutboxEvent;
+import com.careforall.payment.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Banking Event Listener Benchmark
+ *
+ * Measures payment-event processing throughput and SQL statements per event with
+ * metadata stored as a JSON column (one SELECT and one UPDATE per event, no
+ * collection-table joins or row rewrites), for both the single-event and the batch
+ * listener paths. Completion messages are written to the outbox alongside.
+ */
+// The transition audit log writes on its own thread into the same statistics, so it is off here
+@SpringBootTest(properties = "payment.transitions.audit.enabled=false")
+@ActiveProfiles("test")
+class BankingEventListenerBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BankingEventListenerBenchmarkTest.class);
+    private static final int PAYMENTS = 1000;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private BankingEventListener bankingEventListener;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Test
+    void testPaymentEventThroughput() {
+        List<String> paymentIds = createPayments();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        long start = System.nanoTime();
+        for (String paymentId : paymentIds) {
+            bankingEventListener.handleBankingEvent(event("PAYMENT_AUTHORIZED", paymentId));
+            bankingEventListener.handleBankingEvent(event("PAYMENT_CAPTURED", paymentId));
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        int events = PAYMENTS * 2;
+        // Outbox inserts (and the pooled sequence fetches behind them) are the cost of the
+        // completion message, not of applying the event, so they are left out of the ratio
+        long outboxInserts = statistics.getEntityStatistics(OutboxEvent.class.getName()).getInsertCount();
+        long outboxStatements = outboxInserts + outboxInserts / 50 + 2;
+        double statementsPerEvent = (statistics.getPrepareStatementCount() - outboxStatements) / (double) events;
+        double eventsPerSecond = events / (elapsedNanos / 1_000_000_000.0);
+        logger.info("Processed {} banking events: {} events/s, {} statements/event",
+            events, String.format("%.0f", eventsPerSecond), String.format("%.2f", statementsPerEvent));
+
+        Payment captured = paymentRepository.findByPaymentId(paymentIds.get(0)).orElseThrow();
+        assertEquals(PaymentStatus.CAPTURED, captured.getStatus());
+        assertEquals("donation-service", captured.getMetadata().get("created_by"));
+        assertEquals("TXN-" + paymentIds.get(0), captured.getMetadata().get("banking_transaction_id"));
+        assertNotNull(captured.getMetadata().get("capture_time"));
+        assertTrue(statementsPerEvent <= 2.0, "expected one SELECT and one UPDATE per event, got " + statementsPerEvent);
+    }
+
+    @Test
+    void testBatchedPaymentEventThroughput() throws Exception {
+        List<String> paymentIds = createPayments();
+        List<List<Message>> batches = new ArrayList<>();
+        List<Message> batch = new ArrayList<>();
+        for (String paymentId : paymentIds) {
+            batch.add(message(event("PAYMENT_AUTHORIZED", paymentId)));
+            batch.add(message(event("PAYMENT_CAPTURED", paymentId)));
+            if (batch.size() == BATCH_SIZE) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+            }
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        long start = System.nanoTime();
+        for (List<Message> messages : batches) {
+            bankingEventListener.handleBankingEvents(messages);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        int events = PAYMENTS * 2;
+        double statementsPerEvent = statistics.getPrepareStatementCount() / (double) events;
+        double eventsPerSecond = events / (elapsedNanos / 1_000_000_000.0);
+        logger.info("Processed {} banking events in batches of {}: {} events/s, {} statements/event",
+            events, BATCH_SIZE, String.format("%.0f", eventsPerSecond), String.format("%.2f", statementsPerEvent));
+
+        Payment captured = paymentRepository.findByPaymentId(paymentIds.get(PAYMENTS - 1)).orElseThrow();
+        assertEquals(PaymentStatus.CAPTURED, captured.getStatus());
+        assertEquals("TXN-" + captured.getPaymentId(), captured.getMetadata().get("banking_transaction_id"));
+        assertTrue(statementsPerEvent < 1.0, "expected batched statements, got " + statementsPerEvent + " per event");
+    }
+
+    private List<String> createPayments() {
+        List<String> paymentIds = new ArrayList<>();
+        for (int i = 0; i < PAYMENTS; i++) {
+            Payment payment = Payment.builder()
+                .paymentId("PAY-" + UUID.randomUUID())
+                .idempotencyKey("bench-" + UUID.randomUUID())
+                .donationId("00000000-0000-0000-0000-000000000100")
+                .userId(200L)
+                .amount(new BigDecimal("25.00"))
+                .status(PaymentStatus.CREATED)
+                .build();
+            payment.addMetadata("created_by", "donation-service");
+            payment.addMetadata("payment_gateway", "mock-gateway");
+            paymentIds.add(paymentRepository.save(payment).getPaymentId());
+        }
+        return paymentIds;
+    }
+
+    private Message message(BankingEvent event) throws Exception {
+        return new Message(objectMapper.writeValueAsBytes(event), new MessageProperties());
+    }
+
+    private BankingEvent event(String eventType, String paymentId) {
+        return BankingEvent.builder()
+            .eventType(eventType)
+            .paymentId(paymentId)
+            .transactionId("TXN-" + paymentId)
+            .amount(new BigDecimal("25.00"))
+            .status("SUCCESS")
+            .timestamp(LocalDateTime.now())
+            .build();
+    }
+}
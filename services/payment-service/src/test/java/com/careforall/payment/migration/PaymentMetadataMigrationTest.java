@@ -0,0 +1,96 @@
+package com.careforall.payment.migration;
+
+import com.careforall.payment.entity.Payment;
+import com.careforall.payment.enums.PaymentStatus;
+import com.careforall.payment.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Payment Metadata Migration Tests
+ *
+ * Verifies legacy payment_metadata rows are merged into the JSON column exactly once.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentMetadataMigrationTest {
+
+    @Autowired
+    private PaymentMetadataMigration migration;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Test
+    void testLegacyRowsAreMovedIntoJsonColumn() {
+        Payment legacy = paymentRepository.save(payment());
+        Payment alreadyMigrated = payment();
+        alreadyMigrated.addMetadata("source", "json");
+        alreadyMigrated = paymentRepository.save(alreadyMigrated);
+
+        jdbcTemplate.execute("CREATE TABLE payment_metadata (payment_id BIGINT NOT NULL, " +
+            "metadata_key VARCHAR(255) NOT NULL, metadata_value VARCHAR(1000))");
+        jdbcTemplate.update("INSERT INTO payment_metadata VALUES (?, ?, ?)", legacy.getId(), "created_by", "donation-service");
+        jdbcTemplate.update("INSERT INTO payment_metadata VALUES (?, ?, ?)", legacy.getId(), "banking_status", "SUCCESS");
+        jdbcTemplate.update("INSERT INTO payment_metadata VALUES (?, ?, ?)", alreadyMigrated.getId(), "source", "legacy");
+
+        assertEquals(2, migration.migrate());
+
+        assertEquals(Map.of("created_by", "donation-service", "banking_status", "SUCCESS"),
+            paymentRepository.findById(legacy.getId()).orElseThrow().getMetadata());
+        assertEquals(Map.of("source", "json"),
+            paymentRepository.findById(alreadyMigrated.getId()).orElseThrow().getMetadata());
+
+        // Legacy table is renamed, so a second run is a no-op
+        assertEquals(0, migration.migrate());
+        jdbcTemplate.execute("DROP TABLE payment_metadata_migrated");
+    }
+
+    @Test
+    void testLegacyRowsAreMergedWithKeysWrittenByListeners() {
+        // A banking event wrote to the JSON column before this payment's legacy rows were copied
+        Payment payment = payment();
+        payment.addMetadata("banking_status", "CAPTURED");
+        payment = paymentRepository.save(payment);
+
+        jdbcTemplate.execute("CREATE TABLE payment_metadata (payment_id BIGINT NOT NULL, " +
+            "metadata_key VARCHAR(255) NOT NULL, metadata_value VARCHAR(1000))");
+        jdbcTemplate.update("INSERT INTO payment_metadata VALUES (?, ?, ?)", payment.getId(), "created_by", "donation-service");
+        jdbcTemplate.update("INSERT INTO payment_metadata VALUES (?, ?, ?)", payment.getId(), "banking_status", "SUCCESS");
+
+        assertEquals(1, migration.migrate());
+
+        // Legacy keys are kept; the newer listener-written value wins
+        assertEquals(Map.of("created_by", "donation-service", "banking_status", "CAPTURED"),
+            paymentRepository.findById(payment.getId()).orElseThrow().getMetadata());
+        jdbcTemplate.execute("DROP TABLE payment_metadata_migrated");
+    }
+
+    private Payment payment() {
+        return Payment.builder()
+            .paymentId("PAY-" + UUID.randomUUID())
+            .idempotencyKey("migration-" + UUID.randomUUID())
+            .donationId("00000000-0000-0000-0000-000000000100")
+            .userId(200L)
+            .amount(new BigDecimal("10.00"))
+            .status(PaymentStatus.CREATED)
+            .build();
+    }
+}
@@ -0,0 +1,171 @@
+package com.careforall.payment.outbox;
+
+import com.careforall.payment.config.RabbitMQConfig;
+import com.careforall.payment.dto.PaymentAuthorizationRequest;
+import com.careforall.payment.event.PaymentEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Outbox Publisher Tests
+ *
+ * Verifies outbox rows are written only with their transaction, published in
+ * confirmed batches with the original payload types, and retried or dead-lettered
+ * when the broker does not confirm.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxPublisherTest {
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxDeadLetterRepository deadLetterRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Other tests in this context leave unpublished rows behind
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        jdbcTemplate.update("DELETE FROM outbox_dead_letters");
+
+        // Run the publish callback against the mock itself, so sends and confirms can be verified
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class)))
+            .thenAnswer(invocation -> invocation.<RabbitOperations.OperationsCallback<Object>>getArgument(0)
+                .doInRabbit(rabbitTemplate));
+    }
+
+    @Test
+    void testPublishesBatchWithOneConfirmWait() {
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxWriter.enqueue(OutboxEvent.BANKING_AUTHORIZE, "PAY-1", authorizationRequest("PAY-1"));
+            outboxWriter.enqueue(OutboxEvent.PAYMENT_COMPLETED, "PAY-2", paymentEvent("PAY-2", "COMPLETED"));
+            outboxWriter.enqueue(OutboxEvent.PAYMENT_FAILED, "PAY-3", paymentEvent("PAY-3", "FAILED"));
+        });
+
+        assertEquals(3, outboxPublisher.publishPendingEvents());
+
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.BANKING_EXCHANGE),
+            eq(RabbitMQConfig.BANKING_AUTHORIZE_ROUTING_KEY),
+            argThat((Object payload) -> payload instanceof PaymentAuthorizationRequest request
+                && request.getPaymentId().equals("PAY-1")
+                && request.getAmount().compareTo(new BigDecimal("25.00")) == 0));
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.PAYMENT_EXCHANGE),
+            eq(RabbitMQConfig.PAYMENT_COMPLETED_ROUTING_KEY), any(PaymentEvent.class));
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.PAYMENT_EXCHANGE),
+            eq(RabbitMQConfig.PAYMENT_FAILED_ROUTING_KEY), any(PaymentEvent.class));
+        verify(rabbitTemplate, times(1)).waitForConfirmsOrDie(anyLong());
+
+        assertTrue(outboxEventRepository.findAll().stream()
+            .allMatch(event -> event.getStatus() == OutboxEvent.EventStatus.PUBLISHED && event.getProcessedAt() != null));
+        assertEquals(0, outboxPublisher.publishPendingEvents());
+    }
+
+    @Test
+    void testUnconfirmedBatchIsScheduledWithBackoff() {
+        doThrow(new AmqpException("nack")).when(rabbitTemplate).waitForConfirmsOrDie(anyLong());
+        transactionTemplate.executeWithoutResult(status ->
+            outboxWriter.enqueue(OutboxEvent.PAYMENT_COMPLETED, "PAY-4", paymentEvent("PAY-4", "COMPLETED")));
+
+        LocalDateTime before = LocalDateTime.now();
+        assertEquals(0, outboxPublisher.publishPendingEvents());
+
+        OutboxEvent event = outboxEventRepository.findByAggregateIdOrderByIdAsc("PAY-4").get(0);
+        assertEquals(OutboxEvent.EventStatus.PENDING, event.getStatus());
+        assertEquals(1, event.getRetryCount());
+        assertTrue(event.getNextAttemptAt().isAfter(before));
+        assertEquals("nack", event.getErrorMessage());
+
+        // Still backing off, so the next run does not pick it up
+        assertEquals(0, outboxPublisher.publishPendingEvents());
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), anyString(), any(Object.class));
+    }
+
+    @Test
+    void testExhaustedEventIsMovedToDeadLetters() {
+        doThrow(new AmqpException("nack")).when(rabbitTemplate).waitForConfirmsOrDie(anyLong());
+        transactionTemplate.executeWithoutResult(status ->
+            outboxWriter.enqueue(OutboxEvent.PAYMENT_FAILED, "PAY-5", paymentEvent("PAY-5", "FAILED")));
+        OutboxEvent event = outboxEventRepository.findByAggregateIdOrderByIdAsc("PAY-5").get(0);
+        event.setRetryCount(4);
+        outboxEventRepository.save(event);
+
+        outboxPublisher.publishPendingEvents();
+
+        assertEquals(List.of(), outboxEventRepository.findByAggregateIdOrderByIdAsc("PAY-5"));
+        List<OutboxDeadLetter> deadLetters = deadLetterRepository.findByReplayedAtIsNullOrderByDeadLetteredAtAsc();
+        assertEquals(1, deadLetters.size());
+        assertEquals(OutboxEvent.PAYMENT_FAILED, deadLetters.get(0).getEventType());
+        assertEquals(5, deadLetters.get(0).getRetryCount());
+    }
+
+    @Test
+    void testRolledBackTransactionLeavesNoEvent() {
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxWriter.enqueue(OutboxEvent.PAYMENT_COMPLETED, "PAY-6", paymentEvent("PAY-6", "COMPLETED"));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(), outboxEventRepository.findByAggregateIdOrderByIdAsc("PAY-6"));
+        assertThrows(IllegalTransactionStateException.class, () ->
+            outboxWriter.enqueue(OutboxEvent.PAYMENT_COMPLETED, "PAY-6", paymentEvent("PAY-6", "COMPLETED")));
+    }
+
+    private PaymentAuthorizationRequest authorizationRequest(String paymentId) {
+        return PaymentAuthorizationRequest.builder()
+            .paymentId(paymentId)
+            .donorEmail("donor@example.com")
+            .amount(new BigDecimal("25.00"))
+            .idempotencyKey("key-" + paymentId)
+            .build();
+    }
+
+    private PaymentEvent paymentEvent(String paymentId, String status) {
+        return PaymentEvent.builder()
+            .paymentId(paymentId)
+            .donationId("00000000-0000-0000-0000-000000000100")
+            .userId(200L)
+            .amount(new BigDecimal("25.00"))
+            .status(status)
+            .timestamp(LocalDateTime.now())
+            .build();
+    }
+}
@@ -0,0 +1,176 @@
+package com.careforall.payment.service;
+
+import com.careforall.payment.dto.PaymentResponse;
+import com.careforall.payment.entity.Payment;
+import com.careforall.payment.enums.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Idempotency Cache Tests
+ *
+ * Tests bounded, TTL-aware caching and single-flight coalescing of duplicate requests.
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyCacheTest {
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private IdempotencyCache idempotencyCache;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyCache.registerMetrics();
+    }
+
+    @Test
+    void testSecondLookupIsServedFromCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        PaymentResponse first = idempotencyCache.getOrCompute("key-1", () -> {
+            loads.incrementAndGet();
+            return response("key-1", LocalDateTime.now().plusHours(24));
+        });
+        PaymentResponse second = idempotencyCache.getOrCompute("key-1", () -> {
+            loads.incrementAndGet();
+            return response("key-1", LocalDateTime.now().plusHours(24));
+        });
+
+        assertEquals(1, loads.get());
+        assertFalse(first.isFromCache());
+        assertTrue(second.isFromCache());
+        assertEquals(first.getPaymentId(), second.getPaymentId());
+        assertEquals(1.0, meterRegistry.counter("payment.idempotency.cache.hits").count());
+    }
+
+    @Test
+    void testEntryDoesNotOutliveIdempotencyWindow() {
+        idempotencyCache.put("key-1", response("key-1", LocalDateTime.now().minusSeconds(1)));
+
+        assertNull(idempotencyCache.get("key-1"));
+        assertEquals(0, idempotencyCache.size());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        ReflectionTestUtils.setField(idempotencyCache, "maxSize", 2);
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(1);
+
+        idempotencyCache.put("key-1", response("key-1", expiresAt));
+        idempotencyCache.put("key-2", response("key-2", expiresAt));
+        idempotencyCache.get("key-1");
+        idempotencyCache.put("key-3", response("key-3", expiresAt));
+
+        assertEquals(2, idempotencyCache.size());
+        assertNotNull(idempotencyCache.get("key-1"));
+        assertNull(idempotencyCache.get("key-2"));
+        assertNotNull(idempotencyCache.get("key-3"));
+    }
+
+    @Test
+    void testConcurrentDuplicatesShareOneComputation() throws Exception {
+        int threads = 64;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<PaymentResponse>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return idempotencyCache.getOrCompute("hot-key", () -> {
+                        loads.incrementAndGet();
+                        sleep(100);
+                        return response("hot-key", LocalDateTime.now().plusHours(24));
+                    });
+                }));
+            }
+            start.countDown();
+
+            long fresh = 0;
+            for (Future<PaymentResponse> result : results) {
+                PaymentResponse response = result.get(10, TimeUnit.SECONDS);
+                assertEquals("PAY-hot-key", response.getPaymentId());
+                if (!response.isFromCache()) {
+                    fresh++;
+                }
+            }
+
+            assertEquals(1, loads.get());
+            assertEquals(1, fresh);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailedComputationIsNotCached() {
+        assertThrows(IllegalStateException.class, () -> idempotencyCache.getOrCompute("key-1", () -> {
+            throw new IllegalStateException("banking down");
+        }));
+
+        PaymentResponse retried = idempotencyCache.getOrCompute("key-1",
+            () -> response("key-1", LocalDateTime.now().plusHours(24)));
+        assertFalse(retried.isFromCache());
+    }
+
+    @Test
+    void testRefreshReplacesSnapshotWithNewStatus() {
+        idempotencyCache.put("key-1", response("key-1", LocalDateTime.now().plusHours(24)));
+
+        Payment payment = Payment.builder()
+            .paymentId("PAY-key-1")
+            .idempotencyKey("key-1")
+            .donationId("00000000-0000-0000-0000-000000000100")
+            .userId(200L)
+            .amount(new BigDecimal("50.00"))
+            .status(PaymentStatus.CAPTURED)
+            .idempotencyExpiresAt(LocalDateTime.now().plusHours(24))
+            .build();
+        idempotencyCache.refresh(payment);
+
+        assertEquals(PaymentStatus.CAPTURED, idempotencyCache.get("key-1").getStatus());
+    }
+
+    private PaymentResponse response(String key, LocalDateTime idempotencyExpiresAt) {
+        return PaymentResponse.builder()
+            .paymentId("PAY-" + key)
+            .idempotencyKey(key)
+            .donationId("00000000-0000-0000-0000-000000000100")
+            .userId(200L)
+            .amount(new BigDecimal("50.00"))
+            .status(PaymentStatus.CREATED)
+            .idempotencyExpiresAt(idempotencyExpiresAt)
+            .build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.careforall.payment.service;
+
+import com.careforall.payment.dto.PaymentRequest;
+import com.careforall.payment.dto.PaymentResponse;
+import com.careforall.payment.entity.Payment;
+import com.careforall.payment.enums.PaymentStatus;
+import com.careforall.payment.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Idempotency Cleanup Job Tests
+ *
+ * Drains a large dataset of expired idempotency keys in chunks and checks that an
+ * expired key can be reused for a new payment. The dataset defaults to 100k rows;
+ * run with -Didempotency.cleanup.rows=1000000 for the full million-row measurement.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyCleanupJobTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyCleanupJobTest.class);
+    private static final int ROWS = Integer.getInteger("idempotency.cleanup.rows", 100_000);
+
+    @Autowired
+    private IdempotencyCleanupJob cleanupJob;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @AfterEach
+    void tearDown() {
+        // Chunked so a million-row teardown does not build one huge in-memory transaction
+        while (jdbcTemplate.update("DELETE FROM payments WHERE payment_id LIKE 'PAY-BULK-%' LIMIT 10000") > 0) {
+        }
+    }
+
+    @Test
+    void testClearsMillionRowBacklogInChunks() {
+        // 90% of rows expired an hour ago, every 10th row is still inside its window
+        jdbcTemplate.update(
+            "INSERT INTO payments (payment_id, idempotency_key, donation_id, user_id, amount, status, " +
+            "attempt_count, created_at, updated_at, idempotency_expires_at) " +
+            "SELECT 'PAY-BULK-' || X, 'bulk-' || X, X, 1, 10.00, 'CAPTURED', 0, NOW(), NOW(), " +
+            "CASE WHEN MOD(X, 10) = 0 THEN DATEADD('HOUR', 1, NOW()) ELSE DATEADD('HOUR', -1, NOW()) END " +
+            "FROM SYSTEM_RANGE(1, " + ROWS + ")");
+
+        ReflectionTestUtils.setField(cleanupJob, "chunkSize", 10_000);
+        ReflectionTestUtils.setField(cleanupJob, "pauseMs", 0L);
+        ReflectionTestUtils.setField(cleanupJob, "maxChunksPerRun", 1_000);
+        double clearedBefore = meterRegistry.counter("payment.idempotency.cleanup.cleared").count();
+
+        long start = System.nanoTime();
+        long cleared = cleanupJob.runCleanup();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Cleared {} expired idempotency keys out of {} rows in {} ms", cleared, ROWS, elapsedMillis);
+
+        assertEquals(ROWS / 10 * 9, cleared);
+        assertEquals(ROWS / 10 * 9, meterRegistry.counter("payment.idempotency.cleanup.cleared").count() - clearedBefore);
+        assertEquals(0.0, meterRegistry.get("payment.idempotency.cleanup.backlog").gauge().value());
+        assertEquals((long) ROWS / 10, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM payments WHERE payment_id LIKE 'PAY-BULK-%' AND idempotency_key IS NOT NULL", Long.class));
+        // Payments themselves are kept
+        assertEquals((long) ROWS, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM payments WHERE payment_id LIKE 'PAY-BULK-%'", Long.class));
+    }
+
+    @Test
+    void testChunkCapBoundsASingleRun() {
+        jdbcTemplate.update(
+            "INSERT INTO payments (payment_id, idempotency_key, donation_id, user_id, amount, status, " +
+            "attempt_count, created_at, updated_at, idempotency_expires_at) " +
+            "SELECT 'PAY-BULK-' || X, 'bulk-' || X, X, 1, 10.00, 'CAPTURED', 0, NOW(), NOW(), DATEADD('HOUR', -1, NOW()) " +
+            "FROM SYSTEM_RANGE(1, 500)");
+
+        ReflectionTestUtils.setField(cleanupJob, "chunkSize", 100);
+        ReflectionTestUtils.setField(cleanupJob, "pauseMs", 0L);
+        ReflectionTestUtils.setField(cleanupJob, "maxChunksPerRun", 2);
+
+        assertEquals(200, cleanupJob.runCleanup());
+        assertEquals(300.0, meterRegistry.get("payment.idempotency.cleanup.backlog").gauge().value());
+    }
+
+    @Test
+    void testExpiredKeyCanBeReused() {
+        String key = "reuse-" + UUID.randomUUID();
+        Payment expired = Payment.builder()
+            .paymentId("PAY-" + UUID.randomUUID())
+            .idempotencyKey(key)
+            .donationId("00000000-0000-0000-0000-000000000100")
+            .userId(200L)
+            .amount(new BigDecimal("10.00"))
+            .status(PaymentStatus.CAPTURED)
+            .idempotencyExpiresAt(LocalDateTime.now().minusMinutes(1))
+            .build();
+        expired = paymentRepository.save(expired);
+
+        PaymentRequest request = new PaymentRequest();
+        request.setIdempotencyKey(key);
+        request.setDonationId("00000000-0000-0000-0000-000000000101");
+        request.setUserId(200L);
+        request.setAmount(new BigDecimal("20.00"));
+
+        PaymentResponse response = paymentService.createOrGetExisting(request);
+
+        assertFalse(response.isFromCache());
+        assertNotEquals(expired.getPaymentId(), response.getPaymentId());
+        assertNull(paymentRepository.findById(expired.getId()).orElseThrow().getIdempotencyKey());
+    }
+}
@@ -43,7 +43,7 @@ class IdempotencyServiceTest {
             .id(1L)
             .paymentId("PAY-001")
             .idempotencyKey(idempotencyKey)
-            .donationId(100L)
+            .donationId("00000000-0000-0000-0000-000000000100")
             .userId(200L)
             .amount(new BigDecimal("100.00"))
             .status(PaymentStatus.COMPLETED)
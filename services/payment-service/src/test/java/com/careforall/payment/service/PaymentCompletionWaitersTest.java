@@ -0,0 +1,160 @@
+package com.careforall.payment.service;
+
+import com.careforall.payment.dto.PaymentRequest;
+import com.careforall.payment.dto.PaymentResponse;
+import com.careforall.payment.entity.Payment;
+import com.careforall.payment.enums.PaymentStatus;
+import com.careforall.payment.event.BankingEvent;
+import com.careforall.payment.listener.BankingEventListener;
+import com.careforall.payment.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Payment Completion Waiters Tests
+ *
+ * Verifies long-poll waiters are completed by the banking listener only once a
+ * terminal status has committed, and that waiters are always cleaned up.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentCompletionWaitersTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentCompletionWaiters completionWaiters;
+
+    @Autowired
+    private BankingEventListener bankingEventListener;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(completionWaiters, "maxWaiters", 10000);
+        assertEquals(0, completionWaiters.getWaiterCount(), "no waiter should be left behind");
+    }
+
+    @Test
+    void testWaiterCompletesWhenPaymentIsCaptured() throws Exception {
+        String paymentId = submitPayment();
+
+        CompletableFuture<PaymentResponse> waiter = paymentService.awaitFinalResult(paymentId).orElseThrow();
+        assertFalse(waiter.isDone());
+        assertEquals(1, completionWaiters.getWaiterCount());
+
+        bankingEventListener.handleBankingEvents(List.of(message(event("PAYMENT_AUTHORIZED", paymentId))));
+        assertFalse(waiter.isDone(), "AUTHORIZED is not a final result");
+
+        bankingEventListener.handleBankingEvents(List.of(message(event("PAYMENT_CAPTURED", paymentId))));
+        PaymentResponse result = waiter.get(1, TimeUnit.SECONDS);
+        assertEquals(PaymentStatus.CAPTURED, result.getStatus());
+        assertEquals(paymentId, result.getPaymentId());
+        assertNull(result.getMetadata());
+    }
+
+    @Test
+    void testFinishedPaymentCompletesImmediately() throws Exception {
+        String paymentId = submitPayment();
+        Payment payment = paymentRepository.findByPaymentId(paymentId).orElseThrow();
+        payment.setStatus(PaymentStatus.FAILED);
+        paymentRepository.save(payment);
+
+        CompletableFuture<PaymentResponse> waiter = paymentService.awaitFinalResult(paymentId).orElseThrow();
+
+        assertTrue(waiter.isDone());
+        assertEquals(PaymentStatus.FAILED, waiter.get().getStatus());
+    }
+
+    @Test
+    void testUnknownPaymentHasNoWaiter() {
+        assertTrue(paymentService.awaitFinalResult("PAY-" + UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void testRolledBackResultDoesNotCompleteWaiter() {
+        String paymentId = submitPayment();
+        CompletableFuture<PaymentResponse> waiter = paymentService.awaitFinalResult(paymentId).orElseThrow();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Payment payment = paymentRepository.findByPaymentId(paymentId).orElseThrow();
+            payment.setStatus(PaymentStatus.FAILED);
+            completionWaiters.paymentUpdated(payment);
+            status.setRollbackOnly();
+        });
+
+        assertFalse(waiter.isDone());
+        paymentService.cancelWait(paymentId, waiter);
+    }
+
+    @Test
+    void testWaitersAreBounded() {
+        String paymentId = submitPayment();
+        ReflectionTestUtils.setField(completionWaiters, "maxWaiters", 1);
+
+        CompletableFuture<PaymentResponse> first = paymentService.awaitFinalResult(paymentId).orElseThrow();
+        assertThrows(IllegalStateException.class, () -> paymentService.awaitFinalResult(paymentId));
+
+        paymentService.cancelWait(paymentId, first);
+        paymentService.cancelWait(paymentId, first);
+        assertEquals(0, completionWaiters.getWaiterCount());
+    }
+
+    private String submitPayment() {
+        PaymentResponse response = paymentService.processPayment(PaymentRequest.builder()
+            .idempotencyKey("long-poll-" + UUID.randomUUID())
+            .donationId("00000000-0000-0000-0000-000000000100")
+            .userId(200L)
+            .amount(new BigDecimal("30.00"))
+            .paymentMethod("donor@example.com")
+            .build());
+        assertEquals(PaymentStatus.CREATED, response.getStatus());
+        return response.getPaymentId();
+    }
+
+    private Message message(BankingEvent event) throws Exception {
+        return new Message(objectMapper.writeValueAsBytes(event), new MessageProperties());
+    }
+
+    private BankingEvent event(String eventType, String paymentId) {
+        return BankingEvent.builder()
+            .eventType(eventType)
+            .paymentId(paymentId)
+            .transactionId("TXN-" + paymentId)
+            .amount(new BigDecimal("30.00"))
+            .status("SUCCESS")
+            .timestamp(LocalDateTime.now())
+            .build();
+    }
+}
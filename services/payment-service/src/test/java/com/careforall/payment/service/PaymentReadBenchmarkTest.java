@@ -0,0 +1,180 @@
+package com.careforall.payment.service;
+
+import com.careforall.payment.dto.PaymentResponse;
+import com.careforall.payment.entity.Payment;
+import com.careforall.payment.enums.PaymentStatus;
+import com.careforall.payment.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Payment Read Benchmark
+ *
+ * Checks that payment lookups read a column projection (no entity load, no metadata)
+ * unless metadata is requested, and measures lookup latency under concurrent load
+ * for both read paths.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentReadBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentReadBenchmarkTest.class);
+    private static final int PAYMENTS = 2000;
+    private static final int METADATA_ENTRIES = 30;
+    private static final int THREADS = 8;
+    private static final int LOOKUPS_PER_THREAD = 2000;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM payments WHERE payment_id LIKE 'PAY-READ-%'");
+    }
+
+    @Test
+    void testLookupsReadProjectionUnlessMetadataRequested() throws Exception {
+        String donationId = UUID.randomUUID().toString();
+        Payment first = savePayment(donationId);
+        Payment latest = savePayment(donationId);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PaymentResponse byId = paymentService.getPaymentById(first.getPaymentId(), false).orElseThrow();
+        PaymentResponse byDonation = paymentService.getPaymentByDonationId(donationId, false).orElseThrow();
+
+        assertEquals(0, statistics.getEntityLoadCount(), "projection lookups should not load entities");
+        assertEquals(2, statistics.getQueryExecutionCount());
+        assertEquals(first.getPaymentId(), byId.getPaymentId());
+        assertEquals(first.getAmount(), byId.getAmount());
+        assertEquals("Payment created: Processing", byId.getMessage());
+        assertNull(byId.getMetadata());
+        assertFalse(objectMapper.writeValueAsString(byId).contains("\"metadata\""));
+        assertEquals(latest.getPaymentId(), byDonation.getPaymentId(), "the newest payment of the donation is returned");
+
+        PaymentResponse withMetadata = paymentService.getPaymentById(first.getPaymentId(), true).orElseThrow();
+        assertEquals(METADATA_ENTRIES, withMetadata.getMetadata().size());
+        assertEquals(latest.getPaymentId(),
+            paymentService.getPaymentByDonationId(donationId, true).orElseThrow().getPaymentId());
+
+        assertTrue(paymentService.getPaymentById("PAY-READ-missing", false).isEmpty());
+        assertTrue(paymentService.getPaymentByDonationId(UUID.randomUUID().toString(), false).isEmpty());
+    }
+
+    @Test
+    void testReadLatencyUnderLoad() throws Exception {
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 0; i < PAYMENTS; i++) {
+            payments.add(savePayment(UUID.randomUUID().toString()));
+        }
+
+        // Warm-up pass for both paths, then one measured pass each
+        measure(payments, false);
+        measure(payments, true);
+        long[] projection = measure(payments, false);
+        long[] entity = measure(payments, true);
+
+        report("projection", projection);
+        report("entity+metadata", entity);
+        assertEquals(THREADS * LOOKUPS_PER_THREAD, projection.length);
+        assertEquals(THREADS * LOOKUPS_PER_THREAD, entity.length);
+    }
+
+    /**
+     * Run random id and donation lookups on THREADS threads
+     *
+     * @return sorted per-lookup latencies in nanoseconds
+     */
+    private long[] measure(List<Payment> payments, boolean includeMetadata) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[LOOKUPS_PER_THREAD];
+                    for (int i = 0; i < LOOKUPS_PER_THREAD; i++) {
+                        Payment payment = payments.get(ThreadLocalRandom.current().nextInt(payments.size()));
+                        long start = System.nanoTime();
+                        boolean found = i % 2 == 0
+                            ? paymentService.getPaymentById(payment.getPaymentId(), includeMetadata).isPresent()
+                            : paymentService.getPaymentByDonationId(payment.getDonationId(), includeMetadata).isPresent();
+                        latencies[i] = System.nanoTime() - start;
+                        assertTrue(found);
+                    }
+                    return latencies;
+                }));
+            }
+
+            long[] all = new long[THREADS * LOOKUPS_PER_THREAD];
+            for (int t = 0; t < THREADS; t++) {
+                System.arraycopy(futures.get(t).get(), 0, all, t * LOOKUPS_PER_THREAD, LOOKUPS_PER_THREAD);
+            }
+            Arrays.sort(all);
+            return all;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void report(String path, long[] latencies) {
+        logger.info("{} lookups ({} threads): p50 {} us, p99 {} us, max {} us", path, THREADS,
+            latencies[latencies.length / 2] / 1000,
+            latencies[(int) (latencies.length * 0.99)] / 1000,
+            latencies[latencies.length - 1] / 1000);
+    }
+
+    private Payment savePayment(String donationId) {
+        Payment payment = Payment.builder()
+            .paymentId("PAY-READ-" + UUID.randomUUID())
+            .idempotencyKey("read-" + UUID.randomUUID())
+            .donationId(donationId)
+            .userId(200L)
+            .amount(new BigDecimal("15.00"))
+            .status(PaymentStatus.CREATED)
+            .build();
+        for (int i = 0; i < METADATA_ENTRIES; i++) {
+            payment.addMetadata("key_" + i, "value-" + i + "-" + UUID.randomUUID());
+        }
+        return paymentRepository.save(payment);
+    }
+}
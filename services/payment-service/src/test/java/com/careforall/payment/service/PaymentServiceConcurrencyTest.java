@@ -0,0 +1,178 @@
+package com.careforall.payment.service;
+
+import com.careforall.payment.dto.PaymentRequest;
+import com.careforall.payment.dto.PaymentResponse;
+import com.careforall.payment.entity.Payment;
+import com.careforall.payment.enums.PaymentStatus;
+import com.careforall.payment.outbox.OutboxEvent;
+import com.careforall.payment.outbox.OutboxEventRepository;
+import com.careforall.payment.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Payment Service Concurrency Tests
+ *
+ * Fires 500 concurrent requests with one idempotency key at the insert-first path
+ * and compares it with the previous check-then-insert approach.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentServiceConcurrencyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentServiceConcurrencyTest.class);
+    private static final int THREADS = 500;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Test
+    void testInsertFirstReturnsWinnerToEveryDuplicate() throws Exception {
+        PaymentRequest request = request("concurrent-" + UUID.randomUUID());
+        List<Long> latenciesMicros = Collections.synchronizedList(new ArrayList<>());
+
+        List<PaymentResponse> responses = fireConcurrently(() -> {
+            long start = System.nanoTime();
+            PaymentResponse response = paymentService.createOrGetExisting(request);
+            latenciesMicros.add((System.nanoTime() - start) / 1000);
+            return response;
+        });
+
+        String winnerId = responses.get(0).getPaymentId();
+        assertTrue(responses.stream().allMatch(r -> winnerId.equals(r.getPaymentId())));
+        assertEquals(1, responses.stream().filter(r -> !r.isFromCache()).count());
+        assertTrue(paymentRepository.findByIdempotencyKey(request.getIdempotencyKey()).isPresent());
+        assertEquals(1, paymentRepository.findAll().stream()
+            .filter(p -> request.getIdempotencyKey().equals(p.getIdempotencyKey()))
+            .count());
+
+        // Only the winner talks to Banking Service (rolled-back losers leave no outbox row)
+        assertEquals(List.of(OutboxEvent.BANKING_AUTHORIZE), outboxEventRepository.findByAggregateIdOrderByIdAsc(winnerId)
+            .stream().map(OutboxEvent::getEventType).toList());
+        verifyNoInteractions(rabbitTemplate);
+
+        logger.info("insert-first: {} requests, 0 errors, latency {}", THREADS, percentiles(latenciesMicros));
+    }
+
+    @Test
+    void testProcessPaymentCoalescesDuplicatesBeforeTheDatabase() throws Exception {
+        PaymentRequest request = request("coalesced-" + UUID.randomUUID());
+
+        List<PaymentResponse> responses = fireConcurrently(() -> paymentService.processPayment(request));
+
+        assertEquals(1, responses.stream().map(PaymentResponse::getPaymentId).distinct().count());
+        assertEquals(1, responses.stream().filter(r -> !r.isFromCache()).count());
+    }
+
+    @Test
+    void testCheckThenInsertBaselineForComparison() throws Exception {
+        String key = "baseline-" + UUID.randomUUID();
+        AtomicInteger errors = new AtomicInteger();
+        List<Long> latenciesMicros = Collections.synchronizedList(new ArrayList<>());
+
+        fireConcurrently(() -> {
+            long start = System.nanoTime();
+            try {
+                if (paymentRepository.findByIdempotencyKey(key).isEmpty()) {
+                    paymentRepository.saveAndFlush(payment(key));
+                }
+            } catch (Exception e) {
+                errors.incrementAndGet();
+            } finally {
+                latenciesMicros.add((System.nanoTime() - start) / 1000);
+            }
+            return null;
+        });
+
+        // The unique index keeps the data correct, but losers of the race get raw errors
+        assertEquals(1, paymentRepository.findAll().stream()
+            .filter(p -> key.equals(p.getIdempotencyKey()))
+            .count());
+        logger.info("check-then-insert: {} requests, {} errors, latency {}",
+            THREADS, errors.get(), percentiles(latenciesMicros));
+    }
+
+    private <T> List<T> fireConcurrently(Callable<T> call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String percentiles(List<Long> latenciesMicros) {
+        List<Long> sorted = new ArrayList<>(latenciesMicros);
+        Collections.sort(sorted);
+        return String.format("p50=%dus p99=%dus max=%dus",
+            sorted.get(sorted.size() / 2),
+            sorted.get((int) (sorted.size() * 0.99)),
+            sorted.get(sorted.size() - 1));
+    }
+
+    private PaymentRequest request(String idempotencyKey) {
+        PaymentRequest request = new PaymentRequest();
+        request.setIdempotencyKey(idempotencyKey);
+        request.setDonationId("00000000-0000-0000-0000-000000000100");
+        request.setUserId(200L);
+        request.setAmount(new BigDecimal("50.00"));
+        request.setPaymentMethod("donor@example.com");
+        return request;
+    }
+
+    private Payment payment(String idempotencyKey) {
+        return Payment.builder()
+            .paymentId("PAY-" + UUID.randomUUID())
+            .idempotencyKey(idempotencyKey)
+            .donationId("00000000-0000-0000-0000-000000000100")
+            .userId(200L)
+            .amount(new BigDecimal("50.00"))
+            .status(PaymentStatus.CREATED)
+            .build();
+    }
+}
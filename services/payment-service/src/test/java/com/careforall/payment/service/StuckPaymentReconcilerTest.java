@@ -0,0 +1,218 @@
+package com.careforall.payment.service;
+
+import com.careforall.payment.client.BankingLedgerClient;
+import com.careforall.payment.dto.LedgerStatus;
+import com.careforall.payment.entity.Payment;
+import com.careforall.payment.enums.PaymentStatus;
+import com.careforall.payment.outbox.OutboxEvent;
+import com.careforall.payment.outbox.OutboxEventRepository;
+import com.careforall.payment.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Stuck Payment Reconciler Tests
+ *
+ * Verifies stale payments are paged through, looked up in bulk and repaired through
+ * the normal banking-event path.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StuckPaymentReconcilerTest {
+
+    @Autowired
+    private StuckPaymentReconciler reconciler;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @MockBean
+    private BankingLedgerClient bankingLedgerClient;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_id LIKE 'PAY-RECON-%'");
+        jdbcTemplate.update("DELETE FROM payments WHERE payment_id LIKE 'PAY-RECON-%'");
+        ReflectionTestUtils.setField(reconciler, "pageSize", 200);
+    }
+
+    @Test
+    void testReplaysMissingEventsFromLedger() {
+        Payment createdCaptured = stalePayment(PaymentStatus.CREATED, 10);
+        Payment authorizedCaptured = stalePayment(PaymentStatus.AUTHORIZED, 10);
+        Payment createdAuthorized = stalePayment(PaymentStatus.CREATED, 10);
+        Payment createdCancelled = stalePayment(PaymentStatus.CREATED, 10);
+        Payment createdMissing = stalePayment(PaymentStatus.CREATED, 10);
+        Payment abandoned = stalePayment(PaymentStatus.CREATED, 120);
+        Payment fresh = stalePayment(PaymentStatus.CREATED, 0);
+
+        Map<String, LedgerStatus> ledger = new HashMap<>();
+        ledger.put(createdCaptured.getPaymentId(), ledgerStatus(createdCaptured, LedgerStatus.CAPTURED));
+        ledger.put(authorizedCaptured.getPaymentId(), ledgerStatus(authorizedCaptured, LedgerStatus.CAPTURED));
+        ledger.put(createdAuthorized.getPaymentId(), ledgerStatus(createdAuthorized, LedgerStatus.AUTHORIZED));
+        ledger.put(createdCancelled.getPaymentId(), ledgerStatus(createdCancelled, LedgerStatus.CANCELLED));
+        when(bankingLedgerClient.getLedgerStatuses(anyCollection())).thenReturn(ledger);
+        when(bankingLedgerClient.voidPayments(anyCollection()))
+            .thenReturn(Map.of(abandoned.getPaymentId(), voided(abandoned)));
+
+        assertEquals(5, reconciler.runReconciliation());
+
+        assertEquals(PaymentStatus.CAPTURED, statusOf(createdCaptured));
+        assertEquals(PaymentStatus.CAPTURED, statusOf(authorizedCaptured));
+        assertEquals(PaymentStatus.AUTHORIZED, statusOf(createdAuthorized));
+        assertEquals(PaymentStatus.FAILED, statusOf(createdCancelled));
+        assertEquals(PaymentStatus.CREATED, statusOf(createdMissing));
+        assertEquals(PaymentStatus.FAILED, statusOf(abandoned));
+        assertEquals(PaymentStatus.CREATED, statusOf(fresh));
+
+        verify(bankingLedgerClient, never()).getLedgerStatuses(argThat(ids -> ids.contains(fresh.getPaymentId())));
+        verify(bankingLedgerClient).voidPayments(argThat(payments -> payments.size() == 1
+            && payments.iterator().next().getPaymentId().equals(abandoned.getPaymentId())));
+        assertEquals(List.of(OutboxEvent.PAYMENT_COMPLETED), outboxEventTypes(createdCaptured));
+        assertEquals(List.of(OutboxEvent.PAYMENT_FAILED), outboxEventTypes(abandoned));
+        assertEquals(List.of(), outboxEventTypes(createdAuthorized));
+        assertTrue(meterRegistry.get("payment.reconciler.lag.seconds").gauge().value() >= 9 * 60);
+    }
+
+    @Test
+    void testAbandonedPaymentProcessedByBankingIsNotFailed() {
+        // Banking authorized the payment between the lookup and the void
+        Payment lateAuthorized = stalePayment(PaymentStatus.CREATED, 120);
+        when(bankingLedgerClient.getLedgerStatuses(anyCollection())).thenReturn(Map.of());
+        when(bankingLedgerClient.voidPayments(anyCollection())).thenReturn(Map.of(
+            lateAuthorized.getPaymentId(), ledgerStatus(lateAuthorized, LedgerStatus.AUTHORIZED)));
+
+        assertEquals(1, reconciler.runReconciliation());
+
+        assertEquals(PaymentStatus.AUTHORIZED, statusOf(lateAuthorized));
+        assertEquals(List.of(), outboxEventTypes(lateAuthorized));
+    }
+
+    @Test
+    void testVoidFailureLeavesAbandonedPaymentUntouched() {
+        Payment abandoned = stalePayment(PaymentStatus.CREATED, 120);
+        when(bankingLedgerClient.getLedgerStatuses(anyCollection())).thenReturn(Map.of());
+        when(bankingLedgerClient.voidPayments(anyCollection()))
+            .thenThrow(new ResourceAccessException("Connection refused"));
+
+        assertEquals(0, reconciler.runReconciliation());
+
+        assertEquals(PaymentStatus.CREATED, statusOf(abandoned));
+        assertEquals(List.of(), outboxEventTypes(abandoned));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPagesThroughStalePaymentsInBatches() {
+        List<String> paymentIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            paymentIds.add(stalePayment(PaymentStatus.CREATED, 10 + i).getPaymentId());
+        }
+        ReflectionTestUtils.setField(reconciler, "pageSize", 2);
+        when(bankingLedgerClient.getLedgerStatuses(anyCollection())).thenReturn(Map.of());
+
+        assertEquals(0, reconciler.runReconciliation());
+
+        ArgumentCaptor<Collection<String>> batches = ArgumentCaptor.forClass(Collection.class);
+        verify(bankingLedgerClient, times(3)).getLedgerStatuses(batches.capture());
+        List<String> seen = batches.getAllValues().stream().flatMap(Collection::stream).toList();
+        assertEquals(List.of(2, 2, 1), batches.getAllValues().stream().map(Collection::size).toList());
+        assertEquals(new HashSet<>(paymentIds), new HashSet<>(seen));
+        assertEquals(5, seen.size());
+    }
+
+    @Test
+    void testLookupFailureLeavesPaymentsUntouched() {
+        Payment payment = stalePayment(PaymentStatus.CREATED, 120);
+        when(bankingLedgerClient.getLedgerStatuses(anyCollection()))
+            .thenThrow(new ResourceAccessException("Connection refused"));
+        double errorsBefore = meterRegistry.counter("payment.reconciler.lookup.errors").count();
+
+        assertEquals(0, reconciler.runReconciliation());
+
+        assertEquals(PaymentStatus.CREATED, statusOf(payment));
+        assertEquals(1, meterRegistry.counter("payment.reconciler.lookup.errors").count() - errorsBefore);
+        assertEquals(List.of(), outboxEventTypes(payment));
+    }
+
+    private Payment stalePayment(PaymentStatus status, int ageMinutes) {
+        Payment payment = paymentRepository.save(Payment.builder()
+            .paymentId("PAY-RECON-" + UUID.randomUUID())
+            .idempotencyKey("recon-" + UUID.randomUUID())
+            .donationId("00000000-0000-0000-0000-000000000100")
+            .userId(200L)
+            .amount(new BigDecimal("40.00"))
+            .status(status)
+            .build());
+        jdbcTemplate.update("UPDATE payments SET created_at = ? WHERE id = ?",
+            LocalDateTime.now().minusMinutes(ageMinutes), payment.getId());
+        return payment;
+    }
+
+    private LedgerStatus ledgerStatus(Payment payment, String status) {
+        return LedgerStatus.builder()
+            .paymentId(payment.getPaymentId())
+            .status(status)
+            .transactionId("42")
+            .amount(payment.getAmount())
+            .updatedAt(LocalDateTime.now().minusMinutes(9))
+            .build();
+    }
+
+    private LedgerStatus voided(Payment payment) {
+        return LedgerStatus.builder()
+            .paymentId(payment.getPaymentId())
+            .status(LedgerStatus.CANCELLED)
+            .transactionId("43")
+            .amount(payment.getAmount())
+            .updatedAt(LocalDateTime.now())
+            .build();
+    }
+
+    private List<String> outboxEventTypes(Payment payment) {
+        return outboxEventRepository.findByAggregateIdOrderByIdAsc(payment.getPaymentId()).stream()
+            .map(OutboxEvent::getEventType)
+            .toList();
+    }
+
+    private PaymentStatus statusOf(Payment payment) {
+        return paymentRepository.findByPaymentId(payment.getPaymentId()).orElseThrow().getStatus();
+    }
+}
@@ -0,0 +1,99 @@
+package com.careforall.payment.statemachine;
+
+import com.careforall.payment.entity.Payment;
+import com.careforall.payment.enums.PaymentStatus;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Payment State Machine Benchmark
+ *
+ * Measures canTransition and tryTransition throughput and heap allocation per call
+ * on the ordinal transition table. Runs a warm-up pass first so the measured pass
+ * sees JIT-compiled code.
+ */
+class PaymentStateMachineBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentStateMachineBenchmarkTest.class);
+    private static final int WARMUP_ITERATIONS = 3_000_000;
+    private static final int ITERATIONS = 9_000_000;
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+
+    private final PaymentStateMachine stateMachine = new PaymentStateMachine();
+
+    @Test
+    void testCanTransitionThroughput() {
+        runCanTransition(WARMUP_ITERATIONS);
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        int allowed = runCanTransition(ITERATIONS);
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        report("canTransition", elapsedNanos, allocated);
+        assertTrue(allowed > 0);
+        assertTrue(allocated / (double) ITERATIONS < 0.1, "canTransition allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void testTryTransitionThroughput() {
+        Payment payment = Payment.builder().paymentId("PAY-BENCH").status(PaymentStatus.CREATED).build();
+        runTryTransition(payment, WARMUP_ITERATIONS);
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        int applied = runTryTransition(payment, ITERATIONS);
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        report("tryTransition", elapsedNanos, allocated);
+        assertEquals(ITERATIONS / 3 * 2, applied);
+        assertTrue(allocated / (double) ITERATIONS < 0.1, "tryTransition allocated " + allocated + " bytes");
+    }
+
+    private int runCanTransition(int iterations) {
+        int allowed = 0;
+        for (int i = 0; i < iterations; i++) {
+            if (stateMachine.canTransition(STATUSES[i % STATUSES.length], STATUSES[(i / STATUSES.length) % STATUSES.length])) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    /**
+     * Cycles CREATED -> AUTHORIZED -> CAPTURED -> (reset) so two of every three calls apply
+     */
+    private int runTryTransition(Payment payment, int iterations) {
+        int applied = 0;
+        for (int i = 0; i < iterations; i++) {
+            switch (i % 3) {
+                case 0 -> {
+                    payment.setStatus(PaymentStatus.CREATED);
+                    applied += stateMachine.tryTransition(payment, PaymentStatus.AUTHORIZED) == TransitionResult.APPLIED ? 1 : 0;
+                }
+                case 1 -> applied += stateMachine.tryTransition(payment, PaymentStatus.CAPTURED) == TransitionResult.APPLIED ? 1 : 0;
+                default -> applied += stateMachine.tryTransition(payment, PaymentStatus.CAPTURED) == TransitionResult.APPLIED ? 1 : 0;
+            }
+        }
+        return applied;
+    }
+
+    private void report(String operation, long elapsedNanos, long allocated) {
+        logger.info("{}: {} ops/s, {} ns/op, {} bytes/op", operation,
+            String.format("%.0f", ITERATIONS / (elapsedNanos / 1_000_000_000.0)),
+            String.format("%.2f", elapsedNanos / (double) ITERATIONS),
+            String.format("%.4f", allocated / (double) ITERATIONS));
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+            .getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+}
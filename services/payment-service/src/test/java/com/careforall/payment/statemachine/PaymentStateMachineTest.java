@@ -240,4 +240,53 @@ class PaymentStateMachineTest {
         assertFalse(stateMachine.canTransition(PaymentStatus.CAPTURED, PaymentStatus.AUTHORIZED));
         assertFalse(stateMachine.canTransition(PaymentStatus.CAPTURED, PaymentStatus.CREATED));
     }
+
+    // =========================================================================
+    // RESULT CODE TESTS
+    // =========================================================================
+
+    @Test
+    @DisplayName("tryTransition returns result codes instead of throwing")
+    void testTryTransitionResultCodes() {
+        assertEquals(TransitionResult.REJECTED_INVALID, stateMachine.tryTransition(payment, PaymentStatus.CAPTURED));
+        assertEquals(PaymentStatus.CREATED, payment.getStatus());
+
+        assertEquals(TransitionResult.APPLIED, stateMachine.tryTransition(payment, PaymentStatus.AUTHORIZED));
+        assertEquals(TransitionResult.ALREADY_IN_STATE, stateMachine.tryTransition(payment, PaymentStatus.AUTHORIZED));
+        assertEquals(TransitionResult.APPLIED, stateMachine.tryTransition(payment, PaymentStatus.CAPTURED));
+
+        assertEquals(TransitionResult.REJECTED_BACKWARD, stateMachine.tryTransition(payment, PaymentStatus.AUTHORIZED));
+        assertEquals(TransitionResult.REJECTED_NULL, stateMachine.tryTransition(payment, null));
+        assertEquals(PaymentStatus.CAPTURED, payment.getStatus());
+    }
+
+    @Test
+    @DisplayName("Transition table agrees with ranks and valid next states for every pair")
+    void testTransitionTableIsConsistent() {
+        for (PaymentStatus current : PaymentStatus.values()) {
+            Set<PaymentStatus> nextStates = stateMachine.getValidNextStates(current);
+            for (PaymentStatus target : PaymentStatus.values()) {
+                TransitionResult result = stateMachine.evaluate(current, target);
+                if (current == target) {
+                    assertEquals(TransitionResult.ALREADY_IN_STATE, result);
+                } else if (target.getRank() < current.getRank()) {
+                    assertEquals(TransitionResult.REJECTED_BACKWARD, result);
+                } else {
+                    assertEquals(nextStates.contains(target), result == TransitionResult.APPLIED,
+                        current + " -> " + target);
+                }
+                assertEquals(result.isAllowed(), stateMachine.canTransition(current, target));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("FAILED is reachable from any state and idempotent")
+    void testTransitionToFailed() {
+        payment.setStatus(PaymentStatus.AUTHORIZED);
+
+        assertEquals(TransitionResult.APPLIED, stateMachine.transitionToFailed(payment));
+        assertEquals(PaymentStatus.FAILED, payment.getStatus());
+        assertEquals(TransitionResult.ALREADY_IN_STATE, stateMachine.transitionToFailed(payment));
+    }
 }
@@ -0,0 +1,95 @@
+package com.careforall.payment.statemachine;
+
+import com.careforall.payment.entity.Payment;
+import com.careforall.payment.entity.PaymentTransition;
+import com.careforall.payment.enums.PaymentStatus;
+import com.careforall.payment.repository.PaymentTransitionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Payment Transition Audit Log Tests
+ *
+ * Verifies applied transitions reach the payment_transitions table after commit,
+ * and that rejected or rolled-back transitions are not logged.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentTransitionAuditLogTest {
+
+    @Autowired
+    private PaymentStateMachine stateMachine;
+
+    @Autowired
+    private PaymentTransitionRepository transitionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Test
+    void testCommittedTransitionsAreAppended() throws InterruptedException {
+        Payment payment = payment();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            stateMachine.transitionToAuthorized(payment);
+            stateMachine.tryTransition(payment, PaymentStatus.AUTHORIZED);
+            stateMachine.tryTransition(payment, PaymentStatus.CREATED);
+            stateMachine.transitionToCaptured(payment);
+        });
+
+        List<PaymentTransition> transitions = awaitTransitions(payment, 2);
+        assertEquals(PaymentStatus.CREATED, transitions.get(0).getFromStatus());
+        assertEquals(PaymentStatus.AUTHORIZED, transitions.get(0).getToStatus());
+        assertEquals(PaymentStatus.AUTHORIZED, transitions.get(1).getFromStatus());
+        assertEquals(PaymentStatus.CAPTURED, transitions.get(1).getToStatus());
+        assertFalse(transitions.get(1).getOccurredAt().isBefore(transitions.get(0).getOccurredAt()));
+    }
+
+    @Test
+    void testRolledBackTransitionsAreNotLogged() throws InterruptedException {
+        Payment rolledBack = payment();
+        Payment committed = payment();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            stateMachine.transitionToFailed(rolledBack);
+            status.setRollbackOnly();
+        });
+        // Outside a transaction the entry is queued straight away
+        stateMachine.transitionToFailed(committed);
+
+        // The writer is single-threaded and FIFO, so once the later entry is stored the earlier one would be too
+        awaitTransitions(committed, 1);
+        assertEquals(List.of(), transitionRepository.findByPaymentIdOrderByIdAsc(rolledBack.getPaymentId()));
+    }
+
+    private List<PaymentTransition> awaitTransitions(Payment payment, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<PaymentTransition> transitions = transitionRepository.findByPaymentIdOrderByIdAsc(payment.getPaymentId());
+        while (transitions.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            transitions = transitionRepository.findByPaymentIdOrderByIdAsc(payment.getPaymentId());
+        }
+        assertEquals(expected, transitions.size());
+        return transitions;
+    }
+
+    private Payment payment() {
+        return Payment.builder()
+            .paymentId("PAY-AUDIT-" + UUID.randomUUID())
+            .status(PaymentStatus.CREATED)
+            .build();
+    }
+}